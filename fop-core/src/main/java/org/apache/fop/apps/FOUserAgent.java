@@ -56,7 +56,9 @@ import org.apache.fop.events.LoggingEventListener;
 import org.apache.fop.fo.ElementMappingRegistry;
 import org.apache.fop.fo.FOEventHandler;
 import org.apache.fop.fonts.FontManager;
+import org.apache.fop.hyphenation.HyphenatedWordCache;
 import org.apache.fop.hyphenation.HyphenationTreeCache;
+import org.apache.fop.layoutmgr.BreakingAlgorithmListener;
 import org.apache.fop.layoutmgr.LayoutManagerMaker;
 import org.apache.fop.render.ImageHandlerRegistry;
 import org.apache.fop.render.Renderer;
@@ -105,6 +107,8 @@ public class FOUserAgent {
     private FOEventHandler foEventHandlerOverride;
     private boolean locatorEnabled = true; // true by default (for error messages).
     private boolean conserveMemoryPolicy;
+    private boolean asyncPageSequenceLayout;
+    private int asyncRenderQueueSize;
     private EventBroadcaster eventBroadcaster = new FOPEventBroadcaster();
     private StructureTreeEventHandler structureTreeEventHandler
             = DummyStructureTreeEventHandler.INSTANCE;
@@ -136,6 +140,7 @@ public class FOUserAgent {
 
     private final ImageSessionContext imageSessionContext;
     private final SoftMapCache pdfObjectCache = new SoftMapCache(true);
+    private BreakingAlgorithmListener breakingAlgorithmListener;
 
     /**
      * Main constructor. <b>This constructor should not be called directly. Please use the
@@ -150,6 +155,8 @@ public class FOUserAgent {
         setTargetResolution(factory.getTargetResolution());
         setAccessibility(factory.isAccessibilityEnabled());
         setKeepEmptyTags(factory.isKeepEmptyTags());
+        setAsyncPageSequenceLayout(factory.isAsyncPageSequenceLayout());
+        setAsyncRenderQueueSize(factory.getAsyncRenderQueueSize());
         imageSessionContext = new AbstractImageSessionContext(factory.getFallbackResolver()) {
 
             public ImageContext getParentContext() {
@@ -641,6 +648,58 @@ public class FOUserAgent {
         this.conserveMemoryPolicy = conserveMemoryPolicy;
     }
 
+    /**
+     * Check whether page-sequences are laid out on a dedicated layout thread.
+     *
+     * @return true if the layout of a page-sequence may overlap with the FO tree building
+     *          of the following page-sequences
+     */
+    public boolean isAsyncPageSequenceLayout() {
+        return this.asyncPageSequenceLayout;
+    }
+
+    /**
+     * Control whether page-sequences should be laid out on a dedicated layout thread.
+     * Page-sequences are still laid out one after the other, in document order, so page
+     * numbering and forward references behave as in synchronous mode. The setting is ignored
+     * when accessibility is enabled since the structure tree is built while parsing.
+     *
+     * @param asyncPageSequenceLayout true to enable asynchronous page-sequence layout
+     */
+    public void setAsyncPageSequenceLayout(boolean asyncPageSequenceLayout) {
+        this.asyncPageSequenceLayout = asyncPageSequenceLayout;
+    }
+
+    /**
+     * Returns the maximum number of finished pages that may wait for the rendering thread.
+     *
+     * @return the render queue size, 0 if pages are rendered synchronously
+     */
+    public int getAsyncRenderQueueSize() {
+        return this.asyncRenderQueueSize;
+    }
+
+    /**
+     * Controls whether pages are rendered on a dedicated thread, so that the layout of the
+     * following pages overlaps with the serialization of the finished ones. Pages are still
+     * rendered in document order. Layout blocks when the given number of finished pages is
+     * waiting to be rendered.
+     * <p>
+     * This currently only has an effect for the area tree output
+     * ({@link MimeConstants#MIME_FOP_AREA_TREE}). PDF, PostScript, AFP and all other output
+     * formats are always rendered synchronously, as they use the document's fonts, which
+     * are not thread-safe, while rendering.
+     *
+     * @param queueSize the maximum number of finished pages waiting to be rendered,
+     *          0 to render pages synchronously
+     */
+    public void setAsyncRenderQueueSize(int queueSize) {
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("The render queue size must not be negative");
+        }
+        this.asyncRenderQueueSize = queueSize;
+    }
+
     /**
      * Check whether complex script features are enabled.
      *
@@ -819,6 +878,34 @@ public class FOUserAgent {
         return factory.getHyphenationTreeCache();
     }
 
+    /**
+     * Returns the cache of hyphenated words, which is shared by all user agents of the
+     * {@link FopFactory}.
+     * @return the hyphenated word cache
+     * @see FopFactory#getHyphenatedWordCache()
+     */
+    public HyphenatedWordCache getHyphenatedWordCache() {
+        return factory.getHyphenatedWordCache();
+    }
+
+    /**
+     * Returns the listener notified each time a paragraph has been broken into lines or a
+     * sequence into pages.
+     * @return the listener, or null if none has been set
+     */
+    public BreakingAlgorithmListener getBreakingAlgorithmListener() {
+        return breakingAlgorithmListener;
+    }
+
+    /**
+     * Sets a listener notified each time a paragraph has been broken into lines or a sequence
+     * into pages, e.g. to collect statistics about the breaking algorithm.
+     * @param breakingAlgorithmListener the listener, or null to disable notifications
+     */
+    public void setBreakingAlgorithmListener(BreakingAlgorithmListener breakingAlgorithmListener) {
+        this.breakingAlgorithmListener = breakingAlgorithmListener;
+    }
+
     public void setKeepEmptyTags(boolean b) {
         getRendererOptions().put(Accessibility.KEEP_EMPTY_TAGS, b);
     }
@@ -59,6 +59,8 @@ public class FopConfParser {
     private static final String TABLE_BORDER_OVERPAINT = "table-border-overpaint";
     private static final String SIMPLE_LINE_BREAKING = "simple-line-breaking";
     private static final String SKIP_PAGE_POSITION_ONLY_ALLOWED = "skip-page-position-only-allowed";
+    private static final String ASYNC_PAGE_SEQUENCE_LAYOUT = "async-page-sequence-layout";
+    private static final String ASYNC_RENDER_QUEUE_SIZE = "async-render-queue-size";
 
     private final Log log = LogFactory.getLog(FopConfParser.class);
 
@@ -300,6 +302,26 @@ public class FopConfParser {
             }
         }
 
+        if (cfg.getChild(ASYNC_PAGE_SEQUENCE_LAYOUT, false) != null) {
+            try {
+                fopFactoryBuilder.setAsyncPageSequenceLayout(
+                        cfg.getChild(ASYNC_PAGE_SEQUENCE_LAYOUT).getValueAsBoolean());
+            } catch (ConfigurationException e) {
+                LogUtil.handleException(log, e, false);
+            }
+        }
+
+        if (cfg.getChild(ASYNC_RENDER_QUEUE_SIZE, false) != null) {
+            try {
+                fopFactoryBuilder.setAsyncRenderQueueSize(
+                        cfg.getChild(ASYNC_RENDER_QUEUE_SIZE).getValueAsInteger());
+            } catch (ConfigurationException e) {
+                LogUtil.handleException(log, e, strict);
+            } catch (IllegalArgumentException e) {
+                LogUtil.handleException(log, e, strict);
+            }
+        }
+
         // configure font manager
         new FontManagerConfigurator(cfg, baseURI, fopFactoryBuilder.getBaseURI(), resourceResolver)
                 .configure(fopFactoryBuilder.getFontManager(), strict);
@@ -46,6 +46,7 @@ import org.apache.fop.configuration.Configuration;
 import org.apache.fop.fo.ElementMapping;
 import org.apache.fop.fo.ElementMappingRegistry;
 import org.apache.fop.fonts.FontManager;
+import org.apache.fop.hyphenation.HyphenatedWordCache;
 import org.apache.fop.hyphenation.HyphenationTreeCache;
 import org.apache.fop.layoutmgr.LayoutManagerMaker;
 import org.apache.fop.render.ImageHandlerRegistry;
@@ -93,6 +94,8 @@ public final class FopFactory implements ImageContext {
 
     private HyphenationTreeCache hyphenationTreeCache;
 
+    private final HyphenatedWordCache hyphenatedWordCache = new HyphenatedWordCache();
+
     private FopFactory(FopFactoryConfig config) {
         this.config = config;
         this.resolver = ResourceResolverFactory.createInternalResourceResolver(config.getBaseURI(),
@@ -227,6 +230,14 @@ public final class FopFactory implements ImageContext {
         return config.isSkipPagePositionOnlyAllowed();
     }
 
+    boolean isAsyncPageSequenceLayout() {
+        return config.isAsyncPageSequenceLayout();
+    }
+
+    int getAsyncRenderQueueSize() {
+        return config.getAsyncRenderQueueSize();
+    }
+
     /**
      * Returns a new {@link Fop} instance. FOP will be configured with a default user agent
      * instance. Use this factory method if your output type requires an output stream.
@@ -470,4 +481,13 @@ public final class FopFactory implements ImageContext {
         }
         return hyphenationTreeCache;
     }
+
+    /**
+     * Returns the cache of hyphenated words shared by the user agents of this instance, which
+     * all use the same hyphenation patterns.
+     * @return the hyphenated word cache
+     */
+    public HyphenatedWordCache getHyphenatedWordCache() {
+        return hyphenatedWordCache;
+    }
 }
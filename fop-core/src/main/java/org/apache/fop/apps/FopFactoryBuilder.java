@@ -355,6 +355,35 @@ public final class FopFactoryBuilder {
         return this;
     }
 
+    /**
+     * Sets whether page-sequences are laid out on a dedicated layout thread, overlapping with
+     * the FO tree building of the following page-sequences. Page-sequences are still laid out
+     * and rendered in document order.
+     *
+     * @param b true to enable asynchronous page-sequence layout
+     * @return <code>this</code>
+     */
+    public FopFactoryBuilder setAsyncPageSequenceLayout(boolean b) {
+        fopFactoryConfigBuilder.setAsyncPageSequenceLayout(b);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of finished pages that may wait for a dedicated rendering thread.
+     * When greater than zero, pages are rendered on that thread while layout continues; layout
+     * blocks when the queue is full. Zero (the default) renders pages synchronously. This
+     * currently only has an effect for the area tree output; PDF, PostScript, AFP and all other
+     * output formats are always rendered synchronously (see
+     * {@link FOUserAgent#setAsyncRenderQueueSize(int)}).
+     *
+     * @param queueSize the maximum number of finished pages waiting to be rendered
+     * @return <code>this</code>
+     */
+    public FopFactoryBuilder setAsyncRenderQueueSize(int queueSize) {
+        fopFactoryConfigBuilder.setAsyncRenderQueueSize(queueSize);
+        return this;
+    }
+
     public static class FopFactoryConfigImpl implements FopFactoryConfig {
 
         private final EnvironmentProfile enviro;
@@ -401,6 +430,10 @@ public final class FopFactoryBuilder {
 
         private boolean skipPagePositionOnlyAllowed = true;
 
+        private boolean asyncPageSequenceLayout;
+
+        private int asyncRenderQueueSize;
+
         private static final class ImageContextImpl implements ImageContext {
 
             private final FopFactoryConfig config;
@@ -529,6 +562,14 @@ public final class FopFactoryBuilder {
             return skipPagePositionOnlyAllowed;
         }
 
+        public boolean isAsyncPageSequenceLayout() {
+            return asyncPageSequenceLayout;
+        }
+
+        public int getAsyncRenderQueueSize() {
+            return asyncRenderQueueSize;
+        }
+
         public Map<String, String> getHyphenationPatternNames() {
             return hyphPatNames;
         }
@@ -580,6 +621,10 @@ public final class FopFactoryBuilder {
         void setSimpleLineBreaking(boolean b);
 
         void setSkipPagePositionOnlyAllowed(boolean b);
+
+        void setAsyncPageSequenceLayout(boolean b);
+
+        void setAsyncRenderQueueSize(int queueSize);
     }
 
     private static final class CompletedFopFactoryConfigBuilder implements FopFactoryConfigBuilder {
@@ -675,6 +720,14 @@ public final class FopFactoryBuilder {
         public void setSkipPagePositionOnlyAllowed(boolean b) {
             throwIllegalStateException();
         }
+
+        public void setAsyncPageSequenceLayout(boolean b) {
+            throwIllegalStateException();
+        }
+
+        public void setAsyncRenderQueueSize(int queueSize) {
+            throwIllegalStateException();
+        }
     }
 
     private static final class ActiveFopFactoryConfigBuilder implements FopFactoryConfigBuilder {
@@ -771,6 +824,17 @@ public final class FopFactoryBuilder {
         public void setSkipPagePositionOnlyAllowed(boolean b) {
             config.skipPagePositionOnlyAllowed = b;
         }
+
+        public void setAsyncPageSequenceLayout(boolean b) {
+            config.asyncPageSequenceLayout = b;
+        }
+
+        public void setAsyncRenderQueueSize(int queueSize) {
+            if (queueSize < 0) {
+                throw new IllegalArgumentException("The render queue size must not be negative");
+            }
+            config.asyncRenderQueueSize = queueSize;
+        }
     }
 
 }
@@ -169,6 +169,12 @@ public interface FopFactoryConfig {
 
     boolean isSkipPagePositionOnlyAllowed();
 
+    /** @return true if page-sequences are laid out on a dedicated layout thread */
+    boolean isAsyncPageSequenceLayout();
+
+    /** @return the maximum number of finished pages waiting to be rendered, 0 for synchronous rendering */
+    int getAsyncRenderQueueSize();
+
     /** @return the hyphenation pattern names */
     Map<String, String> getHyphenationPatternNames();
 
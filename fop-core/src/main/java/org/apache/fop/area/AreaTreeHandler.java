@@ -46,6 +46,7 @@ import org.apache.fop.layoutmgr.LayoutManagerMaker;
 import org.apache.fop.layoutmgr.LayoutManagerMapping;
 import org.apache.fop.layoutmgr.PageSequenceLayoutManager;
 import org.apache.fop.layoutmgr.TopLevelLayoutManager;
+import org.apache.fop.util.SerialTaskRunner;
 
 /**
  * Area tree handler for formatting objects.
@@ -64,6 +65,9 @@ public class AreaTreeHandler extends FOEventHandler {
 
     private static Log log = LogFactory.getLog(AreaTreeHandler.class);
 
+    // Number of page-sequences that may wait for the layout thread
+    private static final int MAX_PENDING_PAGE_SEQUENCES = 4;
+
     // Recorder of debug statistics
     private Statistics statistics;
 
@@ -89,6 +93,9 @@ public class AreaTreeHandler extends FOEventHandler {
 
     private int idGen;
 
+    // Lays out page-sequences on a dedicated thread (null when layout is synchronous)
+    private SerialTaskRunner layoutPipeline;
+
     /**
      * Constructor.
      *
@@ -113,6 +120,15 @@ public class AreaTreeHandler extends FOEventHandler {
 
         this.useComplexScriptFeatures = userAgent.isComplexScriptFeaturesEnabled();
 
+        if (userAgent.isAsyncPageSequenceLayout()) {
+            if (userAgent.isAccessibilityEnabled()) {
+                log.debug("Asynchronous page-sequence layout is not available with accessibility"
+                        + " enabled. Falling back to synchronous layout.");
+            } else {
+                this.layoutPipeline = new SerialTaskRunner("FOP layout", MAX_PENDING_PAGE_SEQUENCES);
+            }
+        }
+
         if (log.isDebugEnabled()) {
             statistics = new Statistics();
         }
@@ -222,22 +238,39 @@ public class AreaTreeHandler extends FOEventHandler {
         startAbstractPageSequence(pageSequence);
     }
 
-    private void startAbstractPageSequence(AbstractPageSequence pageSequence) {
+    private void startAbstractPageSequence(final AbstractPageSequence pageSequence) {
         rootFObj = pageSequence.getRoot();
 
-        //Before the first page-sequence...
-        if (this.prevPageSeqLM == null) {
-            // extension attachments from fo:root
-            wrapAndAddExtensionAttachments(rootFObj.getExtensionAttachments());
-            // extension attachments from fo:declarations
-            if (rootFObj.getDeclarations() != null) {
-                wrapAndAddExtensionAttachments(
-                        rootFObj.getDeclarations().getExtensionAttachments());
+        runLayoutTask(new Runnable() {
+            public void run() {
+                //Before the first page-sequence...
+                if (prevPageSeqLM == null) {
+                    // extension attachments from fo:root
+                    wrapAndAddExtensionAttachments(rootFObj.getExtensionAttachments());
+                    // extension attachments from fo:declarations
+                    if (rootFObj.getDeclarations() != null) {
+                        wrapAndAddExtensionAttachments(
+                                rootFObj.getDeclarations().getExtensionAttachments());
+                    }
+                }
+
+                finishPrevPageSequence(pageSequence.getInitialPageNumber());
+                pageSequence.initPageNumber();
             }
-        }
+        });
+    }
 
-        finishPrevPageSequence(pageSequence.getInitialPageNumber());
-        pageSequence.initPageNumber();
+    /**
+     * Runs a task that touches the layout or the area tree model. The task is either run
+     * immediately or, if asynchronous page-sequence layout is enabled, handed over to the
+     * layout thread which runs the tasks in the order they are submitted.
+     */
+    private void runLayoutTask(Runnable task) {
+        if (layoutPipeline != null) {
+            layoutPipeline.submit(task);
+        } else {
+            task.run();
+        }
     }
 
     private void wrapAndAddExtensionAttachments(List<ExtensionAttachment> list) {
@@ -253,7 +286,7 @@ public class AreaTreeHandler extends FOEventHandler {
      * @param pageSequence the page sequence ending
      */
     @Override
-    public void endPageSequence(PageSequence pageSequence) {
+    public void endPageSequence(final PageSequence pageSequence) {
 
         if (statistics != null) {
             statistics.end();
@@ -261,13 +294,17 @@ public class AreaTreeHandler extends FOEventHandler {
 
         // If no main flow, nothing to layout!
         if (pageSequence.getMainFlow() != null) {
-            PageSequenceLayoutManager pageSLM;
-            pageSLM = getLayoutManagerMaker().makePageSequenceLayoutManager(
-                    this, pageSequence);
-            pageSLM.activateLayout();
-            // preserve the current PageSequenceLayoutManger for the
-            // force-page-count check at the beginning of the next PageSequence
-            prevPageSeqLM = pageSLM;
+            runLayoutTask(new Runnable() {
+                public void run() {
+                    PageSequenceLayoutManager pageSLM;
+                    pageSLM = getLayoutManagerMaker().makePageSequenceLayoutManager(
+                            AreaTreeHandler.this, pageSequence);
+                    pageSLM.activateLayout();
+                    // preserve the current PageSequenceLayoutManger for the
+                    // force-page-count check at the beginning of the next PageSequence
+                    prevPageSeqLM = pageSLM;
+                }
+            });
         }
     }
 
@@ -279,18 +316,22 @@ public class AreaTreeHandler extends FOEventHandler {
 
     /** {@inheritDoc} */
     @Override
-    public void endExternalDocument(ExternalDocument document) {
+    public void endExternalDocument(final ExternalDocument document) {
         if (statistics != null) {
             statistics.end();
         }
 
-        ExternalDocumentLayoutManager edLM;
-        edLM = getLayoutManagerMaker().makeExternalDocumentLayoutManager(this, document);
-        edLM.activateLayout();
-        // preserve the current PageSequenceLayoutManger for the
-        // force-page-count check at the beginning of the next PageSequence
-        prevPageSeqLM = edLM;
-
+        runLayoutTask(new Runnable() {
+            public void run() {
+                ExternalDocumentLayoutManager edLM;
+                edLM = getLayoutManagerMaker().makeExternalDocumentLayoutManager(
+                        AreaTreeHandler.this, document);
+                edLM.activateLayout();
+                // preserve the current PageSequenceLayoutManger for the
+                // force-page-count check at the beginning of the next PageSequence
+                prevPageSeqLM = edLM;
+            }
+        });
     }
 
     /**
@@ -316,6 +357,11 @@ public class AreaTreeHandler extends FOEventHandler {
     @Override
     public void endDocument() throws SAXException {
 
+        if (layoutPipeline != null) {
+            // wait for the layout thread; everything below runs once all pages are laid out
+            layoutPipeline.finish();
+            layoutPipeline = null;
+        }
         finishPrevPageSequence(null);
         // process fox:destination elements
         if (rootFObj != null) {
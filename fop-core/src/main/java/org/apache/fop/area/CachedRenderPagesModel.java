@@ -70,6 +70,16 @@ public class CachedRenderPagesModel extends RenderPagesModel {
         tempBaseURI = TEMP_URI_GENERATOR.generate();
     }
 
+    /**
+     * {@inheritDoc}
+     * Pages are saved to and loaded from the cache on the layout thread, so they are
+     * rendered synchronously.
+     */
+    @Override
+    protected boolean supportsAsyncRendering() {
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected boolean checkPreparedPages(PageViewport newpage, boolean renderUnresolved) {
@@ -31,8 +31,10 @@ import org.xml.sax.SAXException;
 import org.apache.fop.apps.FOPException;
 import org.apache.fop.apps.FOUserAgent;
 import org.apache.fop.fonts.FontInfo;
+import org.apache.fop.render.AbstractRenderer;
 import org.apache.fop.render.Renderer;
 import org.apache.fop.render.RendererEventProducer;
+import org.apache.fop.util.SerialTaskRunner;
 
 /**
  * This uses the AreaTreeModel to store the pages
@@ -56,6 +58,9 @@ public class RenderPagesModel extends AreaTreeModel {
     private List<OffDocumentItem> pendingODI = new java.util.ArrayList<OffDocumentItem>();
     private List<OffDocumentItem> endDocODI = new java.util.ArrayList<OffDocumentItem>();
 
+    /** Renders pages on a dedicated thread (null when pages are rendered synchronously). */
+    private SerialTaskRunner renderQueue;
+
     /**
      * Create a new render pages model with the given renderer.
      * @param userAgent FOUserAgent object for process
@@ -82,11 +87,52 @@ public class RenderPagesModel extends AreaTreeModel {
         } catch (IOException e) {
             throw new FOPException(e);
         }
+
+        int queueSize = userAgent.getAsyncRenderQueueSize();
+        if (queueSize > 0 && supportsAsyncRendering()) {
+            renderQueue = new SerialTaskRunner("FOP rendering", queueSize);
+        }
+    }
+
+    /**
+     * Indicates whether pages can be rendered on a dedicated thread. This is only possible
+     * for renderers that render pages in document order, as the pages are then handed over to
+     * the renderer only once they are fully resolved and no longer touched by the layout, and
+     * that don't use the fonts shared with layout (see
+     * {@link AbstractRenderer#supportsAsyncRendering()}).
+     * @return true if asynchronous rendering is supported
+     */
+    protected boolean supportsAsyncRendering() {
+        return !renderer.supportsOutOfOrder() && renderer instanceof AbstractRenderer
+                && ((AbstractRenderer) renderer).supportsAsyncRendering();
+    }
+
+    /** @return true if pages are rendered on a dedicated thread */
+    boolean isRenderingAsynchronously() {
+        return renderQueue != null;
+    }
+
+    /**
+     * Runs a task that calls the renderer. The task is either run immediately or, if
+     * asynchronous rendering is enabled, queued for the rendering thread which runs the tasks
+     * in the order they are submitted. Blocks while the render queue is full.
+     * @param task the task
+     */
+    protected void runRenderTask(Runnable task) {
+        if (renderQueue != null) {
+            renderQueue.submit(task);
+        } else {
+            task.run();
+        }
     }
 
     @Override
-    public void setDocumentLocale(Locale locale) {
-        renderer.setDocumentLocale(locale);
+    public void setDocumentLocale(final Locale locale) {
+        runRenderTask(new Runnable() {
+            public void run() {
+                renderer.setDocumentLocale(locale);
+            }
+        });
     }
 
     /** {@inheritDoc} */
@@ -165,14 +211,19 @@ public class RenderPagesModel extends AreaTreeModel {
                                          boolean renderUnresolved) {
 
         for (Iterator iter = prepared.iterator(); iter.hasNext();) {
-            PageViewport pageViewport = (PageViewport)iter.next();
+            final PageViewport pageViewport = (PageViewport)iter.next();
             if (pageViewport.isResolved() || renderUnresolved) {
-                if (!renderer.supportsOutOfOrder()
-                        && pageViewport.getPageSequence().isFirstPage(pageViewport)) {
-                    renderer.startPageSequence(pageViewport.getPageSequence());
-                }
-                renderPage(pageViewport);
-                pageViewport.clear();
+                final boolean startPageSequence = !renderer.supportsOutOfOrder()
+                        && pageViewport.getPageSequence().isFirstPage(pageViewport);
+                runRenderTask(new Runnable() {
+                    public void run() {
+                        if (startPageSequence) {
+                            renderer.startPageSequence(pageViewport.getPageSequence());
+                        }
+                        renderPage(pageViewport);
+                        pageViewport.clear();
+                    }
+                });
                 iter.remove();
             } else {
                 // if keeping order then stop at first page not resolved
@@ -220,7 +271,7 @@ public class RenderPagesModel extends AreaTreeModel {
     public void handleOffDocumentItem(OffDocumentItem oDI) {
         switch(oDI.getWhenToProcess()) {
             case OffDocumentItem.IMMEDIATELY:
-                renderer.processOffDocumentItem(oDI);
+                processOffDocumentItems(java.util.Collections.singletonList(oDI));
                 break;
             case OffDocumentItem.AFTER_PAGE:
                 pendingODI.add(oDI);
@@ -234,9 +285,18 @@ public class RenderPagesModel extends AreaTreeModel {
     }
 
     private void processOffDocumentItems(List<OffDocumentItem> list) {
-        for (OffDocumentItem oDI : list) {
-            renderer.processOffDocumentItem(oDI);
+        if (list.isEmpty()) {
+            return;
         }
+        // the list is cleared by the caller, possibly before the task has run
+        final List<OffDocumentItem> items = new java.util.ArrayList<OffDocumentItem>(list);
+        runRenderTask(new Runnable() {
+            public void run() {
+                for (OffDocumentItem oDI : items) {
+                    renderer.processOffDocumentItem(oDI);
+                }
+            }
+        });
     }
 
     /**
@@ -252,6 +312,11 @@ public class RenderPagesModel extends AreaTreeModel {
         pendingODI.clear();
         processOffDocumentItems(endDocODI);
 
+        if (renderQueue != null) {
+            // wait until all pages have been rendered
+            renderQueue.finish();
+            renderQueue = null;
+        }
         try {
             renderer.stopRenderer();
         } catch (IOException ex) {
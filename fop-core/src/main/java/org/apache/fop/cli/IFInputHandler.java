@@ -19,7 +19,11 @@
 
 package org.apache.fop.cli;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Vector;
 
@@ -27,15 +31,19 @@ import javax.xml.transform.Result;
 import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamResult;
 
+import org.apache.commons.io.IOUtils;
+
 import org.apache.fop.apps.FOPException;
 import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.render.intermediate.BinaryIFParser;
 import org.apache.fop.render.intermediate.IFDocumentHandler;
 import org.apache.fop.render.intermediate.IFException;
 import org.apache.fop.render.intermediate.IFParser;
 import org.apache.fop.render.intermediate.IFUtil;
 
 /**
- * InputHandler for the intermediate format XML as input.
+ * InputHandler for the intermediate format XML as input. Files in the binary encoding of the
+ * intermediate format are recognized and read as well.
  */
 public class IFInputHandler extends InputHandler {
 
@@ -68,6 +76,16 @@ public class IFInputHandler extends InputHandler {
             documentHandler.setResult(new StreamResult(out));
             IFUtil.setupFonts(documentHandler);
 
+            if (sourcefile != null && BinaryIFParser.isBinaryIF(sourcefile)) {
+                InputStream in = new BufferedInputStream(new FileInputStream(sourcefile));
+                try {
+                    new BinaryIFParser().parse(in, documentHandler, userAgent);
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+                return;
+            }
+
             //Create IF parser
             IFParser parser = new IFParser();
 
@@ -77,6 +95,8 @@ public class IFInputHandler extends InputHandler {
             transformTo(res);
         } catch (IFException ife) {
             throw new FOPException(ife);
+        } catch (IOException ioe) {
+            throw new FOPException(ioe);
         }
     }
 
@@ -60,7 +60,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
     }
 
     /** {@inheritDoc} */
-    public List getEntries() {
+    public List<?> getEntries() {
         return ((GlyphMappingTable) cm) .getEntries();
     }
 
@@ -79,7 +79,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
      * @param entries list of mapped or ranged class entries, or null or empty list
      * @return a new covera table instance
      */
-    public static GlyphClassTable createClassTable(List entries) {
+    public static GlyphClassTable createClassTable(List<?> entries) {
         GlyphClassMapping cm;
         if ((entries == null) || (entries.size() == 0)) {
             cm = new EmptyClassTable(entries);
@@ -96,7 +96,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
         return new GlyphClassTable(cm);
     }
 
-    private static boolean isMappedClass(List entries) {
+    private static boolean isMappedClass(List<?> entries) {
         if ((entries == null) || (entries.size() == 0)) {
             return false;
         } else {
@@ -109,7 +109,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
         }
     }
 
-    private static boolean isRangeClass(List entries) {
+    private static boolean isRangeClass(List<?> entries) {
         if ((entries == null) || (entries.size() == 0)) {
             return false;
         } else {
@@ -122,7 +122,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
         }
     }
 
-    private static boolean isCoverageSetClass(List entries) {
+    private static boolean isCoverageSetClass(List<?> entries) {
         if ((entries == null) || (entries.size() == 0)) {
             return false;
         } else {
@@ -136,7 +136,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
     }
 
     private static class EmptyClassTable extends GlyphMappingTable.EmptyMappingTable implements GlyphClassMapping {
-        public EmptyClassTable(List entries) {
+        public EmptyClassTable(List<?> entries) {
             super(entries);
         }
         /** {@inheritDoc} */
@@ -153,12 +153,12 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
         private int firstGlyph;
         private int[] gca;
         private int gcMax = -1;
-        public MappedClassTable(List entries) {
+        public MappedClassTable(List<?> entries) {
             populate(entries);
         }
         /** {@inheritDoc} */
-        public List getEntries() {
-            List entries = new java.util.ArrayList();
+        public List<?> getEntries() {
+            List<Object> entries = new java.util.ArrayList<Object>();
             entries.add(firstGlyph);
             if (gca != null) {
                 for (int aGca : gca) {
@@ -188,9 +188,9 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
         public int getClassIndex(int gid, int set) {
             return getMappedIndex(gid);
         }
-        private void populate(List entries) {
+        private void populate(List<?> entries) {
             // obtain entries iterator
-            Iterator it = entries.iterator();
+            Iterator<?> it = entries.iterator();
             // extract first glyph
             int firstGlyph = 0;
             if (it.hasNext()) {
@@ -240,7 +240,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
     }
 
     private static class RangeClassTable extends GlyphMappingTable.RangeMappingTable implements GlyphClassMapping {
-        public RangeClassTable(List entries) {
+        public RangeClassTable(List<?> entries) {
             super(entries);
         }
         /** {@inheritDoc} */
@@ -259,7 +259,7 @@ public final class GlyphClassTable extends GlyphMappingTable implements GlyphCla
 
     private static class CoverageSetClassTable extends GlyphMappingTable.EmptyMappingTable implements GlyphClassMapping {
         private static final Log LOG = LogFactory.getLog(CoverageSetClassTable.class);
-        public CoverageSetClassTable(List entries) {
+        public CoverageSetClassTable(List<?> entries) {
             LOG.warn("coverage set class table not yet supported");
         }
         /** {@inheritDoc} */
@@ -60,7 +60,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
     }
 
     /** {@inheritDoc} */
-    public List getEntries() {
+    public List<?> getEntries() {
         return ((GlyphMappingTable) cm) .getEntries();
     }
 
@@ -79,7 +79,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
      * @param entries list of mapped or ranged coverage entries, or null or empty list
      * @return a new covera table instance
      */
-    public static GlyphCoverageTable createCoverageTable(List entries) {
+    public static GlyphCoverageTable createCoverageTable(List<?> entries) {
         GlyphCoverageMapping cm;
         if ((entries == null) || (entries.size() == 0)) {
             cm = new EmptyCoverageTable(entries);
@@ -94,7 +94,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
         return new GlyphCoverageTable(cm);
     }
 
-    private static boolean isMappedCoverage(List entries) {
+    private static boolean isMappedCoverage(List<?> entries) {
         if ((entries == null) || (entries.size() == 0)) {
             return false;
         } else {
@@ -107,7 +107,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
         }
     }
 
-    private static boolean isRangeCoverage(List entries) {
+    private static boolean isRangeCoverage(List<?> entries) {
         if ((entries == null) || (entries.size() == 0)) {
             return false;
         } else {
@@ -121,7 +121,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
     }
 
     private static class EmptyCoverageTable extends GlyphMappingTable.EmptyMappingTable implements GlyphCoverageMapping {
-        public EmptyCoverageTable(List entries) {
+        public EmptyCoverageTable(List<?> entries) {
             super(entries);
         }
         /** {@inheritDoc} */
@@ -136,12 +136,13 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
 
     private static class MappedCoverageTable extends GlyphMappingTable.MappedMappingTable implements GlyphCoverageMapping {
         private int[] map;
-        public MappedCoverageTable(List entries) {
+        private DenseMapping dense;                                      // dense form, if not too sparse
+        public MappedCoverageTable(List<?> entries) {
             populate(entries);
         }
         /** {@inheritDoc} */
-        public List getEntries() {
-            List entries = new java.util.ArrayList();
+        public List<?> getEntries() {
+            List<Object> entries = new java.util.ArrayList<Object>();
             if (map != null) {
                 for (int aMap : map) {
                     entries.add(aMap);
@@ -154,6 +155,9 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
             return (map != null) ? map.length : 0;
         }
         public int getMappedIndex(int gid) {
+            if (dense != null) {
+                return dense.getMappedIndex(gid);
+            }
             int i;
             if ((i = Arrays.binarySearch(map, gid)) >= 0) {
                 return i;
@@ -169,7 +173,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
         public int getCoverageIndex(int gid) {
             return getMappedIndex(gid);
         }
-        private void populate(List entries) {
+        private void populate(List<?> entries) {
             int i = 0;
             int skipped = 0;
             int n = entries.size();
@@ -195,6 +199,19 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
             assert (i + skipped) == n;
             assert this.map == null;
             this.map = map;
+            this.dense = compile(map);
+        }
+        private static DenseMapping compile(int[] map) {
+            int n = map.length;
+            DenseMapping dense = (n > 0) ? DenseMapping.create(map [ 0 ], map [ n - 1 ], n) : null;
+            if (dense != null) {
+                for (int i = 0; i < n; i++) {
+                    if (((i > 0) && (map [ i ] <= map [ i - 1 ])) || !dense.put(map [ i ], i)) {
+                        return null;
+                    }
+                }
+            }
+            return dense;
         }
         /** {@inheritDoc} */
         public String toString() {
@@ -212,7 +229,7 @@ public final class GlyphCoverageTable extends GlyphMappingTable implements Glyph
     }
 
     private static class RangeCoverageTable extends GlyphMappingTable.RangeMappingTable implements GlyphCoverageMapping {
-        public RangeCoverageTable(List entries) {
+        public RangeCoverageTable(List<?> entries) {
             super(entries);
         }
         /** {@inheritDoc} */
@@ -54,7 +54,7 @@ public class GlyphMappingTable {
      * Obtain mapping entries.
      * @return list of mapping entries
      */
-    public List getEntries() {
+    public List<?> getEntries() {
         return null;
     }
 
@@ -77,27 +77,93 @@ public class GlyphMappingTable {
         return -1;
     }
 
+    /**
+     * Dense, array-backed form of a mapping table: the mapped index of every glyph between the first
+     * and the last mapped glyph is stored in an array indexed by glyph identifier, so a lookup is a
+     * bounds check and an array access instead of a binary search. The form is only used if the mapped
+     * glyphs aren't too sparse, so its size stays proportional to the number of mapped glyphs.
+     */
+    static final class DenseMapping {
+
+        /** maximum ratio of glyph identifier span to number of mapped glyphs */
+        private static final int MAX_SPARSENESS = 8;
+
+        private final int first;
+
+        /** mapped index + 1 of each glyph in span, or 0 if glyph is not mapped */
+        private final char[] indices;
+
+        private DenseMapping(int first, int last) {
+            this.first = first;
+            this.indices = new char [ last - first + 1 ];
+        }
+
+        /**
+         * Create dense mapping for a span of glyphs.
+         * @param first first mapped glyph
+         * @param last last mapped glyph
+         * @param count number of mapped glyphs
+         * @return dense mapping without entries, or null if mapped glyphs are too sparse
+         */
+        static DenseMapping create(int first, int last, int count) {
+            if ((count <= 0) || (last < first) || ((last - first + 1) > (count * MAX_SPARSENESS))) {
+                return null;
+            } else {
+                return new DenseMapping(first, last);
+            }
+        }
+
+        /**
+         * Add mapping entry.
+         * @param gid glyph identifier (code) in span
+         * @param index non-negative mapping index
+         * @return false if index can't be represented, in which case the dense mapping must not be used
+         */
+        boolean put(int gid, int index) {
+            if ((index < 0) || (index >= Character.MAX_VALUE)) {
+                return false;
+            } else {
+                indices [ gid - first ] = (char) (index + 1);
+                return true;
+            }
+        }
+
+        /**
+         * Map glyph identifier (code) to mapping index.
+         * @param gid glyph identifier (code)
+         * @return non-negative glyph mapping index or -1 if glyph identifiers is not mapped
+         */
+        int getMappedIndex(int gid) {
+            int i = gid - first;
+            if ((i >= 0) && (i < indices.length)) {
+                return indices [ i ] - 1;
+            } else {
+                return -1;
+            }
+        }
+    }
+
     /** empty mapping table base class */
     protected static class EmptyMappingTable extends GlyphMappingTable {
         /**
          * Construct empty mapping table.
          */
         public EmptyMappingTable() {
-            this ((List) null);
+            this ((List<?>) null);
         }
         /**
          * Construct empty mapping table with entries (ignored).
          * @param entries list of entries (ignored)
          */
-        public EmptyMappingTable(List entries) {
+        public EmptyMappingTable(List<?> entries) {
         }
         /** {@inheritDoc} */
         public int getType() {
             return GLYPH_MAPPING_TYPE_EMPTY;
         }
         /** {@inheritDoc} */
-        public List getEntries() {
-            return new java.util.ArrayList();
+        public List<?> getEntries() {
+            return new java.util.ArrayList<Object>();
         }
         /** {@inheritDoc} */
         public int getMappingSize() {
@@ -128,11 +194,12 @@ public class GlyphMappingTable {
         private int[] ea;                                                // array of range (inclusive) ends
         private int[] ma;                                                // array of range mapped values
         private int miMax = -1;
+        private DenseMapping dense;                                      // dense form, if not too sparse
         /**
          * Construct range mapping table.
          * @param entries of mapping ranges
          */
-        public RangeMappingTable(List entries) {
+        public RangeMappingTable(List<?> entries) {
             populate(entries);
         }
         /** {@inheritDoc} */
@@ -140,8 +207,8 @@ public class GlyphMappingTable {
             return GLYPH_MAPPING_TYPE_RANGE;
         }
         /** {@inheritDoc} */
-        public List getEntries() {
-            List entries = new java.util.ArrayList();
+        public List<?> getEntries() {
+            List<Object> entries = new java.util.ArrayList<Object>();
             if (sa != null) {
                 for (int i = 0, n = sa.length; i < n; i++) {
                     entries.add(new MappingRange(sa [ i ], ea [ i ], ma [ i ]));
@@ -155,6 +222,9 @@ public class GlyphMappingTable {
         }
         /** {@inheritDoc} */
         public int getMappedIndex(int gid) {
+            if (dense != null) {
+                return dense.getMappedIndex(gid);
+            }
             int i;
             int mi;
             if ((i = Arrays.binarySearch(sa, gid)) >= 0) {
@@ -177,7 +247,7 @@ public class GlyphMappingTable {
          * @return non-negative glyph mapping index or -1 if glyph identifiers is not mapped by table
          */
         public abstract int getMappedIndex(int gid, int s, int m);
-        private void populate(List entries) {
+        private void populate(List<?> entries) {
             int i = 0;
             int n = entries.size();
             int gidMax = -1;
@@ -223,6 +293,26 @@ public class GlyphMappingTable {
             this.ea = ea;
             this.ma = ma;
             this.miMax = miMax;
+            this.dense = compile(sa, ea, ma);
+        }
+        private DenseMapping compile(int[] sa, int[] ea, int[] ma) {
+            int n = sa.length;
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                count += ea [ i ] - sa [ i ] + 1;
+            }
+            DenseMapping dense = (n > 0) ? DenseMapping.create(sa [ 0 ], ea [ n - 1 ], count) : null;
+            if (dense != null) {
+                for (int i = 0; i < n; i++) {
+                    for (int gid = sa [ i ]; gid <= ea [ i ]; gid++) {
+                        // N.B. subclasses compute the mapped index from their arguments only
+                        if (!dense.put(gid, getMappedIndex(gid, sa [ i ], ma [ i ]))) {
+                            return null;
+                        }
+                    }
+                }
+            }
+            return dense;
         }
         /** {@inheritDoc} */
         public String toString() {
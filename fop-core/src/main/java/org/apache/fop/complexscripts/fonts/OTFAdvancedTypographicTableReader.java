@@ -90,6 +90,8 @@ public final class OTFAdvancedTypographicTableReader {
             throw new AdvancedTypographicTableFormatException(e.getMessage(), e);
         } finally {
             resetATState();
+            // all tables have been read, don't retain the font file
+            in = null;
         }
     }
 
@@ -44,6 +44,7 @@ import org.apache.fop.fo.extensions.ExtensionElementMapping;
 import org.apache.fop.fo.extensions.InternalElementMapping;
 import org.apache.fop.fo.extensions.svg.SVGElementMapping;
 import org.apache.fop.fo.flow.ChangeBar;
+import org.apache.fop.fo.pagination.PageSequence;
 import org.apache.fop.fo.pagination.Root;
 import org.apache.fop.util.CharUtilities;
 import org.apache.fop.util.ContentHandlerFactory;
@@ -801,6 +802,17 @@ public abstract class FONode implements Cloneable {
         return parent.getRoot();
     }
 
+    /**
+     * Returns the page-sequence this node belongs to. Unlike
+     * {@link Root#getLastPageSequence()}, this is also correct while the FO tree of a following
+     * page-sequence is being built, e.g. when marker subtrees are cloned during layout.
+     *
+     * @return the ancestor page-sequence, or null if this node is not part of a page-sequence
+     */
+    public PageSequence getPageSequence() {
+        return (parent != null ? parent.getPageSequence() : null);
+    }
+
     /**
      * Returns the fully qualified name of the node
      *
@@ -112,9 +112,9 @@ public class FOText extends FONode implements CharSequence, TextFragment {
     public FOText(FONode parent) {
         super(parent);
 
-        PageSequence pageSequence = getRoot().getLastPageSequence();
+        PageSequence pageSequence = getPageSequence();
         if (pageSequence != null && pageSequence.hasChangeBars()) {
-            nodeChangeBarList = getRoot().getLastPageSequence().getClonedChangeBarList();
+            nodeChangeBarList = pageSequence.getClonedChangeBarList();
         }
     }
 
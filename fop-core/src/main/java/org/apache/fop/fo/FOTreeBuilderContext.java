@@ -48,6 +48,20 @@ public class FOTreeBuilderContext {
      */
     private boolean inMarker;
 
+    /**
+     * Creates a context for building FO nodes outside of the FO tree builder, e.g. when marker
+     * subtrees are cloned during layout. The new context continues from the current
+     * white-space handling state and uses the same property list maker, but it keeps its own
+     * IDs and is not in marker context. Changes to either context don't affect the other.
+     * @return the new context
+     */
+    public FOTreeBuilderContext createDetachedContext() {
+        FOTreeBuilderContext context = new FOTreeBuilderContext();
+        context.propertyListMaker = propertyListMaker;
+        context.whiteSpaceHandler = new XMLWhiteSpaceHandler(whiteSpaceHandler);
+        return context;
+    }
+
     /**
      * Returns the set of ID references.
      * @return the ID references
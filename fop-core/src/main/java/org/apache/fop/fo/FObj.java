@@ -188,7 +188,7 @@ public abstract class FObj extends FONode implements Constants {
             checkId(id);
         }
 
-        PageSequence pageSequence = getRoot().getLastPageSequence();
+        PageSequence pageSequence = getPageSequence();
         if (pageSequence != null && pageSequence.hasChangeBars()) {
             startOfNodeChangeBarList = pageSequence.getClonedChangeBarList();
         }
@@ -202,7 +202,7 @@ public abstract class FObj extends FONode implements Constants {
 
         List<ChangeBar> endOfNodeChangeBarList = null;
 
-        PageSequence pageSequence = getRoot().getLastPageSequence();
+        PageSequence pageSequence = getPageSequence();
         if (pageSequence != null) {
             endOfNodeChangeBarList = pageSequence.getClonedChangeBarList();
         }
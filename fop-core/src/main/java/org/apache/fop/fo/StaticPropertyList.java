@@ -23,12 +23,20 @@ import org.apache.fop.fo.expr.PropertyException;
 import org.apache.fop.fo.properties.Property;
 
 /**
- * A very fast implementation of PropertyList that uses arrays to store
- * the explicit set properties and another array to store cached values.
+ * A fast implementation of PropertyList that stores the explicitly set properties and the
+ * cached values in a compact open-addressed table keyed by property id. Only the properties
+ * that are actually set or retrieved take up space, instead of a slot for every property.
  */
 public class StaticPropertyList extends PropertyList {
-    private final Property[] explicit;
-    private final Property[] values;
+
+    /** Initial number of slots; must be a power of two. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Property ids, 0 marks an empty slot (property ids start at 1). */
+    private int[] ids;
+    private Property[] explicit;
+    private Property[] values;
+    private int size;
 
     /**
      * Construct a StaticPropertyList.
@@ -37,8 +45,9 @@ public class StaticPropertyList extends PropertyList {
      */
     public StaticPropertyList(FObj fObjToAttach, PropertyList parentPropertyList) {
         super(fObjToAttach, parentPropertyList);
-        explicit = new Property[Constants.PROPERTY_COUNT + 1];
-        values = new Property[Constants.PROPERTY_COUNT + 1];
+        ids = new int[INITIAL_CAPACITY];
+        explicit = new Property[INITIAL_CAPACITY];
+        values = new Property[INITIAL_CAPACITY];
     }
 
     /**
@@ -47,7 +56,8 @@ public class StaticPropertyList extends PropertyList {
      * @return The value if the property is explicitly set, otherwise null.
      */
     public Property getExplicit(int propId) {
-        return explicit[propId];
+        int slot = findSlot(propId);
+        return ids[slot] == propId ? explicit[slot] : null;
     }
 
     /**
@@ -56,9 +66,10 @@ public class StaticPropertyList extends PropertyList {
      * @param value The value of the property to set.
      */
     public void putExplicit(int propId, Property value) {
-        explicit[propId] = value;
-        if (values[propId] != null) { // if the cached value is set overwrite it
-            values[propId] = value;
+        int slot = slotFor(propId);
+        explicit[slot] = value;
+        if (values[slot] != null) { // if the cached value is set overwrite it
+            values[slot] = value;
         }
     }
 
@@ -69,11 +80,73 @@ public class StaticPropertyList extends PropertyList {
      */
     public Property get(int propId, boolean bTryInherit, boolean bTryDefault)
         throws PropertyException {
-        Property p = values[propId];
+        int slot = findSlot(propId);
+        Property p = ids[slot] == propId ? values[slot] : null;
         if (p == null) {
             p = super.get(propId, bTryInherit, bTryDefault);
-            values[propId] = p;
+            if (p != null) {
+                // the lookup may have added entries (and grown the table), so the slot needs
+                // to be looked up again before the values array is dereferenced
+                slot = slotFor(propId);
+                values[slot] = p;
+            }
         }
         return p;
     }
+
+    /** @return the number of slots currently allocated (for testing purposes) */
+    int getCapacity() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the slot holding the given property id, or the empty slot where it would
+     * be inserted.
+     */
+    private int findSlot(int propId) {
+        int mask = ids.length - 1;
+        int slot = hash(propId) & mask;
+        while (ids[slot] != propId && ids[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Returns the slot holding the given property id, adding it if necessary. */
+    private int slotFor(int propId) {
+        int slot = findSlot(propId);
+        if (ids[slot] == 0) {
+            // keep the load factor at or below 3/4
+            if ((size + 1) * 4 > ids.length * 3) {
+                grow();
+                slot = findSlot(propId);
+            }
+            ids[slot] = propId;
+            size++;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        Property[] oldExplicit = explicit;
+        Property[] oldValues = values;
+        int capacity = oldIds.length * 2;
+        ids = new int[capacity];
+        explicit = new Property[capacity];
+        values = new Property[capacity];
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != 0) {
+                int slot = findSlot(oldIds[i]);
+                ids[slot] = oldIds[i];
+                explicit[slot] = oldExplicit[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int propId) {
+        // property ids are small consecutive numbers; spread them over the table
+        return (propId * 0x9E3779B9) >>> 16;
+    }
 }
@@ -77,10 +77,34 @@ public class XMLWhiteSpaceHandler {
     private boolean nextChildIsBlockLevel;
     private RecursiveCharIterator charIter;
 
-    private List pendingInlines;
-    private Stack nestedBlockStack = new java.util.Stack<Block>();
+    private List<PendingInline> pendingInlines;
+    private Stack<Block> nestedBlockStack = new java.util.Stack<Block>();
     private CharIterator firstWhiteSpaceInSeq;
 
+    /** Creates a new white-space handler. */
+    public XMLWhiteSpaceHandler() {
+    }
+
+    /**
+     * Creates a new white-space handler that continues from the state the given handler is
+     * in between two calls to {@link #handleWhiteSpace(FObjMixed, FONode, FONode)}.
+     * @param other the handler whose state is copied
+     */
+    public XMLWhiteSpaceHandler(XMLWhiteSpaceHandler other) {
+        this.inWhiteSpace = other.inWhiteSpace;
+        this.afterLinefeed = other.afterLinefeed;
+        this.nonWhiteSpaceCount = other.nonWhiteSpaceCount;
+        this.linefeedTreatment = other.linefeedTreatment;
+        this.whiteSpaceTreatment = other.whiteSpaceTreatment;
+        this.whiteSpaceCollapse = other.whiteSpaceCollapse;
+        this.endOfBlock = other.endOfBlock;
+        this.nextChildIsBlockLevel = other.nextChildIsBlockLevel;
+        if (other.pendingInlines != null) {
+            this.pendingInlines = new java.util.ArrayList<PendingInline>(other.pendingInlines);
+        }
+        this.nestedBlockStack.addAll(other.nestedBlockStack);
+    }
+
     /**
      * Handle white-space for the fo that is passed in, starting at
      * firstTextNode
@@ -130,7 +154,7 @@ public class XMLWhiteSpaceHandler {
 
             default:
                 if (!nestedBlockStack.empty()) {
-                    currentBlock = (Block) nestedBlockStack.peek();
+                    currentBlock = nestedBlockStack.peek();
                 }
         }
 
@@ -368,7 +392,7 @@ public class XMLWhiteSpaceHandler {
 
     private void addPendingInline() {
         if (pendingInlines == null) {
-            pendingInlines = new java.util.ArrayList(5);
+            pendingInlines = new java.util.ArrayList<PendingInline>(5);
         }
         pendingInlines.add(new PendingInline(firstWhiteSpaceInSeq));
     }
@@ -379,7 +403,7 @@ public class XMLWhiteSpaceHandler {
                 /* handle white-space for all pending inlines*/
                 PendingInline p;
                 for (int i = pendingInlines.size(); --i >= 0;) {
-                    p = (PendingInline)pendingInlines.get(i);
+                    p = pendingInlines.get(i);
                     charIter = (RecursiveCharIterator)p.firstTrailingWhiteSpace;
                     handleWhiteSpace();
                     pendingInlines.remove(p);
@@ -27,12 +27,14 @@ import org.apache.fop.accessibility.StructureTreeElement;
 import org.apache.fop.apps.FOPException;
 import org.apache.fop.fo.FONode;
 import org.apache.fop.fo.FOText;
+import org.apache.fop.fo.FOTreeBuilderContext;
 import org.apache.fop.fo.FObj;
 import org.apache.fop.fo.FObjMixed;
 import org.apache.fop.fo.PropertyList;
 import org.apache.fop.fo.ValidationException;
 import org.apache.fop.fo.XMLObj;
 import org.apache.fop.fo.flow.table.Table;
+import org.apache.fop.fo.pagination.PageSequence;
 
 /**
  * Abstract base class for the <a href="http://www.w3.org/TR/xsl/#fo_retrieve-marker">
@@ -54,6 +56,9 @@ public abstract class AbstractRetrieveMarker extends FObjMixed {
 
     private StructureTreeElement structureTreeElement;
 
+    /** the marker whose subtree is currently cloned below this node */
+    private Marker boundMarker;
+
     /**
      * Create a new AbstractRetrieveMarker instance that
      * is a child of the given {@link FONode}
@@ -99,6 +104,20 @@ public abstract class AbstractRetrieveMarker extends FObjMixed {
         return structureTreeElement;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Once the page-sequence has been parsed, this node and the nodes cloned below it use the
+     * page-sequence's marker cloning context, because marker subtrees are cloned during layout.
+     */
+    @Override
+    public FOTreeBuilderContext getBuilderContext() {
+        PageSequence pageSequence = getPageSequence();
+        if (pageSequence != null && pageSequence.getMarkerCloningContext() != null) {
+            return pageSequence.getMarkerCloningContext();
+        }
+        return super.getBuilderContext();
+    }
+
     private PropertyList createPropertyListFor(FObj fo, PropertyList parent) {
         return getBuilderContext().getPropertyListMaker().make(fo, parent);
     }
@@ -203,6 +222,11 @@ public abstract class AbstractRetrieveMarker extends FObjMixed {
      * @param marker the marker that is to be cloned
      */
     public void bindMarker(Marker marker) {
+        if (marker == boundMarker && firstChild != null && isClonedSubtreeReusable()) {
+            // the subtree cloned for the previous page is still intact: lay it out again
+            return;
+        }
+        boundMarker = null;
         // clean up remnants from a possible earlier layout
         if (firstChild != null) {
             currentTextNode = null;
@@ -212,6 +236,7 @@ public abstract class AbstractRetrieveMarker extends FObjMixed {
             try {
                 restoreFOEventHandlerState();
                 cloneFromMarker(marker);
+                boundMarker = marker;
             } catch (FOPException exc) {
                 getFOValidationEventProducer().markerCloningFailed(this,
                         marker.getMarkerClassName(), exc, getLocator());
@@ -223,6 +248,17 @@ public abstract class AbstractRetrieveMarker extends FObjMixed {
 
     protected abstract void restoreFOEventHandlerState();
 
+    /**
+     * Indicates whether the subtree cloned for a marker may be laid out again when the same
+     * marker is retrieved for a subsequent page, instead of being cloned anew. This is only
+     * safe if layout leaves the cloned nodes untouched, and if no
+     * {@link org.apache.fop.fo.FOEventHandler} needs to see the cloned nodes once per page.
+     * @return true if an existing clone of the same marker may be reused
+     */
+    protected boolean isClonedSubtreeReusable() {
+        return false;
+    }
+
     /**
      * Return the value for the <code>retrieve-class-name</code>
      * property
@@ -126,4 +126,16 @@ public class RetrieveMarker extends AbstractRetrieveMarker {
         getFOEventHandler().restoreState(this);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>A retrieve-marker only occurs in static content, whose formatting objects are kept
+     * intact across pages, so a running header that keeps retrieving the same marker is
+     * cloned once instead of once per page. The structure tree built for accessibility needs
+     * the cloning events for every page, so this is disabled in that case.
+     */
+    @Override
+    protected boolean isClonedSubtreeReusable() {
+        return !getUserAgent().isAccessibilityEnabled();
+    }
+
 }
@@ -34,6 +34,9 @@ import org.apache.fop.layoutmgr.table.TableCellLayoutManager;
  */
 public class PrimaryGridUnit extends GridUnit {
 
+    /** Number of collapsed border widths stored for each row spanned by a cell. */
+    private static final int WIDTHS_PER_ROW = 6;
+
     /** Cell layout manager. */
     private TableCellLayoutManager cellLM;
     /** List of Knuth elements representing the contents of the cell. */
@@ -50,6 +53,14 @@ public class PrimaryGridUnit extends GridUnit {
     /** The calculated size of the cell's content. (cached value) */
     private int contentLength = -1;
 
+    /**
+     * Resolved border widths in the collapsing-border model (cached values): for each row
+     * of the span, the halved before-widths then the halved after-widths for
+     * {@link ConditionalBorder#NORMAL}, {@link ConditionalBorder#LEADING_TRAILING} and
+     * {@link ConditionalBorder#REST}; followed by the start- and end-widths of the span.
+     */
+    private int[] collapsedBorderWidths;
+
     private boolean isSeparateBorderModel;
     private int halfBorderSeparationBPD;
 
@@ -172,12 +183,7 @@ public class PrimaryGridUnit extends GridUnit {
                 }
             }
         } else {
-            int width = 0;
-            for (GridUnit gu : rows.get(rowIndex)) {
-                width = Math.max(width,
-                        gu.getBorderBefore(which).getRetainedWidth());
-            }
-            return width / 2;
+            return getCollapsedBorderWidths()[rowIndex * WIDTHS_PER_ROW + which];
         }
     }
 
@@ -217,13 +223,7 @@ public class PrimaryGridUnit extends GridUnit {
                 }
             }
         } else {
-            int width = 0;
-            GridUnit[] row = rows.get(rowIndex);
-            for (GridUnit gu : row) {
-                width = Math.max(width,
-                        gu.getBorderAfter(which).getRetainedWidth());
-            }
-            return width / 2;
+            return getCollapsedBorderWidths()[rowIndex * WIDTHS_PER_ROW + 3 + which];
         }
     }
 
@@ -307,14 +307,46 @@ public class PrimaryGridUnit extends GridUnit {
             widths[0] = getCell().getCommonBorderPaddingBackground().getBorderStartWidth(false);
             widths[1] = getCell().getCommonBorderPaddingBackground().getBorderEndWidth(false);
         } else {
-            for (GridUnit[] gridUnits : rows) {
-                widths[0] = Math.max(widths[0],
-                        gridUnits[0].borderStart.getBorderInfo().getRetainedWidth());
-                widths[1] = Math.max(widths[1], gridUnits[gridUnits.length - 1].borderEnd
+            int[] collapsedWidths = getCollapsedBorderWidths();
+            widths[0] = collapsedWidths[rows.size() * WIDTHS_PER_ROW];
+            widths[1] = collapsedWidths[rows.size() * WIDTHS_PER_ROW + 1];
+        }
+        return widths;
+    }
+
+    /**
+     * Returns the widths of the resolved borders of this cell in the collapsing-border
+     * model. They are computed from the grid units of the span the first time they are
+     * needed, as the borders have all been resolved by the time the table is laid out, and
+     * then shared by the computation of row heights, the table stepper and the painting of
+     * the cell.
+     */
+    private int[] getCollapsedBorderWidths() {
+        if (collapsedBorderWidths == null) {
+            int[] widths = new int[rows.size() * WIDTHS_PER_ROW + 2];
+            int start = 0;
+            int end = 0;
+            for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+                GridUnit[] gridUnits = rows.get(rowIndex);
+                for (int which = ConditionalBorder.NORMAL; which <= ConditionalBorder.REST; which++) {
+                    int before = 0;
+                    int after = 0;
+                    for (GridUnit gu : gridUnits) {
+                        before = Math.max(before, gu.getBorderBefore(which).getRetainedWidth());
+                        after = Math.max(after, gu.getBorderAfter(which).getRetainedWidth());
+                    }
+                    widths[rowIndex * WIDTHS_PER_ROW + which] = before / 2;
+                    widths[rowIndex * WIDTHS_PER_ROW + 3 + which] = after / 2;
+                }
+                start = Math.max(start, gridUnits[0].borderStart.getBorderInfo().getRetainedWidth());
+                end = Math.max(end, gridUnits[gridUnits.length - 1].borderEnd
                         .getBorderInfo().getRetainedWidth());
             }
+            widths[rows.size() * WIDTHS_PER_ROW] = start;
+            widths[rows.size() * WIDTHS_PER_ROW + 1] = end;
+            collapsedBorderWidths = widths;
         }
-        return widths;
+        return collapsedBorderWidths;
     }
 
     /** {@inheritDoc} */
@@ -32,6 +32,7 @@ import org.apache.fop.complexscripts.bidi.DelimitedTextRange;
 import org.apache.fop.datatypes.Numeric;
 import org.apache.fop.fo.Constants;
 import org.apache.fop.fo.FONode;
+import org.apache.fop.fo.FOTreeBuilderContext;
 import org.apache.fop.fo.PropertyList;
 import org.apache.fop.fo.ValidationException;
 import org.apache.fop.fo.flow.ChangeBar;
@@ -86,6 +87,11 @@ public class PageSequence extends AbstractPageSequence implements WritingModeTra
      */
     private final List<ChangeBar> changeBarList = new LinkedList<ChangeBar>();
 
+    /**
+     * The builder context for cloning marker subtrees during layout
+     */
+    private FOTreeBuilderContext markerCloningContext;
+
     /**
      * Create a PageSequence instance that is a child of the
      * given {@link FONode}.
@@ -131,12 +137,20 @@ public class PageSequence extends AbstractPageSequence implements WritingModeTra
         getFOEventHandler().startPageSequence(this);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public PageSequence getPageSequence() {
+        return this;
+    }
+
     /** {@inheritDoc} */
     public void endOfNode() throws FOPException {
         if (mainFlow == null) {
            missingChildElementError("(title?,static-content*,flow)");
         }
 
+        markerCloningContext = getBuilderContext().createDetachedContext();
+
         getFOEventHandler().endPageSequence(this);
     }
 
@@ -518,6 +532,17 @@ public class PageSequence extends AbstractPageSequence implements WritingModeTra
         return null;
     }
 
+    /**
+     * Returns the builder context for cloning marker subtrees while this page-sequence is laid
+     * out. It is detached from the FO tree builder when the page-sequence has been parsed, so
+     * cloning doesn't interfere with building the FO tree of the following page-sequences.
+     *
+     * @return the builder context, or null if the page-sequence hasn't been parsed completely
+     */
+    public FOTreeBuilderContext getMarkerCloningContext() {
+        return markerCloningContext;
+    }
+
     /**
      * Tests if there are any active change bars.
      *
@@ -19,14 +19,12 @@
 
 package org.apache.fop.fo.properties;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +33,11 @@ import org.apache.commons.logging.LogFactory;
  * Thread-safe cache that minimizes the memory requirements by fetching an instance from the cache
  * that is equal to the given one. Internally the instances are stored in WeakReferences in order to
  * be reclaimed when they are no longer referenced.
+ * <p>
+ * The cache is keyed by the cached instances themselves, so instances with the same hash code
+ * that are not equal are chained in the same bucket instead of replacing each other. Entries
+ * whose referents have been reclaimed are expunged through a {@link ReferenceQueue}. Lookups
+ * don't take any lock.
  * @param <T> The type of values that are cached
  */
 public final class PropertyCache<T> {
@@ -48,25 +51,20 @@ public final class PropertyCache<T> {
     private final boolean useCache;
 
     /**
-     * The underlying map that stores WeakReferences to the cached entries. The map keys are the
-     * hashCode of the cached entries. The map values are a WeakRefence to the cached entries. When
-     * two cached entries have the same hash code, the last one is kept but this should be an
-     * exception case (otherwise the hashCode() method of T needs to be fixed).
+     * The underlying map. Each key is a WeakReference to a cached instance which is mapped to
+     * itself. Lookups use a temporary strong key that is equal to the weak key of an equal
+     * instance.
      */
-    private final ConcurrentMap<Integer, WeakReference<T>> map;
+    private final ConcurrentMap<CacheKey<T>, WeakKey<T>> map;
 
-    /**
-     * Counts the number of entries put in the map in order to periodically check and remove the
-     * entries whose referents have been reclaimed.
-     */
-    private final AtomicInteger putCounter;
+    /** Receives the keys whose referents have been reclaimed. */
+    private final ReferenceQueue<T> queue;
 
-    /**
-     * Lock to prevent concurrent cleanup of the map.
-     */
-    private final Lock cleanupLock;
+    private final LongAdder hitCounter;
 
-    private final AtomicInteger hashCodeCollisionCounter;
+    private final LongAdder missCounter;
+
+    private final LongAdder hashCodeCollisionCounter;
 
     /**
      * Creates a new cache. The "org.apache.fop.fo.properties.use-cache" system
@@ -86,14 +84,16 @@ public final class PropertyCache<T> {
                    + " due to security restriction; defaulting to 'true'.");
         }
         if (useCache) {
-            this.map = new ConcurrentHashMap<Integer, WeakReference<T>>();
-            this.putCounter = new AtomicInteger();
-            this.cleanupLock = new ReentrantLock();
-            this.hashCodeCollisionCounter = new AtomicInteger();
+            this.map = new ConcurrentHashMap<CacheKey<T>, WeakKey<T>>();
+            this.queue = new ReferenceQueue<T>();
+            this.hitCounter = new LongAdder();
+            this.missCounter = new LongAdder();
+            this.hashCodeCollisionCounter = new LongAdder();
         } else {
             this.map = null;
-            this.putCounter = null;
-            this.cleanupLock = null;
+            this.queue = null;
+            this.hitCounter = null;
+            this.missCounter = null;
             this.hashCodeCollisionCounter = null;
         }
         this.useCache = useCache;
@@ -115,88 +115,182 @@ public final class PropertyCache<T> {
             return null;
         }
 
-        Integer hashCode = obj.hashCode();
-
-        WeakReference<T> weakRef = map.get(hashCode);
-        if (weakRef == null) {
-            weakRef = map.putIfAbsent(hashCode, new WeakReference<T>(obj));
-            attemptCleanup();
+        expungeStaleEntries();
 
-            if (weakRef == null) {
-                return obj;
+        int hashCode = obj.hashCode();
+        WeakKey<T> weakKey = map.get(new LookupKey<T>(obj, hashCode, this));
+        if (weakKey != null) {
+            T cached = weakKey.get();
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
             }
-            // else another thread added a value, continue.
         }
 
-        T cached = weakRef.get();
-        if (cached != null) {
-            if (eq(cached, obj)) {
+        WeakKey<T> newKey = new WeakKey<T>(obj, hashCode, this);
+        while (true) {
+            weakKey = map.putIfAbsent(newKey, newKey);
+            if (weakKey == null) {
+                missCounter.increment();
+                return obj;
+            }
+            T cached = weakKey.get();
+            if (cached != null) {
+                // another thread added an equal instance first
+                hitCounter.increment();
                 return cached;
-            } else {
-                /*
-                 * Log a message when obj.getClass() does not implement correctly the equals() or
-                 * hashCode() method. It is expected that only very few objects will have the
-                 * same hashCode but will not be equal.
-                 */
-                if ((hashCodeCollisionCounter.incrementAndGet() % 10) == 0) {
-                    LOG.info(hashCodeCollisionCounter.get() + " hashCode() collisions for "
-                            + obj.getClass().getName());
-                }
             }
+            // the referent has just been reclaimed; the entry is stale
+            map.remove(weakKey, weakKey);
+        }
+    }
 
+    private void expungeStaleEntries() {
+        Reference<? extends T> ref;
+        while ((ref = queue.poll()) != null) {
+            WeakKey<?> staleKey = (WeakKey<?>) ref;
+            // a reclaimed key is only equal to itself
+            map.remove(staleKey, staleKey);
         }
+    }
 
-        // Adds a new or replaces an existing entry with obj that has the same hash code
-        map.put(hashCode, new WeakReference<T>(obj));
-        attemptCleanup();
-        return obj;
+    /**
+     * Returns the number of fetches that returned an already cached instance.
+     * @return the hit count, 0 if the cache is disabled
+     */
+    public long getHitCount() {
+        return useCache ? hitCounter.sum() : 0;
+    }
 
-        /*
-         * Another thread might add first. We could check this using map.replace() instead of
-         * map.put() and then recursively call fetch(obj). But if in the meantime, garbage
-         * collection kicks in, we might end up with a StackOverflowException. Not caching an entry
-         * is tolerable, after all it's configurable.
-         */
+    /**
+     * Returns the number of fetches that added the given instance to the cache.
+     * @return the miss count, 0 if the cache is disabled
+     */
+    public long getMissCount() {
+        return useCache ? missCounter.sum() : 0;
     }
 
+    /**
+     * Returns the number of times an instance was compared to a cached instance that has the
+     * same hash code but is not equal to it. A high number compared to the number of fetches
+     * indicates that the hashCode() method of the cached type needs to be improved.
+     * @return the collision count, 0 if the cache is disabled
+     */
+    public long getCollisionCount() {
+        return useCache ? hashCodeCollisionCounter.sum() : 0;
+    }
 
-    private void attemptCleanup() {
-        if ((putCounter.incrementAndGet() % 10000) != 0) {
-            return;
-        }
+    /**
+     * Returns the number of entries in the cache, including entries whose referents have been
+     * reclaimed but that haven't been expunged yet.
+     * @return the number of entries
+     */
+    public int size() {
+        return useCache ? map.size() : 0;
+    }
 
-        // Lock as there is no need for concurrent cleanup and protect us, on JDK5, from
-        // http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6312056
-        if (cleanupLock.tryLock()) {
-            try {
-                cleanReclaimedMapEntries();
-            } finally {
-                cleanupLock.unlock();
-            }
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return super.toString() + "[hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", collisions=" + getCollisionCount() + ", size=" + size() + "]";
+    }
+
+    private boolean eq(int hash1, Object obj1, int hash2, Object obj2) {
+        if (obj1 == obj2) {
+            return true;
+        }
+        if (hash1 != hash2 || obj1 == null || obj2 == null) {
+            return false;
         }
+        if (obj1.equals(obj2)) {
+            return true;
+        }
+        hashCodeCollisionCounter.increment();
+        return false;
+    }
+
+    /** Common interface of the weak keys stored in the map and the strong keys used for lookups. */
+    private interface CacheKey<T> {
+
+        T get();
+
+        int hash();
     }
 
-    private void cleanReclaimedMapEntries() {
-        Iterator<Map.Entry<Integer, WeakReference<T>>> iterator = map.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Integer, WeakReference<T>> entry = iterator.next();
-            WeakReference<T> weakRef = entry.getValue();
-            T r = weakRef.get();
-            if (r == null) {
-                iterator.remove();
+    private static final class WeakKey<T> extends WeakReference<T> implements CacheKey<T> {
+
+        private final int hash;
+
+        private final PropertyCache<T> cache;
+
+        WeakKey(T referent, int hash, PropertyCache<T> cache) {
+            super(referent, cache.queue);
+            this.hash = hash;
+            this.cache = cache;
+        }
+
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
             }
+            CacheKey<?> other = (CacheKey<?>) o;
+            T referent = get();
+            // a reclaimed key is only equal to itself
+            return referent != null && cache.eq(hash, referent, other.hash(), other.get());
         }
     }
 
-    private boolean eq(Object p, Object q) {
-        if (p == q) {
-            return true;
+    private static final class LookupKey<T> implements CacheKey<T> {
+
+        private final T referent;
+
+        private final int hash;
+
+        private final PropertyCache<T> cache;
+
+        LookupKey(T referent, int hash, PropertyCache<T> cache) {
+            this.referent = referent;
+            this.hash = hash;
+            this.cache = cache;
         }
-        cleanupLock.lock();
-        try {
-            return p.equals(q);
-        } finally {
-            cleanupLock.unlock();
+
+        public T get() {
+            return referent;
+        }
+
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey<?> other = (CacheKey<?>) o;
+            return cache.eq(hash, referent, other.hash(), other.get());
         }
     }
 }
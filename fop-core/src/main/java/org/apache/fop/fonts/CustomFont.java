@@ -20,6 +20,7 @@
 package org.apache.fop.fonts;
 
 import java.awt.Rectangle;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -31,7 +32,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
+
 import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.fonts.truetype.FontFileReader;
 import org.apache.fop.fonts.truetype.SVGGlyphData;
 
 
@@ -168,6 +172,37 @@ public abstract class CustomFont extends Typeface
         return resourceResolver.getResource(embedFileURI);
     }
 
+    /**
+     * Returns a {@link FontFileReader} for the embeddable font file. If a subclass overrides
+     * {@link #getInputStream()}, the reader reads that stream, so that the same font data is
+     * embedded either way.
+     *
+     * @return the reader for the embeddable font file
+     * @throws IOException if embedFileName is not null but Source is not found
+     */
+    public FontFileReader getFontFileReader() throws IOException {
+        if (isInputStreamOverridden()) {
+            InputStream in = getInputStream();
+            if (in == null) {
+                throw new FileNotFoundException(String.valueOf(embedFileURI));
+            }
+            try {
+                return new FontFileReader(in);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+        return FontFileReader.getInstance(resourceResolver, embedFileURI);
+    }
+
+    private boolean isInputStreamOverridden() {
+        try {
+            return getClass().getMethod("getInputStream").getDeclaringClass() != CustomFont.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Returns the lookup name to an embeddable font file available as a
      * resource.
@@ -82,6 +82,15 @@ public class Font implements Substitutable, Positionable {
 
     private final FontMetrics metric;
 
+    private final WordWidthCache wordWidthCache = new WordWidthCache(WordWidthCache.DEFAULT_MAX_ENTRIES);
+
+    /**
+     * Lazily filled two-level table of BMP character widths at this font's size: 256 pages of
+     * 256 entries each. Entries are stored XOR {@link Integer#MIN_VALUE} so that a zero slot
+     * marks a width which has not been computed yet.
+     */
+    private final int[][] charWidthPages = new int[256][];
+
     /**
      * Main constructor
      * @param key key of the font
@@ -104,6 +113,14 @@ public class Font implements Substitutable, Positionable {
         return this.metric;
     }
 
+    /**
+     * Returns the cache of word widths measured in this font at this size.
+     * @return the word width cache
+     */
+    public WordWidthCache getWordWidthCache() {
+        return wordWidthCache;
+    }
+
     /**
      * Determines whether the font is a multibyte font.
      * @return True if it is multibyte
@@ -352,6 +369,26 @@ public class Font implements Substitutable, Positionable {
      * @return the width of the character or -1 if no width available
      */
     public int getCharWidth(char c) {
+        int[] page = charWidthPages[c >>> 8];
+        if (page == null) {
+            page = new int[256];
+            charWidthPages[c >>> 8] = page;
+        }
+        int encoded = page[c & 0xFF];
+        if (encoded != 0) {
+            return encoded ^ Integer.MIN_VALUE;
+        }
+        int width = computeCharWidth(c);
+        page[c & 0xFF] = width ^ Integer.MIN_VALUE;
+        return width;
+    }
+
+    /**
+     * Computes the width of a character without the width table.
+     * @param c the character
+     * @return the width of the character or -1 if no width available
+     */
+    int computeCharWidth(char c) {
         int width;
 
         if ((c == '\n') || (c == '\r') || (c == '\t') || (c == '\u00A0')) {
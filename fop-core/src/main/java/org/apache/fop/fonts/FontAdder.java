@@ -19,8 +19,10 @@
 
 package org.apache.fop.fonts;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.fop.apps.io.InternalResourceResolver;
@@ -48,7 +50,8 @@ public class FontAdder {
     }
 
     /**
-     * Iterates over font url list adding to font info list
+     * Iterates over font url list adding to font info list. The font files are parsed in
+     * parallel, the font infos are added in the order of the font url list.
      * @param fontURLList font file list
      * @param fontInfoList a configured font info list
      * @throws URISyntaxException if a URI syntax error is found
@@ -59,8 +62,11 @@ public class FontAdder {
         FontInfoFinder finder = new FontInfoFinder();
         finder.setEventListener(listener);
 
+        List<URI> fontURIList = new ArrayList<URI>(fontURLList.size());
         for (URL fontURL : fontURLList) {
-            EmbedFontInfo[] embedFontInfos = finder.find(fontURL.toURI(), resourceResolver, cache);
+            fontURIList.add(fontURL.toURI());
+        }
+        for (EmbedFontInfo[] embedFontInfos : finder.find(fontURIList, resourceResolver, cache)) {
             if (embedFontInfos == null) {
                 continue;
             }
@@ -19,21 +19,21 @@
 
 package org.apache.fop.fonts;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -46,6 +46,12 @@ import org.apache.fop.util.LogUtil;
 
 /**
  * Fop cache (currently only used for font info caching)
+ * <p>
+ * The cache is stored in the binary format of {@link FontCacheFile}: loading it only builds
+ * an index of the cached font files, their entries are decoded when they are first looked
+ * up by font file URL or font triplet. Saving the cache appends the entries that changed to
+ * the cache file. If the cache file is locked by other code in this JVM, the cache is treated
+ * as unavailable.
  */
 public final class FontCache implements Serializable {
 
@@ -84,8 +90,24 @@ public final class FontCache implements Serializable {
      */
     private Map<String, Long> failedFontMap;
 
+    /** the cache file the cache was loaded from, for the entries that haven't been decoded yet */
+    private transient FontCacheFile indexFile;
+
+    /** mapping of font url -&gt; record offset in the cache file (for entries not decoded yet) */
+    private transient Map<String, Integer> unreadFontFileMap;
+
+    /** font urls whose entries changed since the cache was last read or written */
+    private transient Set<String> changedFontFiles;
+
+    /** font urls whose failed font entries changed since the cache was last read or written */
+    private transient Set<String> changedFailedFonts;
+
+    /** does the cache file have to be rewritten as a whole? */
+    private transient boolean rewrite;
+
     private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
         ois.defaultReadObject();
+        rewrite = true;
     }
 
     private static File getUserHome() {
@@ -149,7 +171,7 @@ public final class FontCache implements Serializable {
      *
      * @param cacheFile
      *            the cache file
-     * @return the font cache deserialized from the file (or null if no cache
+     * @return the font cache read from the file (or null if no cache
      *         file exists or if it could not be read)
      */
     public static FontCache loadFrom(File cacheFile) {
@@ -159,18 +181,18 @@ public final class FontCache implements Serializable {
                     log.trace("Loading font cache from "
                             + cacheFile.getCanonicalPath());
                 }
-                InputStream in = new BufferedInputStream(new FileInputStream(cacheFile));
-                ObjectInputStream oin = new ObjectInputStream(in);
-                try {
-                    return (FontCache) oin.readObject();
-                } finally {
-                    IOUtils.closeQuietly(oin);
+                FontCacheFile indexFile = FontCacheFile.open(cacheFile);
+                FontCache fontCache = new FontCache();
+                fontCache.indexFile = indexFile;
+                fontCache.unreadFontFileMap = new HashMap<String, Integer>(indexFile.getFontFileOffsets());
+                fontCache.failedFontMap = new HashMap<String, Long>(indexFile.getFailedFonts());
+                if (indexFile.needsCompaction()) {
+                    fontCache.rewrite = true;
+                    fontCache.changed = true;
                 }
-            } catch (ClassNotFoundException e) {
-                // We don't really care about the exception since it's just a
-                // cache file
-                log.warn("Could not read font cache. Discarding font cache file. Reason: "
-                        + e.getMessage());
+                return fontCache;
+            } catch (OverlappingFileLockException e) {
+                log.warn("Font cache file " + cacheFile + " is in use, not using the font cache.");
             } catch (IOException ioe) {
                 // We don't really care about the exception since it's just a
                 // cache file
@@ -210,23 +232,73 @@ public final class FontCache implements Serializable {
             if (changed) {
                 try {
                     log.trace("Writing font cache to " + cacheFile.getCanonicalPath());
-                    OutputStream out = new java.io.FileOutputStream(cacheFile);
-                    out = new java.io.BufferedOutputStream(out);
-                    ObjectOutputStream oout = new ObjectOutputStream(out);
-                    try {
-                        oout.writeObject(this);
-                    } finally {
-                        IOUtils.closeQuietly(oout);
+                    if (rewrite) {
+                        rewrite(cacheFile);
+                    } else {
+                        FontCacheFile.append(cacheFile, getChangedRecords());
                     }
+                } catch (OverlappingFileLockException e) {
+                    log.warn("Font cache file " + cacheFile + " is in use, font cache not written.");
+                    return;
                 } catch (IOException ioe) {
                     LogUtil.handleException(log, ioe, true);
                 }
+                getChangedFontFiles().clear();
+                getChangedFailedFonts().clear();
+                rewrite = false;
                 changed = false;
                 log.trace("Cache file written.");
             }
         }
     }
 
+    private void rewrite(File cacheFile) throws IOException {
+        List<byte[]> records = getAllRecords();
+        try {
+            FontCacheFile.write(cacheFile, records);
+            indexFile = null;
+        } catch (IOException ioe) {
+            if (indexFile == null) {
+                throw ioe;
+            }
+            // the cache file can't be compacted (e.g. while it is mapped on Windows),
+            // but the changes since it was read can still be appended to it
+            log.debug("Could not compact font cache file (" + ioe.getMessage() + ")");
+            FontCacheFile.append(cacheFile, getChangedRecords());
+        }
+    }
+
+    private List<byte[]> getAllRecords() {
+        for (String embedUrl : new ArrayList<String>(getUnreadFontFileMap().keySet())) {
+            getFontFile(embedUrl);
+        }
+        List<byte[]> records = new ArrayList<byte[]>();
+        for (Map.Entry<String, CachedFontFile> entry : getFontFileMap().entrySet()) {
+            records.add(FontCacheFile.fontFileRecord(entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<String, Long> entry : getFailedFontMap().entrySet()) {
+            records.add(FontCacheFile.failedFontRecord(entry.getKey(), entry.getValue()));
+        }
+        return records;
+    }
+
+    private List<byte[]> getChangedRecords() {
+        List<byte[]> records = new ArrayList<byte[]>();
+        for (String embedUrl : getChangedFontFiles()) {
+            CachedFontFile cachedFontFile = getFontFileMap().get(embedUrl);
+            records.add(cachedFontFile != null
+                    ? FontCacheFile.fontFileRecord(embedUrl, cachedFontFile)
+                    : FontCacheFile.removeFontFileRecord(embedUrl));
+        }
+        for (String embedUrl : getChangedFailedFonts()) {
+            Long lastModified = getFailedFontMap().get(embedUrl);
+            records.add(lastModified != null
+                    ? FontCacheFile.failedFontRecord(embedUrl, lastModified)
+                    : FontCacheFile.removeFailedFontRecord(embedUrl));
+        }
+        return records;
+    }
+
     /**
      * creates a key given a font info for the font mapping
      *
@@ -260,7 +332,10 @@ public final class FontCache implements Serializable {
      * @return boolean
      */
     public boolean containsFont(String embedUrl) {
-        return (embedUrl != null && getFontFileMap().containsKey(embedUrl));
+        synchronized (changeLock) {
+            return (embedUrl != null && (getFontFileMap().containsKey(embedUrl)
+                    || getUnreadFontFileMap().containsKey(embedUrl)));
+        }
     }
 
     /**
@@ -271,8 +346,7 @@ public final class FontCache implements Serializable {
      * @return font
      */
     public boolean containsFont(EmbedFontInfo fontInfo) {
-        return (fontInfo != null && getFontFileMap().containsKey(
-                getCacheKey(fontInfo)));
+        return (fontInfo != null && containsFont(getCacheKey(fontInfo)));
     }
 
     /**
@@ -313,6 +387,27 @@ public final class FontCache implements Serializable {
         return fontfileMap;
     }
 
+    private Map<String, Integer> getUnreadFontFileMap() {
+        if (unreadFontFileMap == null) {
+            unreadFontFileMap = new HashMap<String, Integer>();
+        }
+        return unreadFontFileMap;
+    }
+
+    private Set<String> getChangedFontFiles() {
+        if (changedFontFiles == null) {
+            changedFontFiles = new LinkedHashSet<String>();
+        }
+        return changedFontFiles;
+    }
+
+    private Set<String> getChangedFailedFonts() {
+        if (changedFailedFonts == null) {
+            changedFailedFonts = new LinkedHashSet<String>();
+        }
+        return changedFailedFonts;
+    }
+
     /**
      * Adds a font info to cache
      *
@@ -322,11 +417,12 @@ public final class FontCache implements Serializable {
     public void addFont(EmbedFontInfo fontInfo, InternalResourceResolver resourceResolver) {
         String cacheKey = getCacheKey(fontInfo);
         synchronized (changeLock) {
-            CachedFontFile cachedFontFile;
-            if (containsFont(cacheKey)) {
-                cachedFontFile = getFontFileMap().get(cacheKey);
+            CachedFontFile cachedFontFile = getFontFile(cacheKey);
+            if (cachedFontFile != null) {
                 if (!cachedFontFile.containsFont(fontInfo)) {
                     cachedFontFile.put(fontInfo);
+                    getChangedFontFiles().add(cacheKey);
+                    changed = true;
                 }
             } else {
                 // try and determine modified date
@@ -338,6 +434,7 @@ public final class FontCache implements Serializable {
                 }
                 cachedFontFile.put(fontInfo);
                 getFontFileMap().put(cacheKey, cachedFontFile);
+                getChangedFontFiles().add(cacheKey);
                 changed = true;
             }
         }
@@ -351,7 +448,22 @@ public final class FontCache implements Serializable {
      * @return CachedFontFile object
      */
     public CachedFontFile getFontFile(String embedUrl) {
-        return containsFont(embedUrl) ? getFontFileMap().get(embedUrl) : null;
+        if (embedUrl == null) {
+            return null;
+        }
+        synchronized (changeLock) {
+            CachedFontFile cachedFontFile = getFontFileMap().get(embedUrl);
+            Integer offset = getUnreadFontFileMap().remove(embedUrl);
+            if (cachedFontFile == null && offset != null) {
+                try {
+                    cachedFontFile = indexFile.readFontFile(offset);
+                    getFontFileMap().put(embedUrl, cachedFontFile);
+                } catch (IOException ioe) {
+                    log.warn("Could not read font cache entry for " + embedUrl + ": " + ioe.getMessage());
+                }
+            }
+            return cachedFontFile;
+        }
     }
 
     /**
@@ -368,7 +480,7 @@ public final class FontCache implements Serializable {
      */
     public EmbedFontInfo[] getFontInfos(String embedUrl, long lastModified) {
         CachedFontFile cff = getFontFile(embedUrl);
-        if (cff.lastModified() == lastModified) {
+        if (cff != null && cff.lastModified() == lastModified) {
             return cff.getEmbedFontInfos();
         } else {
             removeFont(embedUrl);
@@ -376,6 +488,41 @@ public final class FontCache implements Serializable {
         }
     }
 
+    /**
+     * Returns the EmbedFontInfo instances that are registered under a font triplet. Only the
+     * font files containing such a font are decoded. The entries are not checked for being
+     * outdated, use {@link #getFontInfos(String, long)} for that.
+     *
+     * @param triplet
+     *            the font triplet
+     * @return the EmbedFontInfo instances (an empty array if there are none)
+     */
+    public EmbedFontInfo[] getFontInfos(FontTriplet triplet) {
+        List<EmbedFontInfo> fontInfos = new ArrayList<EmbedFontInfo>();
+        synchronized (changeLock) {
+            List<String> embedUrls = new ArrayList<String>(getFontFileMap().keySet());
+            if (indexFile != null) {
+                for (String embedUrl : indexFile.getFontFileUrls(triplet)) {
+                    if (getUnreadFontFileMap().containsKey(embedUrl)) {
+                        embedUrls.add(embedUrl);
+                    }
+                }
+            }
+            for (String embedUrl : embedUrls) {
+                CachedFontFile cachedFontFile = getFontFile(embedUrl);
+                if (cachedFontFile != null) {
+                    for (EmbedFontInfo fontInfo : cachedFontFile.getEmbedFontInfos()) {
+                        List<FontTriplet> fontTriplets = fontInfo.getFontTriplets();
+                        if (fontTriplets != null && fontTriplets.contains(triplet)) {
+                            fontInfos.add(fontInfo);
+                        }
+                    }
+                }
+            }
+        }
+        return fontInfos.toArray(new EmbedFontInfo[fontInfos.size()]);
+    }
+
     /**
      * removes font from cache
      *
@@ -389,6 +536,8 @@ public final class FontCache implements Serializable {
                     log.trace("Font removed from cache: " + embedUrl);
                 }
                 getFontFileMap().remove(embedUrl);
+                getUnreadFontFileMap().remove(embedUrl);
+                getChangedFontFiles().add(embedUrl);
                 changed = true;
             }
         }
@@ -412,6 +561,7 @@ public final class FontCache implements Serializable {
                     // this font has been changed so lets remove it
                     // from failed font map for now
                     getFailedFontMap().remove(embedUrl);
+                    getChangedFailedFonts().add(embedUrl);
                     changed = true;
                 }
                 return true;
@@ -433,6 +583,7 @@ public final class FontCache implements Serializable {
         synchronized (changeLock) {
             if (!getFailedFontMap().containsKey(embedUrl)) {
                 getFailedFontMap().put(embedUrl, lastModified);
+                getChangedFailedFonts().add(embedUrl);
                 changed = true;
             }
         }
@@ -455,6 +606,11 @@ public final class FontCache implements Serializable {
             }
             fontfileMap = null;
             failedFontMap = null;
+            indexFile = null;
+            unreadFontFileMap = null;
+            changedFontFiles = null;
+            changedFailedFonts = null;
+            rewrite = true;
             changed = true;
         }
     }
@@ -483,7 +639,7 @@ public final class FontCache implements Serializable {
         }
     }
 
-    private static class CachedFontFile implements Serializable {
+    static class CachedFontFile implements Serializable {
         private static final long serialVersionUID = 4524237324330578883L;
 
         /** file modify date (if available) */
@@ -0,0 +1,682 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.apache.fop.fonts.FontCache.CachedFontFile;
+
+/**
+ * The binary file format of the {@link FontCache}.
+ * <p>
+ * The file starts with a magic number and a format version followed by a sequence of
+ * records. Every record is framed by its length and a CRC-32 checksum, so a truncated or
+ * corrupt record only invalidates the records following it. Records are never changed
+ * once written: changes to the cache are appended as new records (a later record for the
+ * same font file supersedes an earlier one). Appending first truncates the file after its
+ * last valid record, so new records are never hidden behind a damaged one. A full rewrite,
+ * used to compact the file, writes a new file and renames it over the old one. The old file
+ * is then marked as replaced, so a writer that was waiting for it starts over with the new
+ * file. Where the platform can't replace a file that is open, the file is rewritten in place.
+ * <p>
+ * Writers hold an exclusive lock on the file and readers a shared one, so several JVMs can
+ * use the same file. Within a JVM, access is serialized on the canonical path of the file
+ * as file locks are held on behalf of the whole JVM.
+ * <p>
+ * The file is memory-mapped when it is opened and only an index (font file URL to record
+ * offset and font triplets, failed fonts) is built up front. The {@link EmbedFontInfo}
+ * instances of a font file are decoded on first access. The mapping stays valid when the
+ * file is replaced, and appending never changes the records that were valid when the file
+ * was opened.
+ */
+final class FontCacheFile {
+
+    /** The current version of the file format. */
+    static final int VERSION = 2;
+
+    private static final byte[] MAGIC = {'F', 'O', 'P', 'F', 'C', 'A', 'C', 'H'};
+
+    private static final int HEADER_LENGTH = MAGIC.length + 4;
+
+    private static final byte FONT_FILE = 1;
+    private static final byte FAILED_FONT = 2;
+    private static final byte REMOVE_FONT_FILE = 3;
+    private static final byte REMOVE_FAILED_FONT = 4;
+    private static final byte FILE_REPLACED = 5;
+
+    /** How often an append is retried if the file was replaced in the meantime. */
+    private static final int MAX_APPEND_ATTEMPTS = 3;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static Log log = LogFactory.getLog(FontCacheFile.class);
+
+    /** The locks serializing access to the cache files within this JVM, keyed by canonical path. */
+    private static final Map<String, Object> FILE_LOCKS = new HashMap<String, Object>();
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, Integer> fontFileOffsets = new HashMap<String, Integer>();
+
+    private final Map<String, List<FontTriplet>> fontFileTriplets = new HashMap<String, List<FontTriplet>>();
+
+    private final Map<String, Long> failedFonts = new HashMap<String, Long>();
+
+    private Map<FontTriplet, List<String>> tripletIndex;
+
+    private int recordCount;
+
+    private FontCacheFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens a font cache file.
+     * @param file the cache file
+     * @return the opened file, or null if it doesn't exist
+     * @throws IOException if the file can't be read or is not a font cache file of this version
+     * @throws OverlappingFileLockException if the file is locked by other code in this JVM
+     */
+    static FontCacheFile open(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        synchronized (getFileLock(file)) {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+                try {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, checkSize(channel));
+                    checkHeader(buffer.duplicate());
+                    FontCacheFile cacheFile = new FontCacheFile(buffer);
+                    scan(buffer, cacheFile);
+                    return cacheFile;
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                IOUtils.closeQuietly(raf);
+            }
+        }
+    }
+
+    private static Object getFileLock(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        synchronized (FILE_LOCKS) {
+            Object lock = FILE_LOCKS.get(path);
+            if (lock == null) {
+                lock = new Object();
+                FILE_LOCKS.put(path, lock);
+            }
+            return lock;
+        }
+    }
+
+    private static long checkSize(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Font cache file too large: " + size);
+        }
+        return size;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) checkSize(channel));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void checkHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new IOException("Not a font cache file");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a font cache file (or a cache file of an older FOP version)");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported font cache file version: " + version);
+        }
+    }
+
+    /**
+     * Checks the records of a cache file.
+     * @param buffer the file contents
+     * @param cacheFile the file to index the valid records into, may be null
+     * @return the offset following the last valid record, or -1 if the file was replaced
+     */
+    private static int scan(ByteBuffer buffer, FontCacheFile cacheFile) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(HEADER_LENGTH);
+        while (in.remaining() >= 4) {
+            int recordStart = in.position();
+            int length = in.getInt();
+            if (length <= 0 || in.remaining() < length + 4) {
+                log.warn("Truncated font cache record at offset " + recordStart + ", ignoring the rest of the file");
+                return recordStart;
+            }
+            int bodyStart = in.position();
+            CRC32 crc = new CRC32();
+            ByteBuffer body = in.duplicate();
+            body.limit(bodyStart + length);
+            crc.update(body);
+            in.position(bodyStart + length);
+            if ((int) crc.getValue() != in.getInt()) {
+                log.warn("Corrupt font cache record at offset " + recordStart + ", ignoring the rest of the file");
+                return recordStart;
+            }
+            if (buffer.get(bodyStart) == FILE_REPLACED) {
+                return -1;
+            }
+            if (cacheFile != null) {
+                try {
+                    cacheFile.index(bodyStart, length);
+                } catch (RuntimeException e) {
+                    log.warn("Invalid font cache record at offset " + recordStart
+                            + ", ignoring the rest of the file");
+                    return recordStart;
+                }
+                cacheFile.recordCount++;
+            }
+        }
+        return in.position();
+    }
+
+    private void index(int bodyStart, int length) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(bodyStart);
+        in.limit(bodyStart + length);
+        byte type = in.get();
+        String url = readString(in);
+        switch (type) {
+        case FONT_FILE:
+            fontFileOffsets.put(url, bodyStart);
+            in.getLong(); //last modified
+            fontFileTriplets.put(url, readTriplets(in));
+            break;
+        case FAILED_FONT:
+            failedFonts.put(url, in.getLong());
+            break;
+        case REMOVE_FONT_FILE:
+            fontFileOffsets.remove(url);
+            fontFileTriplets.remove(url);
+            break;
+        case REMOVE_FAILED_FONT:
+            failedFonts.remove(url);
+            break;
+        default:
+            throw new IllegalStateException("Unknown record type: " + type);
+        }
+    }
+
+    /**
+     * Returns the offsets of the font file records, keyed by font file URL.
+     * @return the font file records
+     */
+    Map<String, Integer> getFontFileOffsets() {
+        return fontFileOffsets;
+    }
+
+    /**
+     * Returns the URLs of the font files that contain a font registered under a font triplet.
+     * @param triplet the font triplet
+     * @return the font file URLs
+     */
+    List<String> getFontFileUrls(FontTriplet triplet) {
+        if (tripletIndex == null) {
+            tripletIndex = new HashMap<FontTriplet, List<String>>();
+            for (Map.Entry<String, List<FontTriplet>> entry : fontFileTriplets.entrySet()) {
+                for (FontTriplet fontTriplet : entry.getValue()) {
+                    List<String> urls = tripletIndex.get(fontTriplet);
+                    if (urls == null) {
+                        urls = new ArrayList<String>(1);
+                        tripletIndex.put(fontTriplet, urls);
+                    }
+                    urls.add(entry.getKey());
+                }
+            }
+        }
+        List<String> urls = tripletIndex.get(triplet);
+        return urls != null ? urls : Collections.<String>emptyList();
+    }
+
+    /**
+     * Returns the failed fonts and their last modified time, keyed by font file URL.
+     * @return the failed fonts
+     */
+    Map<String, Long> getFailedFonts() {
+        return failedFonts;
+    }
+
+    /**
+     * Indicates whether the file contains many superseded records and should be rewritten.
+     * @return true if the file should be compacted
+     */
+    boolean needsCompaction() {
+        int live = fontFileOffsets.size() + failedFonts.size();
+        return recordCount > 64 && recordCount > 2 * live;
+    }
+
+    /**
+     * Decodes a font file record.
+     * @param offset the record offset
+     * @return the cached font file
+     * @throws IOException if the record can't be decoded
+     */
+    CachedFontFile readFontFile(int offset) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        try {
+            in.get(); //type
+            readString(in); //url
+            CachedFontFile cachedFontFile = new CachedFontFile(in.getLong());
+            readTriplets(in);
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                cachedFontFile.put(readFontInfo(in));
+            }
+            return cachedFontFile;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Invalid font cache record at offset " + offset);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid font cache record at offset " + offset + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes a font file record.
+     * @param url the font file URL
+     * @param cachedFontFile the font file
+     * @return the record
+     */
+    static byte[] fontFileRecord(String url, CachedFontFile cachedFontFile) {
+        EmbedFontInfo[] infos = cachedFontFile.getEmbedFontInfos();
+        Set<FontTriplet> fontTriplets = new LinkedHashSet<FontTriplet>();
+        for (EmbedFontInfo info : infos) {
+            if (info.getFontTriplets() != null) {
+                fontTriplets.addAll(info.getFontTriplets());
+            }
+        }
+        RecordWriter out = new RecordWriter(FONT_FILE, url);
+        try {
+            out.data.writeLong(cachedFontFile.lastModified());
+            out.data.writeInt(fontTriplets.size());
+            for (FontTriplet triplet : fontTriplets) {
+                out.writeTriplet(triplet);
+            }
+            out.data.writeInt(infos.length);
+            for (EmbedFontInfo info : infos) {
+                out.writeFontInfo(info);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toRecord();
+    }
+
+    /**
+     * Encodes a failed font record.
+     * @param url the font file URL
+     * @param lastModified the last modified time of the font file
+     * @return the record
+     */
+    static byte[] failedFontRecord(String url, long lastModified) {
+        RecordWriter out = new RecordWriter(FAILED_FONT, url);
+        try {
+            out.data.writeLong(lastModified);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toRecord();
+    }
+
+    /**
+     * Encodes the removal of a font file.
+     * @param url the font file URL
+     * @return the record
+     */
+    static byte[] removeFontFileRecord(String url) {
+        return new RecordWriter(REMOVE_FONT_FILE, url).toRecord();
+    }
+
+    /**
+     * Encodes the removal of a failed font.
+     * @param url the font file URL
+     * @return the record
+     */
+    static byte[] removeFailedFontRecord(String url) {
+        return new RecordWriter(REMOVE_FAILED_FONT, url).toRecord();
+    }
+
+    /**
+     * Appends records to a cache file, creating it if necessary. If the file exists but is not
+     * a valid cache file of this version, it is replaced. A truncated or corrupt tail is
+     * removed before the records are appended.
+     * @param file the cache file
+     * @param records the records to append
+     * @throws IOException if an I/O error occurs
+     * @throws OverlappingFileLockException if the file is locked by other code in this JVM
+     */
+    static void append(File file, Collection<byte[]> records) throws IOException {
+        synchronized (getFileLock(file)) {
+            int attempts = 1;
+            while (!tryAppend(file, records)) {
+                if (attempts++ == MAX_APPEND_ATTEMPTS) {
+                    throw new IOException("Font cache file keeps being replaced: " + file);
+                }
+            }
+        }
+    }
+
+    private static boolean tryAppend(File file, Collection<byte[]> records) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            FileLock lock = channel.lock();
+            try {
+                long position = getAppendPosition(channel);
+                if (position < 0) {
+                    //another process replaced the file while we waited for the lock
+                    return false;
+                }
+                write(channel, position, records);
+                return true;
+            } finally {
+                lock.release();
+            }
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Determines where new records are appended to a locked cache file, removing a truncated
+     * or corrupt tail and writing the header if the file isn't a cache file of this version.
+     * @param channel the cache file
+     * @return the offset for the next record, or -1 if the file was replaced
+     * @throws IOException if an I/O error occurs
+     */
+    private static long getAppendPosition(FileChannel channel) throws IOException {
+        ByteBuffer contents = readFully(channel);
+        if (!hasValidHeader(contents)) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(header()), 0);
+            return HEADER_LENGTH;
+        }
+        long position = scan(contents, null);
+        if (position >= 0 && position < channel.size()) {
+            channel.truncate(position);
+        }
+        return position;
+    }
+
+    /**
+     * Replaces the contents of a cache file with the given records.
+     * @param file the cache file
+     * @param records the records
+     * @throws IOException if an I/O error occurs
+     * @throws OverlappingFileLockException if the file is locked by other code in this JVM
+     */
+    static void write(File file, Collection<byte[]> records) throws IOException {
+        synchronized (getFileLock(file)) {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                FileChannel channel = raf.getChannel();
+                FileLock lock = channel.lock();
+                try {
+                    if (replace(file, records)) {
+                        long position = getAppendPosition(channel);
+                        if (position >= 0) {
+                            write(channel, position,
+                                    Collections.singleton(new RecordWriter(FILE_REPLACED, null).toRecord()));
+                        }
+                    } else {
+                        channel.truncate(0);
+                        channel.write(ByteBuffer.wrap(header()), 0);
+                        write(channel, HEADER_LENGTH, records);
+                    }
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                IOUtils.closeQuietly(raf);
+            }
+        }
+    }
+
+    /**
+     * Writes the records to a new file and renames it over the cache file, so processes
+     * that have mapped the cache file keep their (unchanged) view of it.
+     * @param file the cache file
+     * @param records the records
+     * @return true if the file was replaced, false if the platform doesn't support it
+     * @throws IOException if an I/O error occurs
+     */
+    private static boolean replace(File file, Collection<byte[]> records) throws IOException {
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        boolean replaced = false;
+        try {
+            RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+            try {
+                FileChannel channel = raf.getChannel();
+                channel.write(ByteBuffer.wrap(header()), 0);
+                write(channel, HEADER_LENGTH, records);
+            } finally {
+                raf.close();
+            }
+            replaced = temp.renameTo(file);
+            return replaced;
+        } finally {
+            if (!replaced) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, long position, Collection<byte[]> records)
+            throws IOException {
+        for (byte[] record : records) {
+            ByteBuffer src = ByteBuffer.wrap(record);
+            while (src.hasRemaining()) {
+                position += channel.write(src, position);
+            }
+        }
+    }
+
+    private static boolean hasValidHeader(ByteBuffer contents) {
+        try {
+            checkHeader(contents.duplicate());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        return header.array();
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static URI readURI(ByteBuffer in) {
+        String uri = readString(in);
+        try {
+            return uri == null ? null : new URI(uri);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static FontTriplet readTriplet(ByteBuffer in) {
+        String name = readString(in);
+        String style = readString(in);
+        int weight = in.getInt();
+        int priority = in.getInt();
+        return new FontTriplet(name, style, weight, priority);
+    }
+
+    private static List<FontTriplet> readTriplets(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid font triplet count: " + count);
+        }
+        List<FontTriplet> fontTriplets = new ArrayList<FontTriplet>(count);
+        for (int i = 0; i < count; i++) {
+            fontTriplets.add(readTriplet(in));
+        }
+        return fontTriplets;
+    }
+
+    private static EmbedFontInfo readFontInfo(ByteBuffer in) {
+        String postScriptName = readString(in);
+        String subFontName = readString(in);
+        FontUris fontUris = new FontUris(readURI(in), readURI(in), readURI(in), readURI(in));
+        boolean kerning = in.get() != 0;
+        boolean advanced = in.get() != 0;
+        boolean simulateStyle = in.get() != 0;
+        boolean embedAsType1 = in.get() != 0;
+        boolean useSVG = in.get() != 0;
+        EncodingMode encodingMode = EncodingMode.valueOf(readString(in));
+        EmbeddingMode embeddingMode = EmbeddingMode.valueOf(readString(in));
+        List<FontTriplet> fontTriplets = readTriplets(in);
+        EmbedFontInfo info = new EmbedFontInfo(fontUris, kerning, advanced, fontTriplets, subFontName,
+                encodingMode, embeddingMode, simulateStyle, embedAsType1, useSVG);
+        info.setPostScriptName(postScriptName);
+        return info;
+    }
+
+    /** Encodes the body of a record and frames it with its length and checksum. */
+    private static final class RecordWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        RecordWriter(byte type, String url) {
+            try {
+                data.writeByte(type);
+                writeString(url);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void writeString(String s) throws IOException {
+            if (s == null) {
+                data.writeInt(-1);
+            } else {
+                byte[] b = s.getBytes(UTF_8);
+                data.writeInt(b.length);
+                data.write(b);
+            }
+        }
+
+        void writeURI(URI uri) throws IOException {
+            writeString(uri == null ? null : uri.toString());
+        }
+
+        void writeTriplet(FontTriplet triplet) throws IOException {
+            writeString(triplet.getName());
+            writeString(triplet.getStyle());
+            data.writeInt(triplet.getWeight());
+            data.writeInt(triplet.getPriority());
+        }
+
+        void writeFontInfo(EmbedFontInfo info) throws IOException {
+            writeString(info.getPostScriptName());
+            writeString(info.getSubFontName());
+            FontUris fontUris = info.getFontUris();
+            writeURI(fontUris.getEmbed());
+            writeURI(fontUris.getMetrics());
+            writeURI(fontUris.getAfm());
+            writeURI(fontUris.getPfm());
+            data.writeBoolean(info.getKerning());
+            data.writeBoolean(info.getAdvanced());
+            data.writeBoolean(info.getSimulateStyle());
+            data.writeBoolean(info.getEmbedAsType1());
+            data.writeBoolean(info.getUseSVG());
+            writeString(info.getEncodingMode().name());
+            writeString(info.getEmbeddingMode().name());
+            List<FontTriplet> fontTriplets = info.getFontTriplets();
+            data.writeInt(fontTriplets == null ? 0 : fontTriplets.size());
+            if (fontTriplets != null) {
+                for (FontTriplet triplet : fontTriplets) {
+                    writeTriplet(triplet);
+                }
+            }
+        }
+
+        byte[] toRecord() {
+            byte[] body = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteBuffer record = ByteBuffer.allocate(body.length + 8);
+            record.putInt(body.length);
+            record.put(body);
+            record.putInt((int) crc.getValue());
+            return record.array();
+        }
+    }
+}
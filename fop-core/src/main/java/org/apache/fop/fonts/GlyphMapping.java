@@ -238,7 +238,6 @@ public class GlyphMapping {
             final Font font, MinOptMax letterSpaceIPD, MinOptMax[] letterSpaceAdjustArray,
             char precedingChar, final char breakOpportunityChar, final boolean endsWithHyphen, int level) {
         boolean kerning = font.hasKerning();
-        MinOptMax wordIPD = MinOptMax.ZERO;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("PW: [" + startIndex + "," + endIndex + "]: {"
@@ -248,28 +247,20 @@ public class GlyphMapping {
         }
 
         CharSequence ics = text.subSequence(startIndex, endIndex);
-        int offset = 0;
-        for (int currentChar : CharUtilities.codepointsIter(ics)) {
-
-            // character width
-            int charWidth = font.getCharWidth(currentChar);
-            wordIPD = wordIPD.plus(charWidth);
-
-            // kerning
-            if (kerning) {
-                int kern = 0;
-                if (offset > 0) {
-                    int previousChar = Character.codePointAt(ics, offset - 1);
-                    kern = font.getKernValue(previousChar, currentChar);
-                } else if (precedingChar != 0) {
-                    kern = font.getKernValue(precedingChar, currentChar);
-                }
-                if (kern != 0) {
-                    addToLetterAdjust(letterSpaceAdjustArray, startIndex + offset, kern);
-                    wordIPD = wordIPD.plus(kern);
+        WordWidthCache cache = font.getWordWidthCache();
+        WordWidthCache.Key key = new WordWidthCache.Key(ics, kerning ? precedingChar : 0);
+        WordWidthCache.WordWidth measured = cache.get(key);
+        if (measured == null) {
+            measured = measureWord(ics, font, kerning, precedingChar);
+            cache.put(key, measured);
+        }
+        MinOptMax wordIPD = MinOptMax.getInstance(measured.width);
+        if (measured.kerning != null) {
+            for (int offset = 0; offset < measured.kerning.length; offset++) {
+                if (measured.kerning[offset] != 0) {
+                    addToLetterAdjust(letterSpaceAdjustArray, startIndex + offset, measured.kerning[offset]);
                 }
             }
-            offset++;
         }
         if (kerning
                 && (breakOpportunityChar != 0)
@@ -310,6 +301,38 @@ public class GlyphMapping {
                 (breakOpportunityChar != 0) && !isSpace(breakOpportunityChar), font, level, null);
     }
 
+    private static WordWidthCache.WordWidth measureWord(CharSequence ics, Font font, boolean kerning,
+            char precedingChar) {
+        int width = 0;
+        int[] kernings = null;
+        int offset = 0;
+        for (int currentChar : CharUtilities.codepointsIter(ics)) {
+
+            // character width
+            width += font.getCharWidth(currentChar);
+
+            // kerning
+            if (kerning) {
+                int kern = 0;
+                if (offset > 0) {
+                    int previousChar = Character.codePointAt(ics, offset - 1);
+                    kern = font.getKernValue(previousChar, currentChar);
+                } else if (precedingChar != 0) {
+                    kern = font.getKernValue(precedingChar, currentChar);
+                }
+                if (kern != 0) {
+                    if (kernings == null) {
+                        kernings = new int[ics.length()];
+                    }
+                    kernings[offset] = kern;
+                    width += kern;
+                }
+            }
+            offset++;
+        }
+        return new WordWidthCache.WordWidth(width, kernings);
+    }
+
     private static void addToLetterAdjust(MinOptMax[] letterSpaceAdjustArray, int index, int width) {
         if (letterSpaceAdjustArray[index] == null) {
             letterSpaceAdjustArray[index] = MinOptMax.getInstance(width);
@@ -25,6 +25,7 @@ import java.nio.Buffer;
 import java.nio.CharBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -68,6 +69,9 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
     private GlyphSubstitutionTable gsub;
     private GlyphPositioningTable gpos;
 
+    /* shaped words, see performSubstitution() and performPositioning() */
+    private final ShapedWordCache shapedWordCache = new ShapedWordCache(ShapedWordCache.DEFAULT_MAX_ENTRIES);
+
     /* dynamic private use (character) mappings */
     private int numMapped;
     private int numUnmapped;
@@ -84,6 +88,9 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
 
     // since for most users the most likely glyphs are in the first cmap segments we store their mapping.
     private static final int NUM_MOST_LIKELY_GLYPHS = 256;
+
+    /** cached positioning result of a word without adjustments */
+    private static final int[][] NO_ADJUSTMENTS = new int[0][];
     private int[] mostLikelyGlyphs = new int[NUM_MOST_LIKELY_GLYPHS];
 
     //A map to store each used glyph from the CID set against the glyph name.
@@ -540,6 +547,14 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
         return gpos;
     }
 
+    /**
+     * Obtain the cache of glyph substitution and positioning results of this font.
+     * @return the shaped word cache
+     */
+    public ShapedWordCache getShapedWordCache() {
+        return shapedWordCache;
+    }
+
     /** {@inheritDoc} */
     public boolean performsSubstitution() {
         return gsub != null;
@@ -549,24 +564,44 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
     public CharSequence performSubstitution(CharSequence charSequence, String script, String language,
                                             List associations, boolean retainControls) {
         if (gsub != null) {
-            charSequence = gsub.preProcess(charSequence, script, this, associations);
-            GlyphSequence glyphSequence = charSequenceToGlyphSequence(charSequence, associations);
-            GlyphSequence glyphSequenceSubstituted = gsub.substitute(glyphSequence, script, language);
-            if (associations != null) {
-                associations.clear();
-                associations.addAll(glyphSequenceSubstituted.getAssociations());
+            ShapedWordCache.Key key = null;
+            if ((associations == null) || associations.isEmpty()) {
+                // the result only depends on the arguments if no associations are passed in
+                key = new ShapedWordCache.Key(ShapedWordCache.SUBSTITUTION, charSequence, script, language,
+                        ((associations != null) ? 1 : 0) | (retainControls ? 2 : 0));
+                SubstitutedWord word = (SubstitutedWord) shapedWordCache.get(key);
+                if (word != null) {
+                    return word.getChars(associations);
+                }
             }
-            if (!retainControls) {
-                glyphSequenceSubstituted = elideControls(glyphSequenceSubstituted);
+            CharSequence substituted = substitute(charSequence, script, language, associations, retainControls);
+            if (key != null) {
+                shapedWordCache.put(key, new SubstitutedWord(substituted, associations));
             }
-            // may not contains all the characters that were in charSequence.
-            // see: #createPrivateUseMapping(int gi)
-            return mapGlyphsToChars(glyphSequenceSubstituted);
+            return substituted;
         } else {
             return charSequence;
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private CharSequence substitute(CharSequence charSequence, String script, String language,
+                                    @SuppressWarnings("rawtypes") List associations, boolean retainControls) {
+        charSequence = gsub.preProcess(charSequence, script, this, associations);
+        GlyphSequence glyphSequence = charSequenceToGlyphSequence(charSequence, associations);
+        GlyphSequence glyphSequenceSubstituted = gsub.substitute(glyphSequence, script, language);
+        if (associations != null) {
+            associations.clear();
+            associations.addAll(glyphSequenceSubstituted.getAssociations());
+        }
+        if (!retainControls) {
+            glyphSequenceSubstituted = elideControls(glyphSequenceSubstituted);
+        }
+        // may not contains all the characters that were in charSequence.
+        // see: #createPrivateUseMapping(int gi)
+        return mapGlyphsToChars(glyphSequenceSubstituted);
+    }
+
     public GlyphSequence charSequenceToGlyphSequence(CharSequence charSequence, List associations) {
         CharSequence normalizedCharSequence = normalize(charSequence, associations);
         return mapCharsToGlyphs(normalizedCharSequence, associations);
@@ -608,11 +643,21 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
     public int[][]
         performPositioning(CharSequence cs, String script, String language, int fontSize) {
         if (gpos != null) {
+            ShapedWordCache.Key key = new ShapedWordCache.Key(ShapedWordCache.POSITIONING, cs, script, language,
+                    fontSize);
+            int[][] cached = (int[][]) shapedWordCache.get(key);
+            if (cached != null) {
+                return copyAdjustments(cached);
+            }
             GlyphSequence gs = mapCharsToGlyphs(cs, null);
             int[][] adjustments = new int [ gs.getGlyphCount() ] [ 4 ];
             if (gpos.position(gs, script, language, fontSize, this.width, adjustments)) {
-                return scaleAdjustments(adjustments, fontSize);
+                adjustments = scaleAdjustments(adjustments, fontSize);
+                // callers adjust the returned array in place
+                shapedWordCache.put(key, copyAdjustments(adjustments));
+                return adjustments;
             } else {
+                shapedWordCache.put(key, NO_ADJUSTMENTS);
                 return null;
             }
         } else {
@@ -626,6 +671,17 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
     }
 
 
+    private static int[][] copyAdjustments(int[][] adjustments) {
+        if (adjustments == NO_ADJUSTMENTS) {
+            return null;
+        }
+        int[][] copy = new int [ adjustments.length ] [];
+        for (int i = 0; i < adjustments.length; i++) {
+            copy[i] = adjustments[i].clone();
+        }
+        return copy;
+    }
+
     private int[][] scaleAdjustments(int[][] adjustments, int fontSize) {
         if (adjustments != null) {
             for (int[] gpa : adjustments) {
@@ -868,5 +924,39 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
         int gid = findGlyphIndex(c);
         return svgs.get(gid);
     }
-}
 
+    /** A cached glyph substitution result. */
+    private static final class SubstitutedWord {
+
+        private final String chars;
+
+        private final CharAssociation[] associations;
+
+        SubstitutedWord(CharSequence chars, List<?> associations) {
+            this.chars = chars.toString();
+            this.associations = (associations != null) ? copyAssociations(associations) : null;
+        }
+
+        /**
+         * Returns the substituted characters and fills in their associations.
+         * @param associations the list to receive the associations, may be null
+         * @return the substituted characters
+         */
+        @SuppressWarnings("unchecked")
+        CharSequence getChars(@SuppressWarnings("rawtypes") List associations) {
+            if (associations != null) {
+                associations.addAll(Arrays.asList(copyAssociations(Arrays.asList(this.associations))));
+            }
+            return chars;
+        }
+
+        private static CharAssociation[] copyAssociations(List<?> associations) {
+            // associations carry mutable predications, so every user gets its own copies
+            CharAssociation[] copy = new CharAssociation[associations.size()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = (CharAssociation) ((CharAssociation) associations.get(i)).clone();
+            }
+            return copy;
+        }
+    }
+}
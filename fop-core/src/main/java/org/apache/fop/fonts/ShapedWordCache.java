@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import org.apache.fop.util.LRUCache;
+
+/**
+ * Bounded cache of the results of glyph substitution and positioning of a {@link MultiByteFont}.
+ * Shaping a word with the advanced typographic tables of a font is expensive while the same
+ * words tend to occur over and over again in a document, so the results are kept keyed by the
+ * operation, the character sequence, the script and the language (which select the features
+ * applied) and the operation's options.
+ */
+public final class ShapedWordCache extends LRUCache<ShapedWordCache.Key, Object> {
+
+    /** The default maximum number of cached results. */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /** Key operation: glyph substitution. */
+    static final int SUBSTITUTION = 1;
+
+    /** Key operation: glyph positioning. */
+    static final int POSITIONING = 2;
+
+    /**
+     * Creates a new cache.
+     * @param maxEntries the maximum number of cached results
+     */
+    public ShapedWordCache(int maxEntries) {
+        super(maxEntries);
+    }
+
+    static final class Key {
+
+        private final int operation;
+
+        private final String chars;
+
+        private final String script;
+
+        private final String language;
+
+        private final int options;
+
+        private final int hash;
+
+        Key(int operation, CharSequence chars, String script, String language, int options) {
+            this.operation = operation;
+            this.chars = chars.toString();
+            this.script = script;
+            this.language = language;
+            this.options = options;
+            int hash = operation;
+            hash = 31 * hash + this.chars.hashCode();
+            hash = 31 * hash + (script == null ? 0 : script.hashCode());
+            hash = 31 * hash + (language == null ? 0 : language.hashCode());
+            this.hash = 31 * hash + options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && operation == other.operation
+                    && options == other.options
+                    && chars.equals(other.chars)
+                    && (script == null ? other.script == null : script.equals(other.script))
+                    && (language == null ? other.language == null : language.equals(other.language));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
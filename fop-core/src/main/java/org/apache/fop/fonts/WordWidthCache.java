@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import org.apache.fop.util.LRUCache;
+
+/**
+ * Bounded cache of the measured widths of words set in a {@link Font}. Measuring a word means
+ * looking up the width of each character and, for kerned fonts, the kerning of each pair of
+ * characters; in tables and reports the same words occur over and over again in the same font
+ * and size. The cached width excludes letter spacing, which is applied by the caller, so the
+ * results are keyed by the characters of the word and the character preceding it (which
+ * kerns with the first character).
+ */
+public final class WordWidthCache extends LRUCache<WordWidthCache.Key, WordWidthCache.WordWidth> {
+
+    /** The default maximum number of cached results. */
+    public static final int DEFAULT_MAX_ENTRIES = 2048;
+
+    /**
+     * Creates a new cache.
+     * @param maxEntries the maximum number of cached results
+     */
+    public WordWidthCache(int maxEntries) {
+        super(maxEntries);
+    }
+
+    /** The measured width of a word. */
+    static final class WordWidth {
+
+        /** The sum of the character widths and kerning values, in mpt. */
+        final int width;
+
+        /**
+         * The kerning value before each character, indexed like the characters of the word,
+         * or null if no character is kerned.
+         */
+        final int[] kerning;
+
+        WordWidth(int width, int[] kerning) {
+            this.width = width;
+            this.kerning = kerning;
+        }
+    }
+
+    static final class Key {
+
+        private final String chars;
+
+        private final int precedingChar;
+
+        private final int hash;
+
+        Key(CharSequence chars, int precedingChar) {
+            this.chars = chars.toString();
+            this.precedingChar = precedingChar;
+            this.hash = 31 * this.chars.hashCode() + precedingChar;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && precedingChar == other.precedingChar
+                    && chars.equals(other.chars);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.autodetect;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the worker threads used to scan font directories and parse font files in parallel
+ * during font auto-detection.
+ */
+final class FontDetectionExecutor {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private FontDetectionExecutor() {
+    }
+
+    /**
+     * Creates an executor for the given number of tasks. The executor has at most one thread per
+     * available processor and must be shut down by the caller.
+     * @param tasks the number of tasks to run
+     * @return the executor, or null if the tasks should be run on the calling thread
+     */
+    static ExecutorService newExecutor(int tasks) {
+        int threads = Math.min(tasks, Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            return null;
+        }
+        final String prefix = "FOP font detection " + POOL_COUNT.incrementAndGet() + "-";
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+}
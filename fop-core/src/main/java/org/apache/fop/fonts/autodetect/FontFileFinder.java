@@ -21,10 +21,15 @@ package org.apache.fop.fonts.autodetect;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.io.DirectoryWalker;
 import org.apache.commons.io.IOCase;
@@ -39,7 +44,7 @@ import org.apache.fop.fonts.FontEventListener;
 /**
  * Helps to autodetect/locate available operating system fonts.
  */
-public class FontFileFinder extends DirectoryWalker implements FontFinder {
+public class FontFileFinder extends DirectoryWalker<URL> implements FontFinder {
 
     /** logging instance */
     private final Log log = LogFactory.getLog(FontFileFinder.class);
@@ -98,7 +103,7 @@ public class FontFileFinder extends DirectoryWalker implements FontFinder {
      * {@inheritDoc}
      */
     @Override
-    protected boolean handleDirectory(File directory, int depth, Collection results) {
+    protected boolean handleDirectory(File directory, int depth, Collection<URL> results) {
         return true;
     }
 
@@ -109,7 +114,7 @@ public class FontFileFinder extends DirectoryWalker implements FontFinder {
      * {@inheritDoc}
      */
     @Override
-    protected void handleFile(File file, int depth, Collection results) {
+    protected void handleFile(File file, int depth, Collection<URL> results) {
         try {
             // Looks Strange, but is actually recommended over just .URL()
             results.add(file.toURI().toURL());
@@ -125,7 +130,7 @@ public class FontFileFinder extends DirectoryWalker implements FontFinder {
      * {@inheritDoc}
      */
     @Override
-    protected void handleDirectoryEnd(File directory, int depth, Collection results) {
+    protected void handleDirectoryEnd(File directory, int depth, Collection<URL> results) {
         if (log.isDebugEnabled()) {
             log.debug(directory + ": found " + results.size() + " font"
                     + ((results.size() == 1) ? "" : "s"));
@@ -153,12 +158,59 @@ public class FontFileFinder extends DirectoryWalker implements FontFinder {
         }
         List<File> fontDirs = fontDirFinder.find();
         List<URL> results = new java.util.ArrayList<URL>();
-        for (File dir : fontDirs) {
-            super.walk(dir, results);
+        for (List<URL> dirResults : walk(fontDirs)) {
+            results.addAll(dirResults);
         }
         return results;
     }
 
+    /**
+     * Walks several font directories in parallel.
+     *
+     * @param dirs the directories to walk
+     * @return the font files found in each directory, in the order of the directories
+     * @throws IOException thrown if an I/O exception of some sort has occurred
+     */
+    private List<List<URL>> walk(List<File> dirs) throws IOException {
+        List<FutureTask<List<URL>>> tasks = new java.util.ArrayList<FutureTask<List<URL>>>();
+        for (final File dir : dirs) {
+            tasks.add(new FutureTask<List<URL>>(new Callable<List<URL>>() {
+                public List<URL> call() throws IOException {
+                    List<URL> dirResults = new java.util.ArrayList<URL>();
+                    walk(dir, dirResults);
+                    return dirResults;
+                }
+            }));
+        }
+        ExecutorService executor = FontDetectionExecutor.newExecutor(tasks.size());
+        try {
+            List<List<URL>> results = new java.util.ArrayList<List<URL>>();
+            for (FutureTask<List<URL>> task : tasks) {
+                if (executor != null) {
+                    executor.execute(task);
+                } else {
+                    task.run();
+                }
+            }
+            for (FutureTask<List<URL>> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching for font files");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
     /**
      * Searches a given directory for font files
      *
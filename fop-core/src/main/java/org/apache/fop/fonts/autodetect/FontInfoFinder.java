@@ -19,14 +19,19 @@
 
 package org.apache.fop.fonts.autodetect;
 
-import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -149,8 +154,8 @@ public class FontInfoFinder {
         if (customFont instanceof MultiByteFont) {
             subFontName = ((MultiByteFont) customFont).getTTCName();
         }
-        EmbedFontInfo fontInfo = new EmbedFontInfo(fontUris, customFont.isKerningEnabled(),
-                customFont.isAdvancedEnabled(), fontTripletList, subFontName);
+        // the font was loaded without its kerning and advanced tables, they are read when it is used
+        EmbedFontInfo fontInfo = new EmbedFontInfo(fontUris, true, true, fontTripletList, subFontName);
         fontInfo.setPostScriptName(customFont.getFontName());
         if (fontCache != null) {
             fontCache.addFont(fontInfo, resourceResolver);
@@ -168,56 +173,121 @@ public class FontInfoFinder {
      *         will have only one entry, unless the fontUrl is a TrueType Collection
      */
     public EmbedFontInfo[] find(URI fontURI, InternalResourceResolver resourceResolver, FontCache fontCache) {
-        URI embedUri = resourceResolver.resolveFromBase(fontURI);
-        String embedStr = embedUri.toASCIIString();
-        boolean useKerning = true;
-        boolean useAdvanced = true;
+        return find(Collections.singletonList(fontURI), resourceResolver, fontCache).get(0);
+    }
 
-        long fileLastModified = -1;
-        if (fontCache != null) {
-            fileLastModified = FontCache.getLastModified(fontURI);
-            // firstly try and fetch it from cache before loading/parsing the font file
-            if (fontCache.containsFont(embedStr)) {
-                EmbedFontInfo[] fontInfos = fontCache.getFontInfos(embedStr, fileLastModified);
-                if (fontInfos != null) {
-                    return fontInfos;
+    /**
+     * Attempts to determine EmbedFontInfo from a list of font files. The font files that
+     * aren't found in the font cache are parsed in parallel, but the results are added to the
+     * font cache and reported to the event listener in the order of the list, so the outcome
+     * doesn't depend on the scheduling of the worker threads.
+     *
+     * @param fontURIs the URIs of the font resources
+     * @param resourceResolver font resolver used to resolve font
+     * @param fontCache font cache (may be null)
+     * @return the embed font infos of each font file, in the order of the list. An entry is null
+     *         if the font file couldn't be loaded.
+     */
+    public List<EmbedFontInfo[]> find(List<URI> fontURIs, final InternalResourceResolver resourceResolver,
+            FontCache fontCache) {
+        int count = fontURIs.size();
+        EmbedFontInfo[][] results = new EmbedFontInfo[count][];
+        long[] fileLastModified = new long[count];
+        List<FutureTask<LoadedFontFile>> tasks = new ArrayList<FutureTask<LoadedFontFile>>(count);
+        for (int i = 0; i < count; i++) {
+            final URI fontURI = fontURIs.get(i);
+            fileLastModified[i] = -1;
+            FutureTask<LoadedFontFile> task = null;
+            if (fontCache != null) {
+                URI embedUri = resourceResolver.resolveFromBase(fontURI);
+                String embedStr = embedUri.toASCIIString();
+                fileLastModified[i] = FontCache.getLastModified(fontURI);
+                // firstly try and fetch it from cache before loading/parsing the font file
+                if (fontCache.containsFont(embedStr)) {
+                    results[i] = fontCache.getFontInfos(embedStr, fileLastModified[i]);
+                // is this a previously failed parsed font?
+                } else if (fontCache.isFailedFont(embedStr, fileLastModified[i])) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping font file that failed to load previously: " + embedUri);
+                    }
+                    tasks.add(null);
+                    continue;
                 }
-            // is this a previously failed parsed font?
-            } else if (fontCache.isFailedFont(embedStr, fileLastModified)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Skipping font file that failed to load previously: " + embedUri);
+            }
+            if (results[i] == null) {
+                task = new FutureTask<LoadedFontFile>(new Callable<LoadedFontFile>() {
+                    public LoadedFontFile call() {
+                        return load(fontURI, resourceResolver);
+                    }
+                });
+            }
+            tasks.add(task);
+        }
+
+        int pending = 0;
+        for (FutureTask<LoadedFontFile> task : tasks) {
+            if (task != null) {
+                pending++;
+            }
+        }
+        ExecutorService executor = FontDetectionExecutor.newExecutor(pending);
+        try {
+            for (FutureTask<LoadedFontFile> task : tasks) {
+                if (task != null) {
+                    if (executor != null) {
+                        executor.execute(task);
+                    } else {
+                        task.run();
+                    }
                 }
-                return null;
+            }
+            for (int i = 0; i < count; i++) {
+                if (tasks.get(i) != null) {
+                    results[i] = getFontInfos(fontURIs.get(i), getLoadedFontFile(tasks.get(i)),
+                            fileLastModified[i], resourceResolver, fontCache);
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
             }
         }
+        return Arrays.asList(results);
+    }
 
+    private LoadedFontFile getLoadedFontFile(FutureTask<LoadedFontFile> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
 
-        // try to determine triplet information from font file
-        CustomFont customFont = null;
+    /**
+     * Loads the fonts of a font file. This runs on the worker threads, so it neither touches
+     * the font cache nor the event listener. Kerning and advanced typographic tables are not
+     * needed to determine the font triplets and are therefore not read.
+     */
+    private LoadedFontFile load(URI fontURI, InternalResourceResolver resourceResolver) {
+        LoadedFontFile loaded = new LoadedFontFile();
         if (fontURI.toASCIIString().toLowerCase().endsWith(".ttc")) {
             // Get a list of the TTC Font names
             List<String> ttcNames = null;
-            InputStream in = null;
             try {
-                in = resourceResolver.getResource(fontURI);
                 TTFFile ttf = new TTFFile(false, false);
-                FontFileReader reader = new FontFileReader(in);
+                FontFileReader reader = FontFileReader.getInstance(resourceResolver, fontURI);
                 ttcNames = ttf.getTTCnames(reader);
-                if (ttcNames == null) {
-                    return null;
-                }
             } catch (Throwable e) {
-                if (this.eventListener != null) {
-                    this.eventListener.fontLoadingErrorAtAutoDetection(this,
-                            fontURI.toASCIIString(), new RuntimeException(e));
-                }
+                loaded.collectionError = e;
+                return loaded;
+            }
+            if (ttcNames == null) {
                 return null;
-            } finally {
-                IOUtils.closeQuietly(in);
             }
 
-            List<EmbedFontInfo> embedFontInfoList = new java.util.ArrayList<EmbedFontInfo>();
-
             // For each font name ...
             for (String fontName : ttcNames) {
                 if (log.isDebugEnabled()) {
@@ -225,57 +295,74 @@ public class FontInfoFinder {
                 }
                 try {
                     OFFontLoader ttfLoader = new OFFontLoader(fontURI, fontName, true,
-                            EmbeddingMode.AUTO, EncodingMode.AUTO, useKerning, useAdvanced,
+                            EmbeddingMode.AUTO, EncodingMode.AUTO, false, false,
                             resourceResolver, false, false, true);
-                    customFont = ttfLoader.getFont();
-                    if (this.eventListener != null) {
-                        customFont.setEventListener(this.eventListener);
-                    }
+                    loaded.fonts.add(ttfLoader.getFont());
                 } catch (Throwable e) {
-                    if (fontCache != null) {
-                        fontCache.registerFailedFont(embedUri.toASCIIString(), fileLastModified);
-                    }
-                    if (this.eventListener != null) {
-                        this.eventListener.fontLoadingErrorAtAutoDetection(this,
-                                embedUri.toASCIIString(), new RuntimeException(e));
-                    }
-                    continue;
-                }
-                EmbedFontInfo fi = getFontInfoFromCustomFont(fontURI, customFont, fontCache,
-                        resourceResolver);
-                if (fi != null) {
-                    embedFontInfoList.add(fi);
+                    loaded.errors.add(e);
                 }
             }
-            return embedFontInfoList.toArray(
-                    new EmbedFontInfo[embedFontInfoList.size()]);
         } else {
             // The normal case
             try {
                 FontUris fontUris = new FontUris(fontURI, null);
-                customFont = FontLoader.loadFont(fontUris, null, true, EmbeddingMode.AUTO, EncodingMode.AUTO,
-                        useKerning, useAdvanced, resourceResolver, false, false, true);
-                if (this.eventListener != null) {
-                    customFont.setEventListener(this.eventListener);
-                }
+                loaded.fonts.add(FontLoader.loadFont(fontUris, null, true, EmbeddingMode.AUTO,
+                        EncodingMode.AUTO, false, false, resourceResolver, false, false, true));
             } catch (Throwable e) {
-                if (fontCache != null) {
-                    fontCache.registerFailedFont(embedUri.toASCIIString(), fileLastModified);
-                }
-                if (this.eventListener != null) {
-                    this.eventListener.fontLoadingErrorAtAutoDetection(this,
-                            embedUri.toASCIIString(), new RuntimeException(e));
-                }
-                return null;
+                loaded.errors.add(e);
+            }
+        }
+        return loaded;
+    }
+
+    private EmbedFontInfo[] getFontInfos(URI fontURI, LoadedFontFile loaded, long fileLastModified,
+            InternalResourceResolver resourceResolver, FontCache fontCache) {
+        if (loaded == null) {
+            return null;
+        }
+        if (loaded.collectionError != null) {
+            if (this.eventListener != null) {
+                this.eventListener.fontLoadingErrorAtAutoDetection(this,
+                        fontURI.toASCIIString(), new RuntimeException(loaded.collectionError));
+            }
+            return null;
+        }
+        String embedStr = resourceResolver.resolveFromBase(fontURI).toASCIIString();
+        for (Throwable e : loaded.errors) {
+            if (fontCache != null) {
+                fontCache.registerFailedFont(embedStr, fileLastModified);
+            }
+            if (this.eventListener != null) {
+                this.eventListener.fontLoadingErrorAtAutoDetection(this,
+                        embedStr, new RuntimeException(e));
+            }
+        }
+        if (loaded.fonts.isEmpty() && !fontURI.toASCIIString().toLowerCase().endsWith(".ttc")) {
+            return null;
+        }
+        List<EmbedFontInfo> embedFontInfoList = new java.util.ArrayList<EmbedFontInfo>();
+        for (CustomFont customFont : loaded.fonts) {
+            if (this.eventListener != null) {
+                customFont.setEventListener(this.eventListener);
             }
-            EmbedFontInfo fi = getFontInfoFromCustomFont(fontURI, customFont, fontCache, resourceResolver);
+            EmbedFontInfo fi = getFontInfoFromCustomFont(fontURI, customFont, fontCache,
+                    resourceResolver);
             if (fi != null) {
-                return new EmbedFontInfo[] {fi};
-            } else {
-                return null;
+                embedFontInfoList.add(fi);
             }
         }
-
+        return embedFontInfoList.toArray(
+                new EmbedFontInfo[embedFontInfoList.size()]);
     }
 
+    /** The fonts loaded from a font file and the errors that occurred while loading it. */
+    private static final class LoadedFontFile {
+
+        private final List<CustomFont> fonts = new ArrayList<CustomFont>();
+
+        private final List<Throwable> errors = new ArrayList<Throwable>();
+
+        /** error reading the font names of a TrueType collection */
+        private Throwable collectionError;
+    }
 }
@@ -19,20 +19,28 @@
 
 package org.apache.fop.fonts.truetype;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.io.IOUtils;
 
+import org.apache.fop.apps.io.InternalResourceResolver;
+
 /**
  * Reads a TrueType font file into a byte array and
  * provides file like functions for array access.
+ * Local font files can optionally be backed by a read-only memory-mapped buffer which
+ * is shared by all readers of the same file (see {@link #getInstance(InternalResourceResolver, URI)}).
  */
 public class FontFileReader {
 
     private final int fsize; // file size
     private int current;    // current position in file
-    private final byte[] file;
+    private byte[] file;
+    private ByteBuffer sharedFile; // shared, read-only contents, null if file is set
 
     /**
      * Constructor
@@ -46,6 +54,82 @@ public class FontFileReader {
         this.current = 0;
     }
 
+    /**
+     * Creates a reader over the given buffer. The buffer content is never modified and may
+     * therefore be shared with other readers; a private copy is made when the font data
+     * needs to be changed or accessed as an array.
+     *
+     * @param buffer the font file contents, from its position to its limit
+     */
+    public FontFileReader(ByteBuffer buffer) {
+        this.sharedFile = buffer.slice();
+        this.fsize = this.sharedFile.remaining();
+        this.current = 0;
+    }
+
+    /**
+     * Creates a reader for a font file. The file is read through the resource resolver. If
+     * memory-mapping of font files has been enabled (see {@link SharedFontFiles}), local
+     * files are instead mapped and the mapping is shared with every other reader of the
+     * same, unmodified file, so the font data isn't copied onto the heap.
+     *
+     * @param resourceResolver the resource resolver
+     * @param uri the font file URI, resolved against the resolver's base URI
+     * @return the reader
+     * @throws IOException In case of an I/O problem
+     */
+    public static FontFileReader getInstance(InternalResourceResolver resourceResolver, URI uri)
+            throws IOException {
+        ByteBuffer mapped = SharedFontFiles.getInstance().getFile(resourceResolver.resolveFromBase(uri));
+        if (mapped != null) {
+            return new FontFileReader(mapped);
+        }
+        InputStream in = resourceResolver.getResource(uri);
+        if (in == null) {
+            throw new FileNotFoundException(uri.toString());
+        }
+        try {
+            return new FontFileReader(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Indicates whether this reader is backed by a buffer shared with other readers.
+     *
+     * @return true if no private copy of the font data has been made
+     */
+    public boolean isShared() {
+        return sharedFile != null;
+    }
+
+    /**
+     * Makes a private, modifiable copy of a shared font file.
+     */
+    private void ensurePrivateCopy() {
+        if (sharedFile != null) {
+            byte[] copy = new byte[fsize];
+            sharedFile.duplicate().get(copy);
+            file = copy;
+            sharedFile = null;
+        }
+    }
+
+    private byte byteAt(int index) {
+        return file != null ? file[index] : sharedFile.get(index);
+    }
+
+    private void copyBytes(int offset, byte[] dest, int length) {
+        if (file != null) {
+            System.arraycopy(file, offset, dest, 0, length);
+        } else {
+            ByteBuffer src = sharedFile.duplicate();
+            src.position(offset);
+            src.get(dest, 0, length);
+        }
+    }
+
 
     /**
      * Set current file position to offset
@@ -100,7 +184,7 @@ public class FontFileReader {
             throw new java.io.EOFException("Reached EOF, file size=" + fsize);
         }
 
-        final byte ret = file[current++];
+        final byte ret = byteAt(current++);
         return ret;
     }
 
@@ -164,6 +248,7 @@ public class FontFileReader {
         if ((pos + 2) > fsize) {
             throw new java.io.EOFException("Reached EOF");
         }
+        ensurePrivateCopy();
         final byte b1 = (byte)((val >> 8) & 0xff);
         final byte b2 = (byte)(val & 0xff);
         final int fileIndex = (int) pos;
@@ -239,7 +324,7 @@ public class FontFileReader {
      */
     public final String readTTFString() throws IOException {
         int i = current;
-        while (file[i++] != 0) {
+        while (byteAt(i++) != 0) {
             if (i >= fsize) {
                 throw new java.io.EOFException("Reached EOF, file size="
                                                + fsize);
@@ -247,7 +332,7 @@ public class FontFileReader {
         }
 
         byte[] tmp = new byte[i - current - 1];
-        System.arraycopy(file, current, tmp, 0, i - current - 1);
+        copyBytes(current, tmp, i - current - 1);
         return new String(tmp, "ISO-8859-1");
     }
 
@@ -265,7 +350,7 @@ public class FontFileReader {
         }
 
         byte[] tmp = new byte[len];
-        System.arraycopy(file, current, tmp, 0, len);
+        copyBytes(current, tmp, len);
         current += len;
         final String encoding;
         if ((tmp.length > 0) && (tmp[0] == 0)) {
@@ -290,7 +375,7 @@ public class FontFileReader {
         }
 
         byte[] tmp = new byte[len];
-        System.arraycopy(file, current, tmp, 0, len);
+        copyBytes(current, tmp, len);
         current += len;
         final String encoding;
         encoding = "UTF-16BE"; //Use this for all known encoding IDs for now
@@ -312,14 +397,16 @@ public class FontFileReader {
         }
 
         byte[] ret = new byte[length];
-        System.arraycopy(file, offset, ret, 0, length);
+        copyBytes(offset, ret, length);
         return ret;
     }
     /**
-     * Returns the full byte array representation of the file.
+     * Returns the full byte array representation of the file. For a shared file, this
+     * makes a private copy of the data first.
      * @return byte array.
      */
     public byte[] getAllBytes() {
+        ensurePrivateCopy();
         return file;
     }
 }
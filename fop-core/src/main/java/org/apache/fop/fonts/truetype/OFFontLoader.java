@@ -21,14 +21,11 @@ package org.apache.fop.fonts.truetype;
 
 import java.awt.Rectangle;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.util.Map;
 import java.util.Set;
 import java.util.List;
 
-import org.apache.commons.io.IOUtils;
-
 import org.apache.fop.apps.io.InternalResourceResolver;
 import org.apache.fop.fonts.CFFToType1Font;
 import org.apache.fop.fonts.CIDFontType;
@@ -151,24 +148,34 @@ public class OFFontLoader extends FontLoader {
 			}
 		} else {*/
 			//If a TTC font name is defined, use default behavior
-			InputStream in = resourceResolver.getResource(this.fontFileURI);
-			try {
-				FontFileReader reader = new FontFileReader(in);
-				String header = readHeader(reader);
-				boolean isCFF = header.equals("OTTO");
-				OpenFont otf = (isCFF) ? new OTFFile(useKerning, useAdvanced) : new TTFFile(useKerning, useAdvanced);
-				boolean supported = otf.readFont(reader, header, ttcFontName);
-				if (!supported) {
-					throw new IOException("The font does not have a Unicode cmap table: " + fontFileURI);
+			OpenFontCache cache = OpenFontCache.getInstance();
+			OpenFontCache.Key key = cache.createKey(resourceResolver.resolveFromBase(fontFileURI), ttcFontName,
+					useKerning, useAdvanced);
+			OpenFont otf = key != null ? cache.get(key) : null;
+			if (otf == null) {
+				otf = readFont(ttcFontName);
+				if (key != null) {
+					otf.releaseFontFile();
+					cache.put(key, otf);
 				}
-				buildFont(otf, ttcFontName);
-				loaded = true;
-			} finally {
-				IOUtils.closeQuietly(in);
 			}
+			buildFont(otf, ttcFontName);
+			loaded = true;
 		//}
     }
 
+    private OpenFont readFont(String ttcFontName) throws IOException {
+        FontFileReader reader = FontFileReader.getInstance(resourceResolver, this.fontFileURI);
+        String header = readHeader(reader);
+        boolean isCFF = header.equals("OTTO");
+        OpenFont otf = (isCFF) ? new OTFFile(useKerning, useAdvanced) : new TTFFile(useKerning, useAdvanced);
+        boolean supported = otf.readFont(reader, header, ttcFontName);
+        if (!supported) {
+            throw new IOException("The font does not have a Unicode cmap table: " + fontFileURI);
+        }
+        return otf;
+    }
+
     public static String readHeader(FontFileReader fontFile) throws IOException {
         if (fontFile != null) {
             fontFile.seekSet(0);
@@ -104,6 +104,12 @@ public class OTFFile extends OpenFont {
         embedFontName = fileFont.getName();
     }
 
+    @Override
+    void releaseFontFile() {
+        super.releaseFontFile();
+        fileFont = null;
+    }
+
     protected void readName() throws IOException {
         Object familyName = fileFont.getTopDict().get("FamilyName");
         if (familyName != null && !familyName.equals("")) {
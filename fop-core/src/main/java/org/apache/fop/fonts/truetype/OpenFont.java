@@ -886,6 +886,15 @@ public abstract class OpenFont {
 
     protected abstract void initializeFont(FontFileReader in) throws IOException;
 
+    /**
+     * Drops the font file once the font has been read, so that a font kept in the
+     * {@link OpenFontCache} doesn't retain the file contents. The font can't be streamed
+     * afterwards.
+     */
+    void releaseFontFile() {
+        fontFile = null;
+    }
+
     protected void handleCharacterSpacing(FontFileReader in) throws IOException {
         // Read advanced typographic tables.
         if (useAdvanced) {
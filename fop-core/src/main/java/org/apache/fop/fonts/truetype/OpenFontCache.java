@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.truetype;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Process-wide cache of parsed OpenType/TrueType fonts. Parsing the cmap, metrics and
+ * advanced typographic tables of a font is expensive, so the resulting {@link OpenFont}
+ * is kept and reused by every {@link OFFontLoader} (and therefore every
+ * {@link org.apache.fop.fonts.LazyFont}) loading the same font, across FopFactory instances
+ * and threads. Only local font files are cached; an entry is keyed by the file URI, its
+ * last-modified time and length, the sub-font name and the parsing options. A cached font
+ * doesn't keep the contents of its font file.
+ * <p>
+ * The cache is bounded by the total length of the cached font files, which stands in for
+ * the size of the parsed fonts, and evicts the least recently used font first.
+ * <p>
+ * Caching is disabled by default. Fonts found in the cache are not loaded through the
+ * configured resource resolver, so it is enabled by setting the
+ * "org.apache.fop.fonts.truetype.cache-parsed-fonts" system property to "true" or by
+ * calling {@link #setEnabled(boolean)}.
+ * <p>
+ * A cached font is treated as immutable: the loaders only read from it to build new
+ * {@link org.apache.fop.fonts.CustomFont} instances.
+ */
+public final class OpenFontCache {
+
+    /** The default maximum total length of the cached font files (64 MiB). */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final Log LOG = LogFactory.getLog(OpenFontCache.class);
+
+    private static final String CACHE_PARSED_FONTS = "org.apache.fop.fonts.truetype.cache-parsed-fonts";
+
+    private static final OpenFontCache INSTANCE = new OpenFontCache();
+
+    private boolean enabled;
+
+    private long maxSize = DEFAULT_MAX_SIZE;
+
+    private long size;
+
+    private final Map<Key, OpenFont> fonts = new LinkedHashMap<Key, OpenFont>(16, 0.75f, true);
+
+    private OpenFontCache() {
+        try {
+            enabled = Boolean.valueOf(System.getProperty(CACHE_PARSED_FONTS, "false"));
+        } catch (SecurityException e) {
+            LOG.info("Unable to access " + CACHE_PARSED_FONTS
+                    + " due to security restriction; defaulting to 'false'.");
+        }
+    }
+
+    /**
+     * Returns the process-wide font cache.
+     * @return the font cache
+     */
+    public static OpenFontCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Enables or disables the cache. Disabling it removes all cached fonts.
+     * @param enabled true to cache parsed fonts
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Indicates whether parsed fonts are cached.
+     * @return true if the cache is enabled
+     */
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the maximum total length of the cached font files.
+     * @param maxSize the maximum size in bytes
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Returns the maximum total length of the cached font files.
+     * @return the maximum size in bytes
+     */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the total length of the cached font files.
+     * @return the size in bytes
+     */
+    public synchronized long getTotalSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of cached fonts.
+     * @return the number of fonts
+     */
+    public synchronized int size() {
+        return fonts.size();
+    }
+
+    /**
+     * Removes all fonts from the cache.
+     */
+    public synchronized void clear() {
+        fonts.clear();
+        size = 0;
+    }
+
+    /**
+     * Creates the cache key of a font.
+     * @param uri the absolute font file URI
+     * @param subFontName the sub-font name of a TrueType Collection, may be null
+     * @param useKerning whether kerning information is read
+     * @param useAdvanced whether advanced typographic information is read
+     * @return the key, or null if caching is disabled or the font can't be cached
+     */
+    Key createKey(URI uri, String subFontName, boolean useKerning, boolean useAdvanced) {
+        if (!isEnabled()) {
+            return null;
+        }
+        File file = SharedFontFiles.toFile(uri);
+        if (file == null) {
+            return null;
+        }
+        long lastModified = file.lastModified();
+        if (lastModified == 0) {
+            return null;
+        }
+        return new Key(uri, lastModified, file.length(), subFontName, useKerning, useAdvanced);
+    }
+
+    synchronized OpenFont get(Key key) {
+        return fonts.get(key);
+    }
+
+    synchronized void put(Key key, OpenFont font) {
+        if (enabled && key.length <= maxSize) {
+            OpenFont previous = fonts.put(key, font);
+            if (previous == null) {
+                size += key.length;
+            }
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Key> keys = fonts.keySet().iterator();
+        while (size > maxSize && keys.hasNext()) {
+            size -= keys.next().length;
+            keys.remove();
+        }
+    }
+
+    static final class Key {
+
+        private final URI uri;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final String subFontName;
+
+        private final boolean useKerning;
+
+        private final boolean useAdvanced;
+
+        Key(URI uri, long lastModified, long length, String subFontName, boolean useKerning,
+                boolean useAdvanced) {
+            this.uri = uri;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.subFontName = subFontName;
+            this.useKerning = useKerning;
+            this.useAdvanced = useAdvanced;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return uri.equals(other.uri)
+                    && lastModified == other.lastModified
+                    && length == other.length
+                    && (subFontName == null ? other.subFontName == null : subFontName.equals(other.subFontName))
+                    && useKerning == other.useKerning
+                    && useAdvanced == other.useAdvanced;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = uri.hashCode();
+            hash = 31 * hash + (int) (lastModified ^ (lastModified >>> 32));
+            hash = 31 * hash + (int) (length ^ (length >>> 32));
+            hash = 31 * hash + (subFontName == null ? 0 : subFontName.hashCode());
+            hash = 31 * hash + (useKerning ? 1 : 0);
+            return 31 * hash + (useAdvanced ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.truetype;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Process-wide registry of memory-mapped font files. A file is mapped once and the
+ * read-only mapping is handed to every {@link FontFileReader} of the same file, across
+ * all FopFactory instances, until the file is modified. Mappings are only softly
+ * referenced so that unused fonts can be unmapped by the garbage collector.
+ * <p>
+ * Mapping is disabled by default. It reads local files directly rather than through the
+ * configured resource resolver, and is enabled by setting the
+ * "org.apache.fop.fonts.truetype.map-font-files" system property to "true".
+ */
+final class SharedFontFiles {
+
+    private static final Log LOG = LogFactory.getLog(SharedFontFiles.class);
+
+    private static final String MAP_FONT_FILES = "org.apache.fop.fonts.truetype.map-font-files";
+
+    private static final SharedFontFiles INSTANCE = new SharedFontFiles();
+
+    private final ConcurrentMap<URI, MappedFile> files = new ConcurrentHashMap<URI, MappedFile>();
+
+    private volatile boolean enabled;
+
+    private SharedFontFiles() {
+        try {
+            enabled = Boolean.valueOf(System.getProperty(MAP_FONT_FILES, "false"));
+        } catch (SecurityException e) {
+            LOG.info("Unable to access " + MAP_FONT_FILES
+                    + " due to security restriction; defaulting to 'false'.");
+        }
+    }
+
+    /**
+     * Returns the process-wide instance.
+     * @return the shared font files
+     */
+    static SharedFontFiles getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Indicates whether font files are memory-mapped.
+     * @return true if {@link #getFile(URI)} maps local files
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables memory-mapping of font files. Disabling it forgets the files
+     * mapped so far.
+     * @param enabled true to map local font files
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the read-only contents of a local font file.
+     * @param uri the absolute font file URI
+     * @return the mapped file, or null if mapping is disabled or the URI doesn't denote a
+     * local file that can be mapped
+     */
+    ByteBuffer getFile(URI uri) {
+        if (!enabled) {
+            return null;
+        }
+        File file = toFile(uri);
+        if (file == null) {
+            return null;
+        }
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (lastModified == 0 || length == 0 || length > Integer.MAX_VALUE) {
+            return null;
+        }
+        MappedFile mapped = files.get(uri);
+        ByteBuffer buffer = mapped != null ? mapped.getBuffer(lastModified, length) : null;
+        if (buffer == null) {
+            buffer = map(file, length);
+            if (buffer == null) {
+                files.remove(uri);
+                return null;
+            }
+            files.put(uri, new MappedFile(buffer, lastModified, length));
+        }
+        return buffer.duplicate();
+    }
+
+    /**
+     * Forgets all mapped files.
+     */
+    void clear() {
+        files.clear();
+    }
+
+    /**
+     * Returns the local file denoted by the given URI.
+     * @param uri the absolute URI
+     * @return the file, or null if the URI doesn't denote an existing local file
+     */
+    static File toFile(URI uri) {
+        if (uri == null || !"file".equalsIgnoreCase(uri.getScheme())) {
+            return null;
+        }
+        try {
+            File file = new File(uri);
+            return file.isFile() ? file : null;
+        } catch (IllegalArgumentException iae) {
+            //e.g. a UNC path with an authority component
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(File file, long length) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            //the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, length).asReadOnlyBuffer();
+        } catch (IOException ioe) {
+            LOG.debug("Could not map font file " + file + ", falling back to reading it", ioe);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+    }
+
+    private static final class MappedFile {
+
+        private final SoftReference<ByteBuffer> buffer;
+
+        private final long lastModified;
+
+        private final long length;
+
+        MappedFile(ByteBuffer buffer, long lastModified, long length) {
+            this.buffer = new SoftReference<ByteBuffer>(buffer);
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        ByteBuffer getBuffer(long lastModified, long length) {
+            if (this.lastModified != lastModified || this.length != length) {
+                return null;
+            }
+            return buffer.get();
+        }
+    }
+}
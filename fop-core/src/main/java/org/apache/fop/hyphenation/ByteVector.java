@@ -97,6 +97,17 @@ public class ByteVector implements Serializable {
         n = 0;
     }
 
+    /**
+     * Construct a byte vector whose items are all bytes of the given array.
+     * @param a byte array to use
+     * @return the byte vector
+     */
+    static ByteVector wrap(byte[] a) {
+        ByteVector vector = new ByteVector(a);
+        vector.n = a.length;
+        return vector;
+    }
+
     /**
      * Obtain byte vector array.
      * @return byte array
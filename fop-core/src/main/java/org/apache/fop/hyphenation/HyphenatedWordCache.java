@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.hyphenation;
+
+import org.apache.fop.util.LRUCache;
+
+/**
+ * <p>Bounded cache of {@link Hyphenation} results. Running the hyphenation patterns over a word
+ * is repeated for every occurrence of the word in a document, so results (including words
+ * without hyphenation points) are kept keyed by language, country, word and the remain/push
+ * character counts. Nothing is cached for languages without hyphenation patterns.</p>
+ *
+ * <p>The key doesn't include the configured hyphenation pattern files, so a cache must not be
+ * used with different pattern mappings. Each {@link org.apache.fop.apps.FopFactory} therefore
+ * has its own cache, shared by its user agents, which may use it from several threads.</p>
+ */
+public final class HyphenatedWordCache extends LRUCache<HyphenatedWordCache.Key, Object> {
+
+    /** The default maximum number of cached results. */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    /** Cached result for a word without hyphenation points. */
+    static final Object NO_HYPHENATION = new Object();
+
+    /**
+     * Creates a new cache with the default maximum number of results.
+     */
+    public HyphenatedWordCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new cache.
+     * @param maxEntries the maximum number of cached results
+     */
+    public HyphenatedWordCache(int maxEntries) {
+        super(maxEntries);
+    }
+
+    static final class Key {
+
+        private final String lang;
+
+        private final String country;
+
+        private final String word;
+
+        private final int leftMin;
+
+        private final int rightMin;
+
+        private final int hash;
+
+        Key(String lang, String country, String word, int leftMin, int rightMin) {
+            this.lang = lang;
+            this.country = country;
+            this.word = word;
+            this.leftMin = leftMin;
+            this.rightMin = rightMin;
+            int hash = word.hashCode();
+            hash = 31 * hash + (lang == null ? 0 : lang.hashCode());
+            hash = 31 * hash + (country == null ? 0 : country.hashCode());
+            hash = 31 * hash + leftMin;
+            this.hash = 31 * hash + rightMin;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && leftMin == other.leftMin
+                    && rightMin == other.rightMin
+                    && word.equals(other.word)
+                    && (lang == null ? other.lang == null : lang.equals(other.lang))
+                    && (country == null ? other.country == null : country.equals(other.country));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -19,19 +19,22 @@
 
 package org.apache.fop.hyphenation;
 
-import java.util.Hashtable;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * <p>This is a cache for HyphenationTree instances.</p>
+ * <p>This is a cache for HyphenationTree instances. It may be shared by concurrent renderings.</p>
  */
 public class HyphenationTreeCache {
 
     /** Contains the cached hyphenation trees */
-    private Hashtable hyphenTrees = new Hashtable();
+    private final Map<String, HyphenationTree> hyphenTrees
+            = new ConcurrentHashMap<String, HyphenationTree>();
     /** Used to avoid multiple error messages for the same language if a pattern file is missing. */
-    private Set missingHyphenationTrees;
+    private final Set<String> missingHyphenationTrees
+            = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     /**
      * Looks in the cache if a hyphenation tree is available and returns it if it is found.
@@ -43,13 +46,11 @@ public class HyphenationTreeCache {
         String key = constructLlccKey(lang, country);
 
         // first try to find it in the cache
-        if (hyphenTrees.containsKey(key)) {
-            return (HyphenationTree)hyphenTrees.get(key);
-        } else if (hyphenTrees.containsKey(lang)) {
-            return (HyphenationTree)hyphenTrees.get(lang);
-        } else {
-            return null;
+        HyphenationTree hTree = hyphenTrees.get(key);
+        if (hTree == null) {
+            hTree = hyphenTrees.get(lang);
         }
+        return hTree;
     }
 
     /**
@@ -101,9 +102,6 @@ public class HyphenationTreeCache {
      * @param key the key (ex. "de_CH" or "en")
      */
     public void noteMissing(String key) {
-        if (missingHyphenationTrees == null) {
-            missingHyphenationTrees = new java.util.HashSet();
-        }
         missingHyphenationTrees.add(key);
     }
 
@@ -115,7 +113,7 @@ public class HyphenationTreeCache {
      * @return true if the hyphenation tree is unavailable
      */
     public boolean isMissing(String key) {
-        return (missingHyphenationTrees != null && missingHyphenationTrees.contains(key));
+        return missingHyphenationTrees.contains(key);
     }
 
 }
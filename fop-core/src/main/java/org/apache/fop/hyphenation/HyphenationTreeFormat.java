@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.hyphenation;
+
+import java.io.BufferedInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * <p>Compact binary format for compiled hyphenation patterns (.hyp files).</p>
+ *
+ * <p>Unlike Java serialization, the format stores the node arrays of the ternary trees and the
+ * packed interletter values as raw big-endian arrays behind a versioned header, so a tree is
+ * restored with a handful of bulk copies. Layout:</p>
+ * <pre>
+ * header:   "FOPHYPTR" version:int
+ * tree:     classmap main-tree
+ *           (each: length:int root:char freenode:char nodes:int lo/hi/eq/sc:char[nodes]
+ *            kv-length:int kv:char[kv-length])
+ * vspace:   length:int values:byte[length]
+ * stoplist: count:int (word:string items:int (0 string | 1 pre:string no:string post:string)*)*
+ * string:   length:int (-1 for null) chars:char[length]
+ * </pre>
+ */
+public final class HyphenationTreeFormat {
+
+    /** Current version of the format. */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'F', 'O', 'P', 'H', 'Y', 'P', 'T', 'R'};
+
+    private static final byte STRING_ITEM = 0;
+    private static final byte HYPHEN_ITEM = 1;
+
+    private HyphenationTreeFormat() {
+    }
+
+    /**
+     * Indicates whether a stream starts with the header of this format. The stream must support
+     * mark/reset; its position is left unchanged.
+     * @param in the input stream
+     * @return true if the stream contains a tree in this format
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean isCompiledFormat(InputStream in) throws IOException {
+        in.mark(MAGIC.length);
+        try {
+            byte[] header = new byte[MAGIC.length];
+            int count = IOUtils.read(in, header);
+            return count == MAGIC.length && Arrays.equals(header, MAGIC);
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Writes a hyphenation tree.
+     * @param hTree the hyphenation tree
+     * @param out the output stream (not closed by this method)
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(HyphenationTree hTree, OutputStream out) throws IOException {
+        DataOutputStream dout = new DataOutputStream(out);
+        dout.write(MAGIC);
+        dout.writeInt(VERSION);
+        writeTree(hTree.classmap, dout);
+        writeTree(hTree, dout);
+        int valueCount = hTree.vspace.length();
+        dout.writeInt(valueCount);
+        dout.write(hTree.vspace.getArray(), 0, valueCount);
+        dout.writeInt(hTree.stoplist.size());
+        for (Iterator<?> it = hTree.stoplist.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) it.next();
+            writeString((String) entry.getKey(), dout);
+            List<?> items = (List<?>) entry.getValue();
+            dout.writeInt(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Object item = items.get(i);
+                if (item instanceof Hyphen) {
+                    Hyphen hyphen = (Hyphen) item;
+                    dout.writeByte(HYPHEN_ITEM);
+                    writeString(hyphen.preBreak, dout);
+                    writeString(hyphen.noBreak, dout);
+                    writeString(hyphen.postBreak, dout);
+                } else {
+                    dout.writeByte(STRING_ITEM);
+                    writeString((String) item, dout);
+                }
+            }
+        }
+        dout.flush();
+    }
+
+    private static void writeTree(TernaryTree tree, DataOutputStream dout) throws IOException {
+        dout.writeInt(tree.length);
+        dout.writeChar(tree.root);
+        dout.writeChar(tree.freenode);
+        dout.writeInt(tree.lo.length);
+        writeChars(tree.lo, tree.lo.length, dout);
+        writeChars(tree.hi, tree.lo.length, dout);
+        writeChars(tree.eq, tree.lo.length, dout);
+        writeChars(tree.sc, tree.lo.length, dout);
+        int kvLength = tree.kv.length();
+        dout.writeInt(kvLength);
+        writeChars(tree.kv.getArray(), kvLength, dout);
+    }
+
+    private static void writeChars(char[] chars, int length, DataOutputStream dout) throws IOException {
+        for (int i = 0; i < length; i++) {
+            dout.writeChar(chars[i]);
+        }
+    }
+
+    private static void writeString(String s, DataOutputStream dout) throws IOException {
+        if (s == null) {
+            dout.writeInt(-1);
+        } else {
+            dout.writeInt(s.length());
+            dout.writeChars(s);
+        }
+    }
+
+    /**
+     * Reads a hyphenation tree from a stream.
+     * @param in the input stream (not closed by this method)
+     * @return the hyphenation tree
+     * @throws IOException if the stream doesn't contain a valid tree
+     */
+    public static HyphenationTree read(InputStream in) throws IOException {
+        return read(ByteBuffer.wrap(IOUtils.toByteArray(in)));
+    }
+
+    /**
+     * Reads a hyphenation tree from a buffer, starting at its current position.
+     * @param buffer the buffer
+     * @return the hyphenation tree
+     * @throws IOException if the buffer doesn't contain a valid tree
+     */
+    public static HyphenationTree read(ByteBuffer buffer) throws IOException {
+        try {
+            byte[] header = new byte[MAGIC.length];
+            buffer.get(header);
+            if (!Arrays.equals(header, MAGIC)) {
+                throw new IOException("Not a compiled hyphenation pattern file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compiled hyphenation pattern version: " + version);
+            }
+            HyphenationTree hTree = new HyphenationTree();
+            readTree(hTree.classmap, buffer);
+            readTree(hTree, buffer);
+            byte[] values = new byte[readLength(buffer)];
+            buffer.get(values);
+            hTree.vspace = ByteVector.wrap(values);
+            int entryCount = readLength(buffer);
+            HashMap<String, ArrayList<Object>> stoplist
+                    = new HashMap<String, ArrayList<Object>>(Math.max(23, entryCount * 4 / 3 + 1));
+            for (int i = 0; i < entryCount; i++) {
+                String word = readString(buffer);
+                int itemCount = readLength(buffer);
+                ArrayList<Object> items = new ArrayList<Object>(itemCount);
+                for (int j = 0; j < itemCount; j++) {
+                    byte type = buffer.get();
+                    if (type == HYPHEN_ITEM) {
+                        items.add(new Hyphen(readString(buffer), readString(buffer), readString(buffer)));
+                    } else if (type == STRING_ITEM) {
+                        items.add(readString(buffer));
+                    } else {
+                        throw new IOException("Invalid exception item type: " + type);
+                    }
+                }
+                stoplist.put(word, items);
+            }
+            hTree.stoplist = stoplist;
+            return hTree;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated compiled hyphenation pattern file");
+        }
+    }
+
+    private static void readTree(TernaryTree tree, ByteBuffer buffer) throws IOException {
+        tree.length = buffer.getInt();
+        tree.root = buffer.getChar();
+        tree.freenode = buffer.getChar();
+        int nodeCount = readLength(buffer);
+        tree.lo = readChars(buffer, nodeCount);
+        tree.hi = readChars(buffer, nodeCount);
+        tree.eq = readChars(buffer, nodeCount);
+        tree.sc = readChars(buffer, nodeCount);
+        tree.kv = new CharVector(readChars(buffer, readLength(buffer)));
+    }
+
+    private static char[] readChars(ByteBuffer buffer, int length) {
+        char[] chars = new char[length];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + length * 2);
+        return chars;
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(buffer.position()) == -1) {
+            buffer.getInt();
+            return null;
+        }
+        return new String(readChars(buffer, readLength(buffer)));
+    }
+
+    private static int readLength(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid length in compiled hyphenation pattern file: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Returns a stream supporting mark/reset for the given stream.
+     * @param in the input stream
+     * @return the input stream itself or a buffered wrapper around it
+     */
+    static InputStream markable(InputStream in) {
+        return in.markSupported() ? in : new BufferedInputStream(in);
+    }
+}
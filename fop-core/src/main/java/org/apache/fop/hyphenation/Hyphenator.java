@@ -139,8 +139,14 @@ public final class Hyphenator {
     private static HyphenationTree readHyphenationTree(InputStream in) {
         HyphenationTree hTree = null;
         try {
-            ObjectInputStream ois = new ObjectInputStream(in);
-            hTree = (HyphenationTree)ois.readObject();
+            InputStream markable = HyphenationTreeFormat.markable(in);
+            if (HyphenationTreeFormat.isCompiledFormat(markable)) {
+                hTree = HyphenationTreeFormat.read(markable);
+            } else {
+                // pattern file written by older versions using Java serialization
+                ObjectInputStream ois = new ObjectInputStream(markable);
+                hTree = (HyphenationTree)ois.readObject();
+            }
         } catch (IOException ioe) {
             log.error("I/O error while loading precompiled hyphenation pattern file", ioe);
         } catch (ClassNotFoundException cnfe) {
@@ -248,11 +254,25 @@ public final class Hyphenator {
                                         Map hyphPatNames,
                                         String word,
                                         int leftMin, int rightMin, FOUserAgent foUserAgent) {
+        HyphenatedWordCache wordCache = foUserAgent.getHyphenatedWordCache();
+        HyphenatedWordCache.Key key = null;
+        if (wordCache != null) {
+            key = new HyphenatedWordCache.Key(lang, country, word, leftMin, rightMin);
+            Object cached = wordCache.get(key);
+            if (cached != null) {
+                return cached == HyphenatedWordCache.NO_HYPHENATION ? null : (Hyphenation) cached;
+            }
+        }
         HyphenationTree hTree = getHyphenationTree(lang, country, resourceResolver, hyphPatNames, foUserAgent);
-        if (hTree == null) {
-            return null;
+        Hyphenation hyph = null;
+        if (hTree != null) {
+            hyph = hTree.hyphenate(word, leftMin, rightMin);
+        }
+        if (wordCache != null && hTree != null) {
+            //words of languages without patterns are not cached, they would evict useful results
+            wordCache.put(key, hyph != null ? hyph : HyphenatedWordCache.NO_HYPHENATION);
         }
-        return hTree.hyphenate(word, leftMin, rightMin);
+        return hyph;
     }
 
 }
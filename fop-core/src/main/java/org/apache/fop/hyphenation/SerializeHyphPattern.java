@@ -22,7 +22,7 @@ package org.apache.fop.hyphenation;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 
 /**
  * <p>Serialize hyphenation patterns.</p>
@@ -73,13 +73,12 @@ public class SerializeHyphPattern {
         startProcess = rebuild(infile, outfile);
         if (startProcess) {
             HyphenationTree hTree = buildPatternFile(infile);
-            // serialize class
+            // write compiled patterns
             try {
                 // @SuppressFBWarnings("OS_OPEN_STREAM_EXCEPTION_PATH")
-                ObjectOutputStream out = new ObjectOutputStream(
-                        new java.io.BufferedOutputStream(
-                        new java.io.FileOutputStream(outfile)));
-                out.writeObject(hTree);
+                OutputStream out = new java.io.BufferedOutputStream(
+                        new java.io.FileOutputStream(outfile));
+                HyphenationTreeFormat.write(hTree, out);
                 out.close();
             } catch (IOException ioe) {
                 System.err.println("Can't write compiled pattern file: "
@@ -279,6 +279,30 @@ public abstract class AbstractBreaker {
         return null;
     }
 
+    /**
+     * Returns the listener to be notified about the runs of the page breaking algorithm,
+     * as configured on the user agent.
+     * @return the listener instance or null if no notifications are needed
+     */
+    protected BreakingAlgorithmListener getBreakingAlgorithmListener() {
+        LayoutManager topLevelLM = getTopLevelLM();
+        if (topLevelLM == null || topLevelLM.getFObj() == null) {
+            return null;
+        }
+        return topLevelLM.getFObj().getUserAgent().getBreakingAlgorithmListener();
+    }
+
+    /**
+     * Returns the number of pages the page breaking algorithm may look ahead before it
+     * commits to earlier breaks. This only bounds the number of active nodes: the element
+     * list is kept and the pages are only produced once it has been broken completely.
+     * @return the number of pages, 0 (the default) for total-fit over each element list
+     * @see PageBreakingAlgorithm#setPageWindow(int)
+     */
+    protected int getPageBreakingWindow() {
+        return 0;
+    }
+
     /**
      * Get a sequence of KnuthElements representing the content
      * of the node assigned to the LM
@@ -407,6 +431,8 @@ public abstract class AbstractBreaker {
                          isPartOverflowRecoveryActivated(), autoHeight, isSinglePartFavored());
 
                 alg.setConstantLineWidth(flowBPD);
+                alg.setListener(getBreakingAlgorithmListener());
+                alg.setPageWindow(getPageBreakingWindow());
                 int optimalPageCount = alg.findBreakingPoints(blockList, 1, true,
                         BreakingAlgorithm.ALL_BREAKS);
                 boolean ipdChangesOnNextPage = (alg.getIPDdifference() != 0);
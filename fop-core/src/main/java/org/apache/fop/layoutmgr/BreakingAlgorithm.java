@@ -159,6 +159,21 @@ public abstract class BreakingAlgorithm {
      */
     protected int activeNodeCount;
 
+    /** The highest number of simultaneously active nodes in the current run. */
+    private int maxActiveNodeCount;
+
+    /** The number of feasible breaks registered as active nodes in the current run. */
+    private int feasibleBreakCount;
+
+    /** The number of times the current run has been restarted from a forced node. */
+    private int restartCount;
+
+    /** Pool the nodes are taken from, {@code null} to allocate every node. */
+    private KnuthNodePool nodePool;
+
+    /** Listener notified at the end of each run, may be {@code null}. */
+    private BreakingAlgorithmListener listener;
+
     /**
      * The lowest available line in the set of active nodes.
      */
@@ -222,38 +237,40 @@ public abstract class BreakingAlgorithm {
 
 
     /**
-     * Class recording all the informations of a feasible breaking point.
+     * Class recording all the informations of a feasible breaking point. The values describing
+     * the breaking point are only written when the node is initialized, which happens again
+     * when the node is recycled by a {@link KnuthNodePool}.
      */
-    public class KnuthNode {
+    public static class KnuthNode {
         /** index of the breakpoint represented by this node */
-        public final int position;
+        public int position;
 
         /** number of the line ending at this breakpoint */
-        public final int line;
+        public int line;
 
         /** fitness class of the line ending at this breakpoint. One of 0, 1, 2, 3. */
-        public final int fitness;
+        public int fitness;
 
         /** accumulated width of the KnuthElements up to after this breakpoint. */
-        public final int totalWidth;
+        public int totalWidth;
 
         /** accumulated stretchability of the KnuthElements up to after this breakpoint. */
-        public final int totalStretch;
+        public int totalStretch;
 
         /** accumulated shrinkability of the KnuthElements up to after this breakpoint. */
-        public final int totalShrink;
+        public int totalShrink;
 
         /** adjustment ratio if the line ends at this breakpoint */
-        public final double adjustRatio;
+        public double adjustRatio;
 
         /** available stretch of the line ending at this breakpoint */
-        public final int availableShrink;
+        public int availableShrink;
 
         /** available shrink of the line ending at this breakpoint */
-        public final int availableStretch;
+        public int availableStretch;
 
         /** difference between target and actual line width */
-        public final int difference;
+        public int difference;
 
         /** minimum total demerits up to this breakpoint */
         public double totalDemerits;
@@ -289,6 +306,19 @@ public abstract class BreakingAlgorithm {
                 int totalWidth, int totalStretch, int totalShrink,
                 double adjustRatio, int availableShrink, int availableStretch,
                 int difference, double totalDemerits, KnuthNode previous) {
+            init(position, line, fitness, totalWidth, totalStretch, totalShrink,
+                    adjustRatio, availableShrink, availableStretch, difference, totalDemerits, previous);
+        }
+
+        /**
+         * (Re-)initializes all values of this node, used to recycle nodes from a
+         * {@link KnuthNodePool}.
+         * @see #KnuthNode(int, int, int, int, int, int, double, int, int, int, double, KnuthNode)
+         */
+        final void init(int position, int line, int fitness,
+                int totalWidth, int totalStretch, int totalShrink,
+                double adjustRatio, int availableShrink, int availableStretch,
+                int difference, double totalDemerits, KnuthNode previous) {
             this.position = position;
             this.line = line;
             this.fitness = fitness;
@@ -301,6 +331,8 @@ public abstract class BreakingAlgorithm {
             this.difference = difference;
             this.totalDemerits = totalDemerits;
             this.previous = previous;
+            this.next = null;
+            this.fitRecoveryCounter = 0;
         }
 
         /** {@inheritDoc} */
@@ -559,14 +591,14 @@ public abstract class BreakingAlgorithm {
 
             if (activeNodeCount == 0) {
                 if (handlingFloat()) {
-                    return handleFloat();
+                    return notifyListener(handleFloat());
                 }
                 if (getIPDdifference() != 0) {
-                    return handleIpdChange();
+                    return notifyListener(handleIpdChange());
                 }
                 if (!force) {
                     log.debug("Could not find a set of breaking points " + threshold);
-                    return 0;
+                    return notifyListener(0);
                 }
 
                 // lastDeactivated was a "good" break, while lastTooShort and lastTooLong
@@ -605,7 +637,47 @@ public abstract class BreakingAlgorithm {
         }
 
         activeLines = null;
-        return line;
+        return notifyListener(line);
+    }
+
+    private int notifyListener(int breakCount) {
+        if (listener != null) {
+            listener.breakingFinished(this, par, breakCount);
+        }
+        return breakCount;
+    }
+
+    /**
+     * Sets the pool the nodes of subsequent runs are taken from. The owner of the pool is
+     * responsible for releasing the nodes once the results of the runs have been consumed.
+     * @param nodePool the pool, or {@code null} to allocate a new node for each breakpoint
+     */
+    public void setNodePool(KnuthNodePool nodePool) {
+        this.nodePool = nodePool;
+    }
+
+    /**
+     * Sets the listener notified each time {@link #findBreakingPoints(KnuthSequence, int,
+     * double, boolean, int)} has finished.
+     * @param listener the listener, may be {@code null}
+     */
+    public void setListener(BreakingAlgorithmListener listener) {
+        this.listener = listener;
+    }
+
+    /** @return the highest number of simultaneously active nodes in the last run */
+    public int getMaxActiveNodeCount() {
+        return maxActiveNodeCount;
+    }
+
+    /** @return the number of feasible breaks found in the last run */
+    public int getFeasibleBreakCount() {
+        return feasibleBreakCount;
+    }
+
+    /** @return the number of times the last run has been restarted after an overflow */
+    public int getRestartCount() {
+        return restartCount;
     }
 
     /**
@@ -666,6 +738,9 @@ public abstract class BreakingAlgorithm {
         this.startLine = 0;
         this.endLine = 0;
         this.activeLines = new KnuthNode[20];
+        this.maxActiveNodeCount = 0;
+        this.feasibleBreakCount = 0;
+        this.restartCount = 0;
     }
 
     /**
@@ -692,6 +767,12 @@ public abstract class BreakingAlgorithm {
             int totalWidth, int totalStretch, int totalShrink,
             double adjustRatio, int availableShrink, int availableStretch,
             int difference, double totalDemerits, KnuthNode previous) {
+        if (nodePool != null) {
+            return nodePool.obtain(position, line, fitness,
+                                   totalWidth, totalStretch, totalShrink,
+                                   adjustRatio, availableShrink, availableStretch,
+                                   difference, totalDemerits, previous);
+        }
         return new KnuthNode(position, line, fitness,
                              totalWidth, totalStretch, totalShrink,
                              adjustRatio, availableShrink, availableStretch,
@@ -715,6 +796,13 @@ public abstract class BreakingAlgorithm {
      */
     protected KnuthNode createNode(int position, int line, int fitness,
                                    int totalWidth, int totalStretch, int totalShrink) {
+        if (nodePool != null) {
+            return nodePool.obtain(position, line, fitness,
+                                   totalWidth, totalStretch, totalShrink, best.getAdjust(fitness),
+                                   best.getAvailableShrink(fitness), best.getAvailableStretch(fitness),
+                                   best.getDifference(fitness), best.getDemerits(fitness),
+                                   best.getNode(fitness));
+        }
         return new KnuthNode(position, line, fitness,
                              totalWidth, totalStretch, totalShrink, best.getAdjust(fitness),
                              best.getAvailableShrink(fitness), best.getAvailableStretch(fitness),
@@ -890,6 +978,7 @@ public abstract class BreakingAlgorithm {
             log.debug("Restarting at node " + restartingNode);
         }
 
+        restartCount++;
         restartingNode.totalDemerits = 0;
         addNode(restartingNode.line, restartingNode);
         startLine = restartingNode.line;
@@ -1166,6 +1255,7 @@ public abstract class BreakingAlgorithm {
                 KnuthNode newNode = createNode(elementIdx, line + 1, i,
                                                newWidth, newStretch, newShrink);
                 addNode(line + 1, newNode);
+                feasibleBreakCount++;
             }
         }
         best.reset();
@@ -1356,6 +1446,9 @@ public abstract class BreakingAlgorithm {
         }
         activeLines[headIdx + 1] = node;
         activeNodeCount++;
+        if (activeNodeCount > maxActiveNodeCount) {
+            maxActiveNodeCount = activeNodeCount;
+        }
     }
 
     /**
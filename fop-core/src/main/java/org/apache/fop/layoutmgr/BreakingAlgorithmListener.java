@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr;
+
+/**
+ * Instrumentation hook notified each time a {@link BreakingAlgorithm} has broken a sequence
+ * into lines or pages. The statistics of the run can be read from the algorithm, e.g.
+ * {@link BreakingAlgorithm#getMaxActiveNodeCount()}, {@link BreakingAlgorithm#getFeasibleBreakCount()}
+ * and {@link BreakingAlgorithm#getRestartCount()}. Implementations are called from the layout
+ * thread(s) and should return quickly.
+ * @see org.apache.fop.apps.FOUserAgent#setBreakingAlgorithmListener(BreakingAlgorithmListener)
+ */
+public interface BreakingAlgorithmListener {
+
+    /**
+     * Called when {@link BreakingAlgorithm#findBreakingPoints(KnuthSequence, int, double,
+     * boolean, int)} has finished.
+     * @param algorithm the algorithm; a {@link PageBreakingAlgorithm} for page breaking
+     * @param sequence the sequence which has been broken
+     * @param breakCount the number of lines/parts found, 0 if no set of breaks was found
+     */
+    void breakingFinished(BreakingAlgorithm algorithm, KnuthSequence sequence, int breakCount);
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr;
+
+import org.apache.fop.layoutmgr.BreakingAlgorithm.KnuthNode;
+
+/**
+ * Arena of {@link KnuthNode}s that can be reused by several runs of a {@link BreakingAlgorithm}.
+ * Nodes obtained from the pool stay valid until {@link #releaseAll()} is called; the owner of the
+ * pool must only release the nodes once no algorithm or result refers to them any more, e.g.
+ * after the breaks of a paragraph have been turned into positions. The pool retains at most
+ * {@link #MAX_RETAINED_NODES} nodes between uses. It is not thread-safe.
+ * <p>
+ * Only line breaking uses pools. Page breaking creates its own node class, which also holds
+ * the footnote and float state of a page, and its nodes are still needed after a run, e.g. to
+ * restart layout on a change of IPD or to lay out the last page again.
+ */
+public final class KnuthNodePool {
+
+    /** The maximum number of nodes kept for reuse after {@link #releaseAll()}. */
+    public static final int MAX_RETAINED_NODES = 8192;
+
+    private KnuthNode[] nodes = new KnuthNode[64];
+
+    /** Number of nodes in {@link #nodes}. */
+    private int allocated;
+
+    /** Number of nodes in use; the nodes at indices below are handed out. */
+    private int used;
+
+    private long createdCount;
+
+    private long reusedCount;
+
+    /**
+     * Returns a node initialized with the given values, reusing a released node if possible.
+     * @param position index of the breakpoint
+     * @param line number of the line ending at the breakpoint
+     * @param fitness fitness class of the line ending at the breakpoint
+     * @param totalWidth accumulated width up to after the breakpoint
+     * @param totalStretch accumulated stretchability up to after the breakpoint
+     * @param totalShrink accumulated shrinkability up to after the breakpoint
+     * @param adjustRatio adjustment ratio if the line ends at the breakpoint
+     * @param availableShrink available shrink of the line ending at the breakpoint
+     * @param availableStretch available stretch of the line ending at the breakpoint
+     * @param difference difference between target and actual line width
+     * @param totalDemerits minimum total demerits up to the breakpoint
+     * @param previous node for the preceding breakpoint
+     * @return the node
+     */
+    KnuthNode obtain(int position, int line, int fitness,
+            int totalWidth, int totalStretch, int totalShrink,
+            double adjustRatio, int availableShrink, int availableStretch,
+            int difference, double totalDemerits, KnuthNode previous) {
+        KnuthNode node;
+        if (used < allocated) {
+            node = nodes[used];
+            node.init(position, line, fitness, totalWidth, totalStretch, totalShrink,
+                    adjustRatio, availableShrink, availableStretch, difference, totalDemerits, previous);
+            reusedCount++;
+        } else {
+            node = new KnuthNode(position, line, fitness, totalWidth, totalStretch, totalShrink,
+                    adjustRatio, availableShrink, availableStretch, difference, totalDemerits, previous);
+            if (allocated == nodes.length) {
+                KnuthNode[] newNodes = new KnuthNode[allocated * 2];
+                System.arraycopy(nodes, 0, newNodes, 0, allocated);
+                nodes = newNodes;
+            }
+            nodes[allocated++] = node;
+            createdCount++;
+        }
+        used++;
+        return node;
+    }
+
+    /**
+     * Makes all nodes obtained from this pool available for reuse. The nodes must not be
+     * used any more by the caller.
+     */
+    public void releaseAll() {
+        for (int i = 0; i < used; i++) {
+            // drop the links so released nodes don't keep each other reachable
+            nodes[i].previous = null;
+            nodes[i].next = null;
+        }
+        if (allocated > MAX_RETAINED_NODES) {
+            KnuthNode[] newNodes = new KnuthNode[MAX_RETAINED_NODES];
+            System.arraycopy(nodes, 0, newNodes, 0, MAX_RETAINED_NODES);
+            nodes = newNodes;
+            allocated = MAX_RETAINED_NODES;
+        }
+        used = 0;
+    }
+
+    /** @return the number of nodes currently handed out */
+    public int getUsedCount() {
+        return used;
+    }
+
+    /** @return the number of nodes created by this pool */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /** @return the number of times a released node has been reused */
+    public long getReusedCount() {
+        return reusedCount;
+    }
+}
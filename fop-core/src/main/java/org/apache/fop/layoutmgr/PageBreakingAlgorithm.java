@@ -111,6 +111,11 @@ class PageBreakingAlgorithm extends BreakingAlgorithm {
     private int previousFootnoteElementIndex = -2;
     private boolean relayingFootnotes;
 
+    /** Number of pages the algorithm may look ahead before committing to earlier breaks, 0 for total-fit. */
+    private int pageWindow;
+    /** In windowed mode, the page up to which all active nodes share the same breaks. */
+    private int committedLine;
+
     /**
      * Construct a page breaking algorithm.
      * @param topLevelLM the top level layout manager
@@ -244,6 +249,7 @@ class PageBreakingAlgorithm extends BreakingAlgorithm {
     @Override
     protected void initialize() {
         super.initialize();
+        committedLine = 0;
         insertedFootnotesLength = 0;
         footnoteListIndex = 0;
         footnoteElementIndex = -1;
@@ -450,6 +456,7 @@ class PageBreakingAlgorithm extends BreakingAlgorithm {
     protected int restartFrom(KnuthNode restartingNode, int currentIndex) {
 
         int returnValue = super.restartFrom(restartingNode, currentIndex);
+        committedLine = Math.min(committedLine, restartingNode.line);
         newFootnotes = false;
         if (footnotesPending) {
             // remove from footnotesList the note lists that will be met
@@ -509,6 +516,75 @@ class PageBreakingAlgorithm extends BreakingAlgorithm {
         }
         super.considerLegalBreak(element, elementIdx);
         newFootnotes = false;
+        if (pageWindow > 0 && activeNodeCount > 0) {
+            int line = getLastActiveLine() - pageWindow;
+            if (line > committedLine) {
+                commitBreaks(line);
+            }
+        }
+    }
+
+    /**
+     * Sets the number of pages the algorithm may look ahead. With a window of N pages, the
+     * breaks of page P are fixed as soon as an active node reaches page P + N: all active
+     * nodes that don't share the breaks of the best one up to page P are dropped. This
+     * bounds the number of active nodes, and thus the time spent per element, for very long
+     * flows, at the price of a result that is only optimal within the window. The element
+     * list of the flow is still kept until all its pages have been broken.
+     * @param pageWindow the number of pages, 0 (the default) for total-fit over the whole sequence
+     */
+    public void setPageWindow(int pageWindow) {
+        this.pageWindow = pageWindow;
+    }
+
+    /** @return the number of pages the algorithm may look ahead, 0 for total-fit */
+    public int getPageWindow() {
+        return pageWindow;
+    }
+
+    /**
+     * Commits to the breaks up to the given page of the active node with fewest demerits
+     * on the last page reached, by deactivating all nodes whose breaks differ up to that
+     * page. Only nodes on the same page are compared, as the demerits of nodes on earlier
+     * pages don't include the demerits of the pages still to come.
+     * @param line the page up to which the breaks are fixed
+     */
+    void commitBreaks(int line) {
+        KnuthNode bestNode = null;
+        for (KnuthNode node = getNode(getLastActiveLine()); node != null; node = node.next) {
+            if (bestNode == null || node.totalDemerits < bestNode.totalDemerits) {
+                bestNode = node;
+            }
+        }
+        KnuthNode committedNode = getAncestor(bestNode, line);
+        for (int i = startLine; i < endLine; i++) {
+            for (KnuthNode node = getNode(i); node != null; node = node.next) {
+                if (getAncestor(node, line) != committedNode) {
+                    removeNode(i, node);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Committed to the breaks up to page " + line + ", " + activeNodeCount
+                    + " active node(s) left");
+        }
+        committedLine = line;
+    }
+
+    /** @return the highest page number of the active nodes */
+    private int getLastActiveLine() {
+        int line = endLine - 1;
+        while (getNode(line) == null) {
+            line--;
+        }
+        return line;
+    }
+
+    private static KnuthNode getAncestor(KnuthNode node, int line) {
+        while (node.line > line) {
+            node = node.previous;
+        }
+        return node;
     }
 
     /** {@inheritDoc} */
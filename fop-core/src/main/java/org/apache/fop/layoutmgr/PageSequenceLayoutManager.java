@@ -63,6 +63,9 @@ public class PageSequenceLayoutManager extends AbstractPageSequenceLayoutManager
     private int startIntrusionAdjustment;
     private int endIntrusionAdjustment;
 
+    /** Pool of breaking nodes reused by the line breaking of this page-sequence. */
+    private KnuthNodePool nodePool;
+
     /**
      * Constructor
      *
@@ -145,6 +148,28 @@ public class PageSequenceLayoutManager extends AbstractPageSequenceLayoutManager
         }
 
         finishPage();
+        nodePool = null;
+    }
+
+    /**
+     * Takes the pool of breaking nodes reused by the line breaking of this page-sequence.
+     * The pool must be handed back with {@link #returnNodePool(KnuthNodePool)}; until then,
+     * nested line breaking gets a new pool.
+     * @return the pool
+     */
+    public KnuthNodePool takeNodePool() {
+        KnuthNodePool pool = nodePool;
+        nodePool = null;
+        return (pool != null ? pool : new KnuthNodePool());
+    }
+
+    /**
+     * Hands back a pool of breaking nodes taken with {@link #takeNodePool()}. All its nodes
+     * must have been released.
+     * @param pool the pool
+     */
+    public void returnNodePool(KnuthNodePool pool) {
+        nodePool = pool;
     }
 
     public void initialize() {
@@ -22,9 +22,11 @@ package org.apache.fop.layoutmgr.inline;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -60,6 +62,7 @@ import org.apache.fop.layoutmgr.KnuthBlockBox;
 import org.apache.fop.layoutmgr.KnuthBox;
 import org.apache.fop.layoutmgr.KnuthElement;
 import org.apache.fop.layoutmgr.KnuthGlue;
+import org.apache.fop.layoutmgr.KnuthNodePool;
 import org.apache.fop.layoutmgr.KnuthPenalty;
 import org.apache.fop.layoutmgr.KnuthPossPosIter;
 import org.apache.fop.layoutmgr.KnuthSequence;
@@ -68,6 +71,7 @@ import org.apache.fop.layoutmgr.LayoutManager;
 import org.apache.fop.layoutmgr.LeafPosition;
 import org.apache.fop.layoutmgr.ListElement;
 import org.apache.fop.layoutmgr.NonLeafPosition;
+import org.apache.fop.layoutmgr.PageSequenceLayoutManager;
 import org.apache.fop.layoutmgr.Position;
 import org.apache.fop.layoutmgr.PositionIterator;
 import org.apache.fop.layoutmgr.SpaceSpecifier;
@@ -100,6 +104,15 @@ public class LineLayoutManager extends InlineStackingLayoutManager
      */
     private static Log log = LogFactory.getLog(LineLayoutManager.class);
 
+    /** The number of line breaking results kept per LM, one per available width. */
+    private static final int MAX_CACHED_LINE_LAYOUTS = 3;
+
+    /**
+     * System property which disables the reuse of line breaks on layout restarts when set
+     * to "false".
+     */
+    static final String CACHE_LINE_LAYOUTS = "org.apache.fop.layoutmgr.inline.cache-line-layouts";
+
     private final Block fobj;
     private boolean isFirstInBlock;
 
@@ -171,6 +184,25 @@ public class LineLayoutManager extends InlineStackingLayoutManager
     private LineLayoutPossibilities lineLayouts;
     private LineLayoutPossibilities[] lineLayoutsList;
     private int ipd;
+
+    /** Whether line breaks are kept for reuse, see {@link #CACHE_LINE_LAYOUTS}. */
+    private final boolean cacheLineLayouts;
+
+    /**
+     * The line breaks of all paragraphs computed for the most recently used widths and
+     * alignments. When layout is restarted because the IPD changes, e.g. with alternating
+     * page masters, the line breaks for a width that has been seen before are reused instead
+     * of breaking the paragraphs again. Only valid as long as knuthParagraphs is unchanged.
+     */
+    private final Map<Long, LineLayoutPossibilities[]> lineLayoutsCache
+            = new LinkedHashMap<Long, LineLayoutPossibilities[]>(4, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LineLayoutPossibilities[]> eldest) {
+            return size() > MAX_CACHED_LINE_LAYOUTS;
+        }
+    };
     /**
      * When layout must be re-started due to a change of IPD, there is no need
      * to perform hyphenation on the remaining Knuth sequence once again.
@@ -578,6 +610,15 @@ public class LineLayoutManager extends InlineStackingLayoutManager
         lineHeight = lh;
         lead = l;
         follow = f;
+        cacheLineLayouts = isLineLayoutsCacheEnabled();
+    }
+
+    private static boolean isLineLayoutsCacheEnabled() {
+        try {
+            return Boolean.valueOf(System.getProperty(CACHE_LINE_LAYOUTS, "true"));
+        } catch (SecurityException e) {
+            return true;
+        }
     }
 
     /** {@inheritDoc} */
@@ -670,6 +711,8 @@ public class LineLayoutManager extends InlineStackingLayoutManager
             isFirstInBlock = false;
         }
         paragraph.subList(0, restartPositionIdx + 1).clear();
+        // the paragraphs change, so do their line breaks
+        lineLayoutsCache.clear();
         Iterator<KnuthElement> iter = paragraph.iterator();
         while (iter.hasNext() && !iter.next().isBox()) {
             iter.remove();
@@ -820,21 +863,47 @@ public class LineLayoutManager extends InlineStackingLayoutManager
      * @return a list of Knuth elements representing broken lines
      */
     private List<ListElement> createLineBreaks(int alignment, LayoutContext context) {
+        Long cacheKey = ((long) ipd << 32) | (alignment & 0xFFFFFFFFL);
+        LineLayoutPossibilities[] cachedLineLayouts = lineLayoutsCache.get(cacheKey);
+        if (cachedLineLayouts != null) {
+            // the paragraphs have already been broken for this width
+            for (LineLayoutPossibilities llPoss : cachedLineLayouts) {
+                llPoss.resetChosenIndex();
+            }
+            lineLayoutsList = cachedLineLayouts;
+            setFinished(true);
+            return postProcessLineBreaks(alignment, context);
+        }
+
         // find the optimal line breaking points for each paragraph
         Iterator<KnuthSequence> paragraphsIterator = knuthParagraphs.iterator();
         lineLayoutsList = new LineLayoutPossibilities[knuthParagraphs.size()];
         LineLayoutPossibilities llPoss;
-        for (int i = 0; paragraphsIterator.hasNext(); i++) {
-            KnuthSequence seq = paragraphsIterator.next();
-            if (!seq.isInlineSequence()) {
-                // This set of line layout possibilities does not matter;
-                // we only need an entry in lineLayoutsList.
-                llPoss = new LineLayoutPossibilities();
-            } else {
-                llPoss = findOptimalBreakingPoints(alignment, (Paragraph) seq,
-                                                   !paragraphsIterator.hasNext());
+        PageSequenceLayoutManager pslm = getPSLM();
+        KnuthNodePool nodePool = pslm.takeNodePool();
+        try {
+            for (int i = 0; paragraphsIterator.hasNext(); i++) {
+                KnuthSequence seq = paragraphsIterator.next();
+                if (!seq.isInlineSequence()) {
+                    // This set of line layout possibilities does not matter;
+                    // we only need an entry in lineLayoutsList.
+                    llPoss = new LineLayoutPossibilities();
+                } else {
+                    try {
+                        llPoss = findOptimalBreakingPoints(alignment, (Paragraph) seq,
+                                                           !paragraphsIterator.hasNext(), nodePool);
+                    } finally {
+                        // the breaks have been copied to LineBreakPositions, the nodes can be reused
+                        nodePool.releaseAll();
+                    }
+                }
+                lineLayoutsList[i] = llPoss;
             }
-            lineLayoutsList[i] = llPoss;
+        } finally {
+            pslm.returnNodePool(nodePool);
+        }
+        if (cacheLineLayouts) {
+            lineLayoutsCache.put(cacheKey, lineLayoutsList);
         }
 
         setFinished(true);
@@ -848,10 +917,11 @@ public class LineLayoutManager extends InlineStackingLayoutManager
      * @param alignment alignment of the paragraph
      * @param currPar the Paragraph for which the linebreaks are found
      * @param isLastPar flag indicating whether currPar is the last paragraph
+     * @param nodePool the pool the breaking nodes are taken from
      * @return the line layout possibilities for the paragraph
      */
     private LineLayoutPossibilities findOptimalBreakingPoints(int alignment, Paragraph currPar,
-                                                              boolean isLastPar) {
+                                                              boolean isLastPar, KnuthNodePool nodePool) {
         // use the member lineLayouts, which is read by LineBreakingAlgorithm.updateData1 and 2
         lineLayouts = new LineLayoutPossibilities();
         double maxAdjustment = 1;
@@ -864,6 +934,8 @@ public class LineLayoutManager extends InlineStackingLayoutManager
                                             ? 0 : hyphenationLadderCount.getValue(),
                                         this);
         alg.setConstantLineWidth(ipd);
+        alg.setNodePool(nodePool);
+        alg.setListener(fobj.getUserAgent().getBreakingAlgorithmListener());
         boolean canWrap = (wrapOption != EN_NO_WRAP);
         boolean canHyphenate = (canWrap && hyphenationProperties.hyphenate.getEnum() == EN_TRUE);
 
@@ -208,6 +208,14 @@ public class LineLayoutPossibilities {
         return getLineCount(maximumIndex);
     }
 
+    /**
+     * Chooses the optimum layout again, undoing line count adjustments. Used when the
+     * possibilities are reused for another layout of the paragraph.
+     */
+    void resetChosenIndex() {
+        chosenIndex = optimumIndex;
+    }
+
     /** @return the line count of the chosen index */
     public int getChosenLineCount() {
         return getLineCount(chosenIndex);
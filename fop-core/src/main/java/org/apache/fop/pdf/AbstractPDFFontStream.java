@@ -32,6 +32,12 @@ public abstract class AbstractPDFFontStream extends AbstractPDFStream {
         super();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isEncodableAhead() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     protected String getDefaultFilterName() {
         return PDFFilterList.FONT_FILTER;
@@ -20,8 +20,13 @@
 package org.apache.fop.pdf;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.io.output.CountingOutputStream;
 
@@ -41,6 +46,9 @@ public abstract class AbstractPDFStream extends PDFObject {
 
     private PDFNumber refLength = new PDFNumber();
 
+    /** The stream data being encoded ahead of serialization, if any */
+    private FutureTask<StreamCache> encodedAhead;
+
     protected AbstractPDFStream() {
         this(true);
     }
@@ -83,9 +91,9 @@ public abstract class AbstractPDFStream extends PDFObject {
      */
     protected void setupFilterList() {
         if (multipleFiltersAllowed() && !getFilterList().isInitialized()) {
-            getFilterList().addDefaultFilters(
-                getDocumentSafely().getFilterMap(),
-                getDefaultFilterName());
+            PDFDocument doc = getDocumentSafely();
+            getFilterList().addDefaultFilters(doc.getFilterMap(), getDefaultFilterName());
+            getFilterList().setCompressionParams(doc.getCompressionParams(getDefaultFilterName()));
         }
         prepareImplicitFilters();
         getDocument().applyEncryption(this);
@@ -176,6 +184,58 @@ public abstract class AbstractPDFStream extends PDFObject {
         return encodedStream;
     }
 
+    /**
+     * Indicates whether the data of this stream is complete before {@link #output(OutputStream)}
+     * is called, so that it can be encoded ahead of serialization on another thread. Subclasses
+     * that generate or change their data when they are output must return false.
+     * @return true if the stream can be encoded ahead of serialization
+     */
+    protected boolean isEncodableAhead() {
+        return false;
+    }
+
+    /**
+     * Starts encoding the stream data on the given executor. The filters are set up on the
+     * calling thread; {@link #output(OutputStream)} later waits for the encoded data.
+     * @param executor the executor to run the encoding task on
+     */
+    void encodeAhead(Executor executor) {
+        if (encodedAhead != null || !isEncodableAhead()) {
+            return;
+        }
+        setupFilterList();
+        encodedAhead = new FutureTask<StreamCache>(new Callable<StreamCache>() {
+            public StreamCache call() throws IOException {
+                return encodeStream();
+            }
+        });
+        executor.execute(encodedAhead);
+    }
+
+    private StreamCache takeEncodedAhead() throws IOException {
+        if (encodedAhead == null) {
+            return null;
+        }
+        try {
+            return encodedAhead.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding " + this);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            encodedAhead = null;
+        }
+    }
+
     /**
      * Encodes and writes a stream directly to an OutputStream. The length of
      * the stream, in this case, is set on a PDFNumber object that has to be
@@ -217,12 +277,14 @@ public abstract class AbstractPDFStream extends PDFObject {
      */
     @Override
     public int output(OutputStream stream) throws IOException {
-        setupFilterList();
+        StreamCache encodedStream = takeEncodedAhead();
+        if (encodedStream == null) {
+            setupFilterList();
+        }
 
         CountingOutputStream cout = new CountingOutputStream(stream);
         StringBuilder textBuffer = new StringBuilder(64);
 
-        StreamCache encodedStream = null;
         final Object lengthEntry;
         if (encodeOnTheFly) {
             if (!refLength.hasObjectNumber()) {
@@ -230,7 +292,9 @@ public abstract class AbstractPDFStream extends PDFObject {
             }
             lengthEntry = refLength;
         } else {
-            encodedStream = encodeStream();
+            if (encodedStream == null) {
+                encodedStream = encodeStream();
+            }
             lengthEntry = encodedStream.getSize();
         }
 
@@ -242,6 +306,10 @@ public abstract class AbstractPDFStream extends PDFObject {
         if (encodedStream == null) {
             encodeAndWriteStream(cout, refLength);
         } else {
+            if (encodeOnTheFly) {
+                //Encoded ahead: the length is known now and is written after this object
+                refLength.setNumber(encodedStream.getSize());
+            }
             outputStreamData(encodedStream, cout);
             encodedStream.clear(); //Encoded stream can now be discarded
         }
@@ -21,6 +21,8 @@ package org.apache.fop.pdf;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import org.apache.xmlgraphics.util.io.FlateEncodeOutputStream;
 
@@ -79,6 +81,7 @@ public class FlateFilter extends PDFFilter {
     private int colors;
     private int bitsPerComponent;
     private int columns;
+    private PDFCompressionParams compressionParams;
 
     /**
      * Get the name of this filter.
@@ -207,13 +210,49 @@ public class FlateFilter extends PDFFilter {
         return columns;
     }
 
+    /**
+     * Sets the deflate parameters used to compress the data.
+     *
+     * @param params the compression parameters, null for the default parameters
+     */
+    public void setCompressionParams(PDFCompressionParams params) {
+        this.compressionParams = params;
+    }
+
+    /**
+     * Returns the deflate parameters used to compress the data.
+     *
+     * @return the compression parameters, null if the default parameters are used
+     */
+    public PDFCompressionParams getCompressionParams() {
+        return compressionParams;
+    }
 
     /** {@inheritDoc} */
     public OutputStream applyFilter(OutputStream out) throws IOException {
         if (isApplied()) {
             return out;
-        } else {
+        } else if (compressionParams == null) {
             return new FlateEncodeOutputStream(out);
+        } else {
+            return new ParameterizedDeflaterOutputStream(out, compressionParams.createDeflater());
+        }
+    }
+
+    /** Deflates with a custom {@link Deflater} and releases it when the stream is closed. */
+    private static final class ParameterizedDeflaterOutputStream extends DeflaterOutputStream {
+
+        ParameterizedDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
         }
     }
 
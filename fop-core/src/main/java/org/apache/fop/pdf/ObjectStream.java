@@ -75,6 +75,11 @@ public class ObjectStream extends PDFStream {
         streamContent.writeTo(out);
     }
 
+    @Override
+    protected boolean isEncodableAhead() {
+        return false;
+    }
+
     @Override
     protected void populateStreamDict(Object lengthEntry) {
         put("Type", OBJ_STM);
@@ -422,6 +422,13 @@ public class PDFCMap extends PDFStream {
         return new CMapBuilder(writer, this.name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isEncodableAhead() {
+        //the CMap is only written to the stream in output()
+        return false;
+    }
+
     /** {@inheritDoc} */
     public int output(OutputStream stream) throws IOException {
         CMapBuilder builder = createCMapBuilder(getBufferWriter());
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.util.zip.Deflater;
+
+/**
+ * This class holds the deflate parameters used by the {@link FlateFilter} for one type of
+ * stream (see the stream types in {@link PDFFilterList}). A lower level trades file size for
+ * throughput, e.g. for images that are mostly incompressible anyway.
+ */
+public final class PDFCompressionParams {
+
+    /** Strategy name for {@link Deflater#DEFAULT_STRATEGY}. */
+    public static final String STRATEGY_DEFAULT = "default";
+
+    /** Strategy name for {@link Deflater#FILTERED}. */
+    public static final String STRATEGY_FILTERED = "filtered";
+
+    /** Strategy name for {@link Deflater#HUFFMAN_ONLY}. */
+    public static final String STRATEGY_HUFFMAN_ONLY = "huffman-only";
+
+    private final int level;
+
+    private final int strategy;
+
+    /**
+     * Creates a new set of compression parameters.
+     * @param level the compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+     * @param strategy the compression strategy (one of the {@link Deflater} strategy constants)
+     */
+    public PDFCompressionParams(int level, int strategy) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED
+                && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy: " + strategy);
+        }
+        this.level = level;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Parses the compression parameters from their configuration values.
+     * @param level the compression level, or null for the default level
+     * @param strategy the strategy name ("default", "filtered" or "huffman-only"),
+     *          or null for the default strategy
+     * @return the compression parameters
+     * @throws IllegalArgumentException if one of the values is invalid
+     */
+    public static PDFCompressionParams getValueOf(String level, String strategy) {
+        int lvl = Deflater.DEFAULT_COMPRESSION;
+        if (level != null) {
+            try {
+                lvl = Integer.parseInt(level.trim());
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid compression level: " + level);
+            }
+        }
+        return new PDFCompressionParams(lvl, parseStrategy(strategy));
+    }
+
+    private static int parseStrategy(String strategy) {
+        if (strategy == null || STRATEGY_DEFAULT.equalsIgnoreCase(strategy)) {
+            return Deflater.DEFAULT_STRATEGY;
+        } else if (STRATEGY_FILTERED.equalsIgnoreCase(strategy)) {
+            return Deflater.FILTERED;
+        } else if (STRATEGY_HUFFMAN_ONLY.equalsIgnoreCase(strategy)) {
+            return Deflater.HUFFMAN_ONLY;
+        }
+        throw new IllegalArgumentException("Invalid compression strategy: " + strategy);
+    }
+
+    /**
+     * Returns the compression level.
+     * @return the compression level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the compression strategy.
+     * @return the compression strategy
+     */
+    public int getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Creates a deflater configured with these parameters.
+     * @return a new deflater
+     */
+    Deflater createDeflater() {
+        Deflater deflater = new Deflater(level);
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PDFCompressionParams)) {
+            return false;
+        }
+        PDFCompressionParams other = (PDFCompressionParams) o;
+        return level == other.level && strategy == other.strategy;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * level + strategy;
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level + ", strategy=" + strategy;
+    }
+}
@@ -140,6 +140,8 @@ public class PDFDocument {
 
     private Map<String, List<String>> filterMap = new HashMap<String, List<String>>();
 
+    private Map<String, PDFCompressionParams> compressionParamsMap;
+
     private List<PDFGState> gstates = new ArrayList<PDFGState>();
 
     private List<PDFFunction> functions = new ArrayList<PDFFunction>();
@@ -180,6 +182,12 @@ public class PDFDocument {
 
     private boolean formXObjectEnabled;
 
+    private boolean streamingOutputEnabled;
+
+    private int compressionThreads;
+
+    private ParallelStreamEncoder streamEncoder;
+
     protected boolean outputStarted;
 
     /**
@@ -342,6 +350,30 @@ public class PDFDocument {
         return this.filterMap;
     }
 
+    /**
+     * Sets the deflate parameters to use for each stream type. Stream types without an entry
+     * use the parameters of the {@link PDFFilterList#DEFAULT_FILTER} type, if any.
+     *
+     * @param map the map of compression parameters for each stream type
+     */
+    public void setCompressionParamsMap(Map<String, PDFCompressionParams> map) {
+        this.compressionParamsMap = map;
+    }
+
+    /**
+     * Returns the deflate parameters to use for the given stream type.
+     *
+     * @param type the stream type (see {@link PDFFilterList})
+     * @return the compression parameters, null if the defaults are to be used
+     */
+    public PDFCompressionParams getCompressionParams(String type) {
+        if (compressionParamsMap == null) {
+            return null;
+        }
+        PDFCompressionParams params = compressionParamsMap.get(type);
+        return params != null ? params : compressionParamsMap.get(PDFFilterList.DEFAULT_FILTER);
+    }
+
     /**
      * Returns the {@link PDFPages} object associated with the root object.
      *
@@ -512,12 +544,14 @@ public class PDFDocument {
         }
         if (obj instanceof PDFPage) {
             this.pages.notifyKidRegistered((PDFPage)obj);
-            pageObjs.add((PDFPage) obj);
+            if (!isStreamingOutputEnabled()) {
+                pageObjs.add((PDFPage) obj);
+            }
         }
         if (obj instanceof PDFLaunch) {
             this.launches.add((PDFLaunch) obj);
         }
-        if (obj instanceof PDFLink) {
+        if (obj instanceof PDFLink && !isStreamingOutputEnabled()) {
             this.links.add((PDFLink) obj);
         }
         if (obj instanceof PDFFileSpec) {
@@ -1019,6 +1053,12 @@ public class PDFDocument {
      */
     public void output(OutputStream stream) throws IOException {
         outputStarted = true;
+        if (isEncodeAheadEnabled()) {
+            if (streamEncoder == null) {
+                streamEncoder = new ParallelStreamEncoder(compressionThreads);
+            }
+            streamEncoder.encodeAhead(this.objects);
+        }
         //Write out objects until the list is empty. This approach (used with a
         //LinkedList) allows for output() methods to create and register objects
         //on the fly even during serialization.
@@ -1127,7 +1167,11 @@ public class PDFDocument {
      */
     public void outputTrailer(OutputStream stream) throws IOException {
         createDestinations();
-        output(stream);
+        try {
+            output(stream);
+        } finally {
+            releaseStreamEncoder();
+        }
         outputTrailerObjectsAndXref(stream);
     }
 
@@ -1269,4 +1313,52 @@ public class PDFDocument {
     public void setFormXObjectEnabled(boolean b) {
         formXObjectEnabled = b;
     }
+
+    /**
+     * Indicates whether streaming output is enabled. In that mode, pages, their annotations
+     * and their content streams are not referenced by the document anymore once they have been
+     * written, so that memory usage doesn't grow with the number of pages. Only what is needed
+     * for the cross-reference table and the page tree is kept. Streaming output is not
+     * available when linearization is enabled, as linearization reorders the pages at the end.
+     * @return true if streaming output is enabled
+     */
+    public boolean isStreamingOutputEnabled() {
+        return streamingOutputEnabled && !linearizationEnabled;
+    }
+
+    /**
+     * Enables or disables streaming output.
+     * @param b true to release page objects once they have been written
+     * @see #isStreamingOutputEnabled()
+     */
+    public void setStreamingOutputEnabled(boolean b) {
+        streamingOutputEnabled = b;
+    }
+
+    /**
+     * Sets the number of threads used to compress stream data ahead of serialization. With
+     * 0 (the default), streams are compressed while they are written. The output is the same
+     * in both cases. Parallel compression is not used for encrypted or linearized documents:
+     * encryption derives a key from each object's number, which must be assigned in output order,
+     * and linearization writes the objects itself instead of going through {@link #output(OutputStream)}.
+     * @param threads the number of compression threads, 0 to disable parallel compression
+     */
+    public void setCompressionThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("The number of compression threads must not be negative");
+        }
+        releaseStreamEncoder();
+        compressionThreads = threads;
+    }
+
+    private boolean isEncodeAheadEnabled() {
+        return compressionThreads > 0 && !isEncryptionActive() && !isLinearizationEnabled();
+    }
+
+    private void releaseStreamEncoder() {
+        if (streamEncoder != null) {
+            streamEncoder.shutdown();
+            streamEncoder = null;
+        }
+    }
 }
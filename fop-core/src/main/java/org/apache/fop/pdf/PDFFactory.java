@@ -1381,16 +1381,21 @@ public class PDFFactory {
 
         CustomFont font = getCustomFont(desc);
 
+        //TrueType/OpenType and subset CFF fonts are read through a FontFileReader instead
+        boolean usesFontFileReader = desc.getFontType() == FontType.TYPE0
+                || (desc.getFontType() == FontType.TYPE1C && font.getEmbeddingMode() == EmbeddingMode.SUBSET);
         InputStream in = null;
         try {
-            in = font.getInputStream();
-            if (in == null) {
-                return null;
+            if (!usesFontFileReader) {
+                in = font.getInputStream();
+                if (in == null) {
+                    return null;
+                }
             }
             AbstractPDFStream embeddedFont = null;
             if (desc.getFontType() == FontType.TYPE0) {
                 MultiByteFont mbfont = (MultiByteFont) font;
-                FontFileReader reader = new FontFileReader(in);
+                FontFileReader reader = font.getFontFileReader();
                 byte[] fontBytes;
                 String header = OFFontLoader.readHeader(reader);
                 boolean isCFF = mbfont.isOTFFile();
@@ -1421,7 +1426,7 @@ public class PDFFactory {
                 }
             } else if (desc.getFontType() == FontType.TYPE1C) {
                 if (font.getEmbeddingMode() == EmbeddingMode.SUBSET) {
-                    FontFileReader reader = new FontFileReader(in);
+                    FontFileReader reader = font.getFontFileReader();
                     String header = OFFontLoader.readHeader(reader);
                     byte[] fontBytes = getFontSubsetBytes(reader, (MultiByteFont) font, header, fontPrefix, desc, true);
                     embeddedFont = getFontStream(font, fontBytes, true);
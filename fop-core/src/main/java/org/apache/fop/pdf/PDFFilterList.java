@@ -143,6 +143,18 @@ public class PDFFilterList {
         }
     }
 
+    /**
+     * Sets the deflate parameters on all flate filters in this list.
+     * @param params the compression parameters, null for the default parameters
+     */
+    public void setCompressionParams(PDFCompressionParams params) {
+        for (PDFFilter filter : filters) {
+            if (filter instanceof FlateFilter) {
+                ((FlateFilter) filter).setCompressionParams(params);
+            }
+        }
+    }
+
     /**
      * Checks the filter list for the filter and adds it in the correct
      * place if necessary.
@@ -174,6 +174,13 @@ public class PDFImageXObject extends PDFXObject {
         return pdfimage.getFilterHint();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isEncodableAhead() {
+        //PDF/VT needs the image data for the GTS_XID entry in output()
+        return !getDocument().getProfile().isPDFVTActive();
+    }
+
     /** {@inheritDoc} */
     protected boolean multipleFiltersAllowed() {
         return pdfimage.multipleFiltersAllowed();
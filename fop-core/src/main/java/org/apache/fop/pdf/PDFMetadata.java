@@ -83,6 +83,13 @@ public class PDFMetadata extends PDFStream {
         return this.xmpMetadata;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isEncodableAhead() {
+        //not compressed, nothing to gain
+        return false;
+    }
+
     /**
      * overload the base object method so we don't have to copy
      * byte arrays around so much
@@ -34,7 +34,7 @@ public class PDFPages extends PDFObject {
     /**
      * the /Page objects
      */
-    protected List kids = new ArrayList();
+    protected List<PDFReference> kids = new ArrayList<PDFReference>();
 
     /**
      * the number of /Page objects
@@ -79,12 +79,21 @@ public class PDFPages extends PDFObject {
                 throw new IllegalStateException("A page already exists at index "
                         + idx + " (zero-based).");
             }
-            this.kids.set(idx, page.makeReference());
+            this.kids.set(idx, makeKidReference(page));
         } else {
-            this.kids.add(page.makeReference());
+            this.kids.add(makeKidReference(page));
         }
     }
 
+    private PDFReference makeKidReference(PDFPage page) {
+        PDFDocument doc = getDocument();
+        if (doc != null && doc.isStreamingOutputEnabled()) {
+            // only keep the object number so the page can be released once written
+            return new PDFReference(page.referencePDF());
+        }
+        return page.makeReference();
+    }
+
     /**
      * get the count of /Page objects
      *
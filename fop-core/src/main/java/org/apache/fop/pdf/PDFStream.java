@@ -183,6 +183,12 @@ public class PDFStream extends AbstractPDFStream {
         data.outputContents(out);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isEncodableAhead() {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes (compresses, encrypts) the data of pending streams on a pool of worker threads
+ * while the document serializes the objects in front of them. The objects are still written
+ * in their original order and their numbers are assigned on the serializing thread, so the
+ * output is identical to the one produced without this encoder.
+ */
+final class ParallelStreamEncoder {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new encoder.
+     * @param threads the number of worker threads
+     */
+    ParallelStreamEncoder(int threads) {
+        final String prefix = "FOP PDF stream encoder " + POOL_COUNT.incrementAndGet() + "-";
+        executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts encoding all streams in the given list of objects that are about to be written.
+     * @param objects the objects pending output
+     */
+    void encodeAhead(List<PDFObject> objects) {
+        for (PDFObject object : objects) {
+            if (object instanceof AbstractPDFStream) {
+                ((AbstractPDFStream) object).encodeAhead(executor);
+            }
+        }
+    }
+
+    /**
+     * Releases the worker threads. Streams already submitted are still encoded.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+}
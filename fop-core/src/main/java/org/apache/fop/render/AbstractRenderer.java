@@ -232,6 +232,18 @@ public abstract class AbstractRenderer
         return false;
     }
 
+    /**
+     * Indicates whether this renderer may render pages on a thread of its own while layout
+     * continues. This is only safe if the renderer doesn't use the fonts it shares with
+     * layout: {@link FontInfo} and the fonts it hands out are not thread-safe, and layout
+     * keeps mapping characters and creating font instances while pages are rendered.
+     *
+     * @return true if the renderer doesn't use the fonts of the document when rendering
+     */
+    public boolean supportsAsyncRendering() {
+        return false;
+    }
+
     /** {@inheritDoc} */
     public void setDocumentLocale(Locale locale) {
     }
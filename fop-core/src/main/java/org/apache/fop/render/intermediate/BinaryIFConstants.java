@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate;
+
+/**
+ * Constants for the binary encoding of the intermediate format.
+ * <p>
+ * The binary encoding is a compact representation of the SAX event stream that
+ * {@link IFSerializer} produces. After a header made of {@link #MAGIC} and {@link #FORMAT_VERSION},
+ * every event starts with one of the <code>OP_*</code> codes. Integers are written as unsigned
+ * varints (seven bits per byte, least significant group first), signed values are zigzag encoded
+ * first. Names, namespace URIs and short attribute values are written once and referenced
+ * by their index in a string table afterwards. Attribute values that consist of integers only,
+ * like coordinates and dx arrays, are stored as numbers rather than text.
+ */
+interface BinaryIFConstants {
+
+    /** Signature at the start of every binary intermediate format document. */
+    String MAGIC = "FOPBIF";
+
+    /** Version of the binary encoding. */
+    int FORMAT_VERSION = 1;
+
+    /** end of document */
+    int OP_END_DOCUMENT = 0;
+    /** start of a prefix mapping: prefix, namespace URI */
+    int OP_START_PREFIX_MAPPING = 1;
+    /** end of a prefix mapping: prefix */
+    int OP_END_PREFIX_MAPPING = 2;
+    /** start of an element: namespace URI, local name, qualified name, attributes */
+    int OP_START_ELEMENT = 3;
+    /** end of the most recently started element */
+    int OP_END_ELEMENT = 4;
+    /** character data */
+    int OP_CHARACTERS = 5;
+    /** ignorable whitespace */
+    int OP_IGNORABLE_WHITESPACE = 6;
+    /** processing instruction: target, data */
+    int OP_PROCESSING_INSTRUCTION = 7;
+
+    /** attribute value held in the string table */
+    int VALUE_STRING = 0;
+    /** attribute value written out in full */
+    int VALUE_LITERAL = 1;
+    /** attribute value that is a single integer */
+    int VALUE_INT = 2;
+    /** attribute value that is a space-separated list of integers */
+    int VALUE_INT_ARRAY = 3;
+
+    /** string reference to null */
+    int REF_NULL = 0;
+    /** string reference that is followed by a string that is new to the string table */
+    int REF_NEW = 1;
+    /** offset to add to an index in the string table to get its reference */
+    int REF_OFFSET = 2;
+
+    /** Maximum number of entries in the string table. */
+    int MAX_STRINGS = 65536;
+
+    /** Maximum length of an attribute value for it to be added to the string table. */
+    int MAX_INTERNED_LENGTH = 64;
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import org.apache.commons.io.IOUtils;
+
+import org.apache.fop.apps.FOUserAgent;
+
+/**
+ * This is a parser for the binary encoding of the intermediate format (see
+ * {@link BinaryIFSerializer}). It turns the binary data back into the SAX events of the
+ * intermediate format XML and hands them to the {@link IFParser}, which converts them into
+ * {@link IFPainter} events. No XML has to be written or parsed along the way.
+ */
+public class BinaryIFParser implements BinaryIFConstants {
+
+    /**
+     * Parses a binary intermediate file and paints it.
+     * @param in the input stream to read the binary intermediate format from
+     * @param documentHandler the intermediate format document handler used to process the IF events
+     * @param userAgent the user agent
+     * @throws IOException if an I/O error occurs or the input is not in the binary intermediate format
+     * @throws IFException if an IF-related error occurs inside the target document handler
+     */
+    public void parse(InputStream in, IFDocumentHandler documentHandler, FOUserAgent userAgent)
+            throws IOException, IFException {
+        IFParser parser = new IFParser();
+        try {
+            parse(in, parser.getContentHandler(documentHandler, userAgent));
+        } catch (SAXException se) {
+            //Unpack original IFException if applicable
+            Exception cause = se.getException();
+            if (cause instanceof IFException) {
+                throw (IFException) cause;
+            }
+            throw new IFException("SAX error while parsing the binary intermediate format", se);
+        }
+    }
+
+    /**
+     * Parses a binary intermediate file and sends the SAX events of the equivalent intermediate
+     * format XML to the given handler. This can be used to convert the binary encoding back to XML.
+     * @param in the input stream to read the binary intermediate format from
+     * @param handler the handler to receive the SAX events
+     * @throws IOException if an I/O error occurs or the input is not in the binary intermediate format
+     * @throws SAXException if the handler throws a SAX exception
+     */
+    public void parse(InputStream in, ContentHandler handler) throws IOException, SAXException {
+        new Reader(in, handler).read();
+    }
+
+    /**
+     * Indicates whether the given file starts with the signature of the binary intermediate format.
+     * @param file the file to check
+     * @return true if the file is in the binary intermediate format
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static boolean isBinaryIF(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            for (int i = 0; i < MAGIC.length(); i++) {
+                if (in.read() != MAGIC.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private static final class Reader {
+
+        private final InputStream in;
+
+        private final ContentHandler handler;
+
+        private final byte[] buffer = new byte[8192];
+
+        private int pos;
+
+        private int limit;
+
+        private final List<String> strings = new ArrayList<String>();
+
+        private final AttributesImpl atts = new AttributesImpl();
+
+        private String[] elementNames = new String[3 * 32];
+
+        private int depth;
+
+        private char[] chars = new char[256];
+
+        private final StringBuilder sb = new StringBuilder();
+
+        Reader(InputStream in, ContentHandler handler) {
+            this.in = in;
+            this.handler = handler;
+        }
+
+        void read() throws IOException, SAXException {
+            for (int i = 0; i < MAGIC.length(); i++) {
+                if (readByte() != MAGIC.charAt(i)) {
+                    throw new IOException("Not a binary intermediate format document");
+                }
+            }
+            int version = readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported version of the binary intermediate format: "
+                        + version);
+            }
+            handler.startDocument();
+            while (true) {
+                int op = readByte();
+                switch (op) {
+                case OP_END_DOCUMENT:
+                    handler.endDocument();
+                    return;
+                case OP_START_PREFIX_MAPPING:
+                    String prefix = readStringRef();
+                    handler.startPrefixMapping(prefix, readStringRef());
+                    break;
+                case OP_END_PREFIX_MAPPING:
+                    handler.endPrefixMapping(readStringRef());
+                    break;
+                case OP_START_ELEMENT:
+                    startElement();
+                    break;
+                case OP_END_ELEMENT:
+                    depth--;
+                    handler.endElement(elementNames[depth * 3], elementNames[depth * 3 + 1],
+                            elementNames[depth * 3 + 2]);
+                    break;
+                case OP_CHARACTERS:
+                    handler.characters(chars, 0, readChars());
+                    break;
+                case OP_IGNORABLE_WHITESPACE:
+                    handler.ignorableWhitespace(chars, 0, readChars());
+                    break;
+                case OP_PROCESSING_INSTRUCTION:
+                    String target = readStringRef();
+                    handler.processingInstruction(target, readString());
+                    break;
+                default:
+                    throw new IOException("Invalid binary intermediate format: unknown event " + op);
+                }
+            }
+        }
+
+        private void startElement() throws IOException, SAXException {
+            String uri = readStringRef();
+            String localName = readStringRef();
+            String qName = readStringRef();
+            atts.clear();
+            for (int i = 0, n = readVarInt(); i < n; i++) {
+                String attUri = readStringRef();
+                String attLocalName = readStringRef();
+                String attQName = readStringRef();
+                String type = readStringRef();
+                atts.addAttribute(attUri, attLocalName, attQName, type, readValue());
+            }
+            if (depth * 3 == elementNames.length) {
+                String[] newNames = new String[elementNames.length * 2];
+                System.arraycopy(elementNames, 0, newNames, 0, elementNames.length);
+                elementNames = newNames;
+            }
+            elementNames[depth * 3] = uri;
+            elementNames[depth * 3 + 1] = localName;
+            elementNames[depth * 3 + 2] = qName;
+            depth++;
+            handler.startElement(uri, localName, qName, atts);
+        }
+
+        private String readValue() throws IOException {
+            int type = readByte();
+            switch (type) {
+            case VALUE_STRING:
+                return readStringRef();
+            case VALUE_LITERAL:
+                return readString();
+            case VALUE_INT:
+                return Integer.toString(unzigzag(readVarInt()));
+            case VALUE_INT_ARRAY:
+                sb.setLength(0);
+                for (int i = 0, n = readVarInt(); i < n; i++) {
+                    if (i > 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(unzigzag(readVarInt()));
+                }
+                return sb.toString();
+            default:
+                throw new IOException("Invalid binary intermediate format: unknown value type " + type);
+            }
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private String readStringRef() throws IOException {
+            int ref = readVarInt();
+            if (ref == REF_NULL) {
+                return null;
+            } else if (ref == REF_NEW) {
+                String s = readString();
+                if (strings.size() < MAX_STRINGS) {
+                    strings.add(s);
+                }
+                return s;
+            } else {
+                return strings.get(ref - REF_OFFSET);
+            }
+        }
+
+        private String readString() throws IOException {
+            int length = readChars();
+            return new String(chars, 0, length);
+        }
+
+        private int readChars() throws IOException {
+            int length = readVarInt();
+            if (length > chars.length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) readVarInt();
+            }
+            return length;
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private int readByte() throws IOException {
+            if (pos == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    throw new EOFException("Unexpected end of the binary intermediate format");
+                }
+            }
+            return buffer[pos++] & 0xFF;
+        }
+    }
+}
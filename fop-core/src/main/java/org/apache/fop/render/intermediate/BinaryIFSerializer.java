@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate;
+
+import java.io.OutputStream;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.stream.StreamResult;
+
+import org.xml.sax.ContentHandler;
+
+import org.apache.fop.apps.MimeConstants;
+
+/**
+ * IFPainter implementation that serializes the intermediate format in a compact binary encoding
+ * instead of XML. The binary encoding carries the same content as the XML produced by
+ * {@link IFSerializer} and is read back by {@link BinaryIFParser}. It is meant for setups that
+ * lay out a document once and render the result to several output formats later on.
+ */
+public class BinaryIFSerializer extends IFSerializer {
+
+    /** MIME type of the binary intermediate format. */
+    public static final String BINARY_MIME_TYPE = MimeConstants.MIME_FOP_IF_BINARY;
+
+    /**
+     * Creates a new binary serializer.
+     * @param context the intermediate format context
+     */
+    public BinaryIFSerializer(IFContext context) {
+        super(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMimeType() {
+        return BINARY_MIME_TYPE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected ContentHandler createContentHandler(Result result) throws IFException {
+        OutputStream out = null;
+        if (result instanceof StreamResult) {
+            out = ((StreamResult) result).getOutputStream();
+        }
+        if (out == null) {
+            throw new IFException("The binary intermediate format can only be written to a"
+                    + " StreamResult with an OutputStream");
+        }
+        return new BinaryIFWriter(out);
+    }
+}
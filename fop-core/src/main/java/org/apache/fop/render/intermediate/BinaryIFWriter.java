@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+
+/**
+ * SAX {@link ContentHandler} that writes the intermediate format in its binary encoding
+ * (see {@link BinaryIFConstants}). Any SAX source of intermediate format XML can be converted
+ * to the binary encoding by sending its events to this class. The output stream is flushed,
+ * but not closed, at the end of the document.
+ */
+public class BinaryIFWriter implements ContentHandler, BinaryIFConstants {
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[8192];
+
+    private int count;
+
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+    private int[] numbers = new int[16];
+
+    /**
+     * Creates a new writer.
+     * @param out the output stream to write the binary intermediate format to
+     */
+    public BinaryIFWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /** {@inheritDoc} */
+    public void setDocumentLocator(Locator locator) {
+    }
+
+    /** {@inheritDoc} */
+    public void startDocument() throws SAXException {
+        for (int i = 0; i < MAGIC.length(); i++) {
+            writeByte(MAGIC.charAt(i));
+        }
+        writeByte(FORMAT_VERSION);
+    }
+
+    /** {@inheritDoc} */
+    public void endDocument() throws SAXException {
+        writeByte(OP_END_DOCUMENT);
+        try {
+            flushBuffer();
+            out.flush();
+        } catch (IOException ioe) {
+            throw new SAXException(ioe);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        writeByte(OP_START_PREFIX_MAPPING);
+        writeStringRef(prefix);
+        writeStringRef(uri);
+    }
+
+    /** {@inheritDoc} */
+    public void endPrefixMapping(String prefix) throws SAXException {
+        writeByte(OP_END_PREFIX_MAPPING);
+        writeStringRef(prefix);
+    }
+
+    /** {@inheritDoc} */
+    public void startElement(String uri, String localName, String qName, Attributes atts)
+            throws SAXException {
+        writeByte(OP_START_ELEMENT);
+        writeStringRef(uri);
+        writeStringRef(localName);
+        writeStringRef(qName);
+        int length = atts.getLength();
+        writeVarInt(length);
+        for (int i = 0; i < length; i++) {
+            writeStringRef(atts.getURI(i));
+            writeStringRef(atts.getLocalName(i));
+            writeStringRef(atts.getQName(i));
+            writeStringRef(atts.getType(i));
+            writeValue(atts.getValue(i));
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        writeByte(OP_END_ELEMENT);
+    }
+
+    /** {@inheritDoc} */
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        writeByte(OP_CHARACTERS);
+        writeChars(ch, start, length);
+    }
+
+    /** {@inheritDoc} */
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        writeByte(OP_IGNORABLE_WHITESPACE);
+        writeChars(ch, start, length);
+    }
+
+    /** {@inheritDoc} */
+    public void processingInstruction(String target, String data) throws SAXException {
+        writeByte(OP_PROCESSING_INSTRUCTION);
+        writeStringRef(target);
+        writeString(data);
+    }
+
+    /** {@inheritDoc} */
+    public void skippedEntity(String name) throws SAXException {
+    }
+
+    private void writeValue(String value) throws SAXException {
+        int n = parseIntegers(value);
+        if (n == 1) {
+            writeByte(VALUE_INT);
+            writeVarInt(zigzag(numbers[0]));
+        } else if (n > 1) {
+            writeByte(VALUE_INT_ARRAY);
+            writeVarInt(n);
+            for (int i = 0; i < n; i++) {
+                writeVarInt(zigzag(numbers[i]));
+            }
+        } else if (value.length() <= MAX_INTERNED_LENGTH) {
+            writeByte(VALUE_STRING);
+            writeStringRef(value);
+        } else {
+            writeByte(VALUE_LITERAL);
+            writeString(value);
+        }
+    }
+
+    /**
+     * Parses a value made of integers separated by single spaces, written the way
+     * {@link Integer#toString(int)} does, so the value can be restored exactly.
+     * @return the number of integers stored in {@link #numbers}, or 0 if the value doesn't
+     * have the expected form
+     */
+    private int parseIntegers(String value) {
+        int length = value.length();
+        int n = 0;
+        int start = 0;
+        while (start < length) {
+            int end = value.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            long number = parseInteger(value, start, end);
+            if (number == Long.MIN_VALUE) {
+                return 0;
+            }
+            if (n == numbers.length) {
+                int[] newNumbers = new int[n * 2];
+                System.arraycopy(numbers, 0, newNumbers, 0, n);
+                numbers = newNumbers;
+            }
+            numbers[n++] = (int) number;
+            start = end + 1;
+            if (start == length) {
+                return 0; //trailing space
+            }
+        }
+        return n;
+    }
+
+    private static long parseInteger(String value, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && value.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+        int digits = end - i;
+        if (digits == 0 || digits > 10 || (value.charAt(i) == '0' && (digits > 1 || negative))) {
+            return Long.MIN_VALUE;
+        }
+        long number = 0;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            number = number * 10 + (c - '0');
+        }
+        number = negative ? -number : number;
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return number;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void writeStringRef(String s) throws SAXException {
+        if (s == null) {
+            writeVarInt(REF_NULL);
+            return;
+        }
+        Integer index = strings.get(s);
+        if (index != null) {
+            writeVarInt(index + REF_OFFSET);
+        } else {
+            writeVarInt(REF_NEW);
+            writeString(s);
+            if (strings.size() < MAX_STRINGS) {
+                strings.put(s, strings.size());
+            }
+        }
+    }
+
+    private void writeString(String s) throws SAXException {
+        int length = s.length();
+        writeVarInt(length);
+        for (int i = 0; i < length; i++) {
+            writeVarInt(s.charAt(i));
+        }
+    }
+
+    private void writeChars(char[] ch, int start, int length) throws SAXException {
+        writeVarInt(length);
+        for (int i = start, end = start + length; i < end; i++) {
+            writeVarInt(ch[i]);
+        }
+    }
+
+    private void writeVarInt(int value) throws SAXException {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int b) throws SAXException {
+        if (count == buffer.length) {
+            try {
+                flushBuffer();
+            } catch (IOException ioe) {
+                throw new SAXException(ioe);
+            }
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.xmlgraphics.util.QName;
 import org.apache.fop.accessibility.StructureTreeElement;
 import org.apache.fop.apps.FOUserAgent;
 import org.apache.fop.fo.Constants;
+import org.apache.fop.util.CompareUtil;
 
 /**
  * This class provides a context object that is valid for a single processing run to create
@@ -274,4 +275,38 @@ public class IFContext implements PageIndexContext {
             regionType = RegionType.Header;
         }
     }
+
+    /**
+     * Copies the state of another context to this one. The user agent is not copied.
+     * @param other the context to copy the state from
+     */
+    public void copyStateFrom(IFContext other) {
+        this.foreignAttributes = other.foreignAttributes;
+        this.language = other.language;
+        this.structureTreeElement = other.structureTreeElement;
+        this.id = other.id;
+        this.location = other.location;
+        this.hyphenated = other.hyphenated;
+        this.pageIndex = other.pageIndex;
+        this.pageNumber = other.pageNumber;
+        this.regionType = other.regionType;
+    }
+
+    /**
+     * Indicates whether another context has the same state as this one. The user agent is
+     * not compared.
+     * @param other the context to compare with
+     * @return true if both contexts have the same state
+     */
+    public boolean hasSameState(IFContext other) {
+        return CompareUtil.equal(foreignAttributes, other.foreignAttributes)
+                && CompareUtil.equal(language, other.language)
+                && structureTreeElement == other.structureTreeElement
+                && CompareUtil.equal(id, other.id)
+                && CompareUtil.equal(location, other.location)
+                && hyphenated == other.hyphenated
+                && pageIndex == other.pageIndex
+                && pageNumber == other.pageNumber
+                && regionType == other.regionType;
+    }
 }
@@ -112,6 +112,22 @@ public class GoToXYAction extends AbstractAction implements DocumentNavigationEx
         this.targetLocation = location;
     }
 
+    /**
+     * Creates a copy of this action which reports relative page indices against another
+     * context.
+     * @param ifContext the context the copy reports relative page indices against
+     * @return the copy
+     */
+    public GoToXYAction copy(PageIndexContext ifContext) {
+        GoToXYAction copy = new GoToXYAction(getID(), -1, null, ifContext);
+        copy.pageIndex = this.pageIndex;
+        if (this.targetLocation != null) {
+            copy.targetLocation = new Point(this.targetLocation);
+        }
+        copy.setStructureTreeElement(getStructureTreeElement());
+        return copy;
+    }
+
     private boolean isCompleteExceptTargetLocation() {
         return (getPageIndex() >= 0);
     }
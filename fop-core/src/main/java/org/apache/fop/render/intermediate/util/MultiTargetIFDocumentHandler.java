@@ -0,0 +1,812 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate.util;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Paint;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.transform.Result;
+
+import org.w3c.dom.Document;
+
+import org.apache.fop.accessibility.DummyStructureTreeEventHandler;
+import org.apache.fop.accessibility.StructureTreeEventHandler;
+import org.apache.fop.apps.FOPException;
+import org.apache.fop.fonts.FontInfo;
+import org.apache.fop.render.intermediate.IFContext;
+import org.apache.fop.render.intermediate.IFDocumentHandler;
+import org.apache.fop.render.intermediate.IFDocumentHandlerConfigurator;
+import org.apache.fop.render.intermediate.IFDocumentNavigationHandler;
+import org.apache.fop.render.intermediate.IFException;
+import org.apache.fop.render.intermediate.IFPainter;
+import org.apache.fop.render.intermediate.IFUtil;
+import org.apache.fop.render.intermediate.extensions.AbstractAction;
+import org.apache.fop.render.intermediate.extensions.Bookmark;
+import org.apache.fop.render.intermediate.extensions.BookmarkTree;
+import org.apache.fop.render.intermediate.extensions.GoToXYAction;
+import org.apache.fop.render.intermediate.extensions.Link;
+import org.apache.fop.render.intermediate.extensions.NamedDestination;
+import org.apache.fop.render.intermediate.extensions.URIAction;
+import org.apache.fop.traits.BorderProps;
+import org.apache.fop.traits.RuleStyle;
+import org.apache.fop.util.SerialTaskRunner;
+
+/**
+ * This class is an {@link IFDocumentHandler} that feeds the events it receives to several
+ * target document handlers, each of which runs on its own thread. This way a document is laid
+ * out once and rendered to several output formats concurrently.
+ * <p>
+ * The events are handed over in batches, and only a limited number of batches may be queued
+ * for each target, so the producer waits for a target that falls behind instead of piling up
+ * the whole document in memory. The targets have to be given their results before the document
+ * is started. Layout uses the font setup of the first target, while each target sets up its own
+ * fonts so that no font objects are shared between threads. The targets should therefore be
+ * configured with the same fonts. Accessibility is not supported.
+ * <p>
+ * The painting methods of a target run after the corresponding calls on this class have
+ * returned. A failure in one of the targets is reported by a later call, at the latest by
+ * {@link #endDocument()}.
+ */
+public class MultiTargetIFDocumentHandler implements IFDocumentHandler {
+
+    /** Default number of event batches that may be queued for each target. */
+    public static final int DEFAULT_QUEUE_SIZE = 16;
+
+    private static final int BATCH_SIZE = 512;
+
+    private final Target[] targets;
+
+    private final int queueSize;
+
+    private final IFContext context;
+
+    private final IFPainter painter = new Painter();
+
+    private final IFDocumentNavigationHandler navigationHandler;
+
+    private FontInfo fontInfo;
+
+    private SerialTaskRunner[] runners;
+
+    private List<Event> batch = new ArrayList<Event>(BATCH_SIZE);
+
+    private IFContext lastContext;
+
+    private IFException failure;
+
+    private int pageIndex = -1;
+
+    /**
+     * Creates a new instance with the default queue size.
+     * @param targets the target document handlers, with their results already set
+     */
+    public MultiTargetIFDocumentHandler(List<IFDocumentHandler> targets) {
+        this(targets, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param targets the target document handlers, with their results already set
+     * @param queueSize the maximum number of event batches that may be queued for each target
+     */
+    public MultiTargetIFDocumentHandler(List<IFDocumentHandler> targets, int queueSize) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one target document handler is required");
+        }
+        this.targets = new Target[targets.size()];
+        boolean navigation = false;
+        for (int i = 0; i < this.targets.length; i++) {
+            this.targets[i] = new Target(targets.get(i), i);
+            navigation |= (targets.get(i).getDocumentNavigationHandler() != null);
+        }
+        this.queueSize = queueSize;
+        this.context = new IFContext(targets.get(0).getContext().getUserAgent());
+        this.navigationHandler = (navigation ? new NavigationHandler() : null);
+    }
+
+    /** {@inheritDoc} */
+    public boolean supportsPagesOutOfOrder() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    public String getMimeType() {
+        return targets[0].handler.getMimeType();
+    }
+
+    /** {@inheritDoc} */
+    public IFContext getContext() {
+        return this.context;
+    }
+
+    /** {@inheritDoc} */
+    public FontInfo getFontInfo() {
+        return this.fontInfo;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The font info is used for layout only. The targets set up their own fonts when the
+     * document is started.
+     */
+    public void setFontInfo(FontInfo fontInfo) {
+        this.fontInfo = fontInfo;
+    }
+
+    /** {@inheritDoc} */
+    public void setDefaultFontInfo(FontInfo fontInfo) {
+        targets[0].handler.setDefaultFontInfo(fontInfo);
+        this.fontInfo = fontInfo;
+    }
+
+    /** {@inheritDoc} */
+    public IFDocumentHandlerConfigurator getConfigurator() {
+        return targets[0].handler.getConfigurator();
+    }
+
+    /** {@inheritDoc} */
+    public IFDocumentNavigationHandler getDocumentNavigationHandler() {
+        return this.navigationHandler;
+    }
+
+    /** {@inheritDoc} */
+    public StructureTreeEventHandler getStructureTreeEventHandler() {
+        return DummyStructureTreeEventHandler.INSTANCE;
+    }
+
+    /** {@inheritDoc} */
+    public void setResult(Result result) throws IFException {
+        throw new IFException("The results must be set on the target document handlers");
+    }
+
+    /** {@inheritDoc} */
+    public void startDocument() throws IFException {
+        if (context.getUserAgent().isAccessibilityEnabled()) {
+            throw new IFException("Accessibility is not supported when rendering to several targets");
+        }
+        try {
+            for (Target target : targets) {
+                IFUtil.setupFonts(target.handler);
+            }
+        } catch (FOPException fe) {
+            throw new IFException("Error while setting up the fonts of a target", fe);
+        }
+        runners = new SerialTaskRunner[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            runners[i] = new SerialTaskRunner("FOP rendering (" + targets[i].handler.getMimeType() + ")",
+                    queueSize);
+        }
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startDocument();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void setDocumentLocale(final Locale locale) {
+        syncContext();
+        batch.add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.setDocumentLocale(locale);
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startDocumentHeader() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startDocumentHeader();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endDocumentHeader() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endDocumentHeader();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startPageSequence(final String id) throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startPageSequence(id);
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startPage(final int index, final String name, final String pageMasterName,
+            Dimension size) throws IFException {
+        this.pageIndex = index;
+        final Dimension pageSize = new Dimension(size);
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startPage(index, name, pageMasterName, pageSize);
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startPageHeader() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startPageHeader();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endPageHeader() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endPageHeader();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public IFPainter startPageContent() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.painter = target.handler.startPageContent();
+            }
+        });
+        return this.painter;
+    }
+
+    /** {@inheritDoc} */
+    public void endPageContent() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.painter = null;
+                target.handler.endPageContent();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startPageTrailer() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startPageTrailer();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endPageTrailer() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endPageTrailer();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endPage() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endPage();
+            }
+        });
+        //hand the finished page over to the targets
+        flush();
+    }
+
+    /** {@inheritDoc} */
+    public void endPageSequence() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endPageSequence();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void startDocumentTrailer() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.startDocumentTrailer();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endDocumentTrailer() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endDocumentTrailer();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    public void endDocument() throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.endDocument();
+            }
+        });
+        flush();
+        finish();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void handleExtensionObject(final Object extension) throws IFException {
+        add(new Event() {
+            public void dispatch(Target target) throws IFException {
+                target.handler.handleExtensionObject(extension);
+            }
+        });
+    }
+
+    private void add(Event event) throws IFException {
+        syncContext();
+        batch.add(event);
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Queues an event that gives the targets' contexts the state of this handler's context,
+     * if that state has changed since it was last handed over.
+     */
+    private void syncContext() {
+        if (lastContext == null || !lastContext.hasSameState(context)) {
+            final IFContext snapshot = new IFContext(context.getUserAgent());
+            snapshot.copyStateFrom(context);
+            lastContext = snapshot;
+            batch.add(new Event() {
+                public void dispatch(Target target) {
+                    target.handler.getContext().copyStateFrom(snapshot);
+                }
+            });
+        }
+    }
+
+    private void flush() throws IFException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<Event> events = batch;
+        batch = new ArrayList<Event>(BATCH_SIZE);
+        for (int i = 0; i < targets.length; i++) {
+            final Target target = targets[i];
+            try {
+                runners[i].submit(new Runnable() {
+                    public void run() {
+                        try {
+                            for (Event event : events) {
+                                event.dispatch(target);
+                            }
+                        } catch (IFException ife) {
+                            throw new RuntimeException(ife);
+                        }
+                    }
+                });
+            } catch (RuntimeException re) {
+                runners[i] = null;
+                fail(target, re);
+                finish();
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Waits for all targets to process the events handed over to them and stops their threads.
+     */
+    private void finish() {
+        for (int i = 0; i < runners.length; i++) {
+            if (runners[i] != null) {
+                try {
+                    runners[i].finish();
+                } catch (RuntimeException re) {
+                    fail(targets[i], re);
+                }
+                runners[i] = null;
+            }
+        }
+    }
+
+    private void fail(Target target, RuntimeException re) {
+        if (failure == null) {
+            if (re.getCause() instanceof IFException) {
+                failure = (IFException) re.getCause();
+            } else {
+                failure = new IFException("Error while rendering to "
+                        + target.handler.getMimeType(), re);
+            }
+        }
+    }
+
+    /** A target document handler and the state that is confined to its thread. */
+    private static final class Target {
+
+        private final IFDocumentHandler handler;
+
+        private final int index;
+
+        private IFPainter painter;
+
+        Target(IFDocumentHandler handler, int index) {
+            this.handler = handler;
+            this.index = index;
+        }
+    }
+
+    /** An event that is replayed on every target. */
+    private interface Event {
+
+        void dispatch(Target target) throws IFException;
+    }
+
+    private static Rectangle copy(Rectangle rect) {
+        return (rect != null ? new Rectangle(rect) : null);
+    }
+
+    private static AffineTransform copy(AffineTransform transform) {
+        return (transform != null ? new AffineTransform(transform) : null);
+    }
+
+    private static AffineTransform[] copy(AffineTransform[] transforms) {
+        if (transforms == null) {
+            return null;
+        }
+        AffineTransform[] copies = new AffineTransform[transforms.length];
+        for (int i = 0; i < transforms.length; i++) {
+            copies[i] = copy(transforms[i]);
+        }
+        return copies;
+    }
+
+    private static int[][] copy(int[][] dp) {
+        if (dp == null) {
+            return null;
+        }
+        int[][] copies = new int[dp.length][];
+        for (int i = 0; i < dp.length; i++) {
+            copies[i] = (dp[i] != null ? dp[i].clone() : null);
+        }
+        return copies;
+    }
+
+    private class Painter implements IFPainter {
+
+        /** {@inheritDoc} */
+        public void startViewport(AffineTransform transform, final Dimension size, Rectangle clipRect)
+                throws IFException {
+            final AffineTransform t = copy(transform);
+            final Dimension s = new Dimension(size);
+            final Rectangle clip = copy(clipRect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.startViewport(t, s, clip);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void startViewport(AffineTransform[] transforms, Dimension size, Rectangle clipRect)
+                throws IFException {
+            final AffineTransform[] t = copy(transforms);
+            final Dimension s = new Dimension(size);
+            final Rectangle clip = copy(clipRect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.startViewport(t, s, clip);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void endViewport() throws IFException {
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.endViewport();
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void startGroup(AffineTransform[] transforms, final String layer) throws IFException {
+            final AffineTransform[] t = copy(transforms);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.startGroup(t, layer);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void startGroup(AffineTransform transform, final String layer) throws IFException {
+            final AffineTransform t = copy(transform);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.startGroup(t, layer);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void endGroup() throws IFException {
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.endGroup();
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void setFont(final String family, final String style, final Integer weight,
+                final String variant, final Integer size, final Color color) throws IFException {
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.setFont(family, style, weight, variant, size, color);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void drawText(final int x, final int y, final int letterSpacing, final int wordSpacing,
+                int[][] dp, final String text) throws IFException {
+            final int[][] adjustments = copy(dp);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawText(x, y, letterSpacing, wordSpacing, adjustments, text);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void drawText(final int x, final int y, final int letterSpacing, final int wordSpacing,
+                int[][] dp, final String text, final boolean nextIsSpace) throws IFException {
+            final int[][] adjustments = copy(dp);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawText(x, y, letterSpacing, wordSpacing, adjustments, text,
+                            nextIsSpace);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void clipRect(Rectangle rect) throws IFException {
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.clipRect(r);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void clipBackground(Rectangle rect, final BorderProps bpsBefore, final BorderProps bpsAfter,
+                final BorderProps bpsStart, final BorderProps bpsEnd) throws IFException {
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.clipBackground(r, bpsBefore, bpsAfter, bpsStart, bpsEnd);
+                }
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>The targets can't be asked on the producer's thread, so the background is always
+         * painted.
+         */
+        public boolean isBackgroundRequired(BorderProps bpsBefore, BorderProps bpsAfter,
+                BorderProps bpsStart, BorderProps bpsEnd) {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        public void fillRect(Rectangle rect, final Paint fill) throws IFException {
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.fillRect(r, fill);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void drawBorderRect(Rectangle rect, final BorderProps top, final BorderProps bottom,
+                final BorderProps left, final BorderProps right, final Color innerBackgroundColor)
+                throws IFException {
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawBorderRect(r, top, bottom, left, right, innerBackgroundColor);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void drawLine(Point start, Point end, final int width, final Color color,
+                final RuleStyle style) throws IFException {
+            final Point p1 = new Point(start);
+            final Point p2 = new Point(end);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawLine(p1, p2, width, color, style);
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void drawImage(final String uri, Rectangle rect) throws IFException {
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawImage(uri, r);
+                }
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>A DOM is not thread-safe, so every target but the first one gets a copy of the
+         * document.
+         */
+        public void drawImage(Document doc, Rectangle rect) throws IFException {
+            final Document[] docs = new Document[targets.length];
+            docs[0] = doc;
+            for (int i = 1; i < docs.length; i++) {
+                docs[i] = (Document) doc.cloneNode(true);
+            }
+            final Rectangle r = copy(rect);
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    target.painter.drawImage(docs[target.index], r);
+                }
+            });
+        }
+    }
+
+    /**
+     * Hands the navigation objects over to the targets. The renderer completes the actions
+     * after they have been handed over, while the targets may still be reading them, so every
+     * target gets its own copy of them.
+     */
+    private class NavigationHandler implements IFDocumentNavigationHandler {
+
+        /** {@inheritDoc} */
+        public void renderNamedDestination(NamedDestination destination) throws IFException {
+            final NamedDestination[] destinations = new NamedDestination[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                destinations[i] = new NamedDestination(destination.getName(),
+                        copy(destination.getAction(), targets[i]));
+            }
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    IFDocumentNavigationHandler handler = target.handler.getDocumentNavigationHandler();
+                    if (handler != null) {
+                        handler.renderNamedDestination(destinations[target.index]);
+                    }
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void renderBookmarkTree(BookmarkTree tree) throws IFException {
+            final BookmarkTree[] trees = new BookmarkTree[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                trees[i] = new BookmarkTree();
+                for (Object bookmark : tree.getBookmarks()) {
+                    trees[i].addBookmark(copy((Bookmark) bookmark, targets[i]));
+                }
+            }
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    IFDocumentNavigationHandler handler = target.handler.getDocumentNavigationHandler();
+                    if (handler != null) {
+                        handler.renderBookmarkTree(trees[target.index]);
+                    }
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void renderLink(Link link) throws IFException {
+            final Link[] links = new Link[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                links[i] = new Link(copy(link.getAction(), targets[i]), link.getTargetRect());
+            }
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    IFDocumentNavigationHandler handler = target.handler.getDocumentNavigationHandler();
+                    if (handler != null) {
+                        handler.renderLink(links[target.index]);
+                    }
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public void addResolvedAction(AbstractAction action) throws IFException {
+            final AbstractAction[] actions = new AbstractAction[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                actions[i] = copy(action, targets[i]);
+            }
+            add(new Event() {
+                public void dispatch(Target target) throws IFException {
+                    IFDocumentNavigationHandler handler = target.handler.getDocumentNavigationHandler();
+                    if (handler != null) {
+                        handler.addResolvedAction(actions[target.index]);
+                    }
+                }
+            });
+        }
+
+        /** {@inheritDoc} */
+        public int getPageIndex() {
+            return pageIndex;
+        }
+
+        private Bookmark copy(Bookmark bookmark, Target target) {
+            Bookmark copy = new Bookmark(bookmark.getTitle(), bookmark.isShown(),
+                    copy(bookmark.getAction(), target));
+            for (Object child : bookmark.getChildBookmarks()) {
+                copy.addChildBookmark(copy((Bookmark) child, target));
+            }
+            return copy;
+        }
+
+        /**
+         * Copies an action for a target. Actions of other types than the ones FOP creates are
+         * handed over as they are.
+         */
+        private AbstractAction copy(AbstractAction action, Target target) {
+            if (action instanceof GoToXYAction) {
+                return ((GoToXYAction) action).copy(target.handler.getContext());
+            } else if (action instanceof URIAction) {
+                URIAction uriAction = (URIAction) action;
+                URIAction copy = new URIAction(uriAction.getURI(), uriAction.isNewWindow());
+                copy.setID(uriAction.getID());
+                copy.setStructureTreeElement(uriAction.getStructureTreeElement());
+                return copy;
+            } else {
+                return action;
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.fop.configuration.ConfigurationException;
 import org.apache.fop.fonts.DefaultFontConfig;
 import org.apache.fop.fonts.DefaultFontConfig.DefaultFontConfigParser;
 import org.apache.fop.fonts.FontEventAdapter;
+import org.apache.fop.pdf.PDFCompressionParams;
 import org.apache.fop.pdf.PDFEncryptionParams;
 import org.apache.fop.pdf.PDFFilterList;
 import org.apache.fop.render.RendererConfig;
@@ -55,7 +56,9 @@ import static org.apache.fop.render.pdf.PDFEncryptionOption.NO_PRINT;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.NO_PRINTHQ;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.OWNER_PASSWORD;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.USER_PASSWORD;
+import static org.apache.fop.render.pdf.PDFRendererOption.COMPRESSION_THREADS;
 import static org.apache.fop.render.pdf.PDFRendererOption.DISABLE_SRGB_COLORSPACE;
+import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_COMPRESSION;
 import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_LIST;
 import static org.apache.fop.render.pdf.PDFRendererOption.FORM_XOBJECT;
 import static org.apache.fop.render.pdf.PDFRendererOption.LINEARIZATION;
@@ -65,6 +68,7 @@ import static org.apache.fop.render.pdf.PDFRendererOption.PDF_A_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_UA_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_VT_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_X_MODE;
+import static org.apache.fop.render.pdf.PDFRendererOption.STREAMING_OUTPUT;
 import static org.apache.fop.render.pdf.PDFRendererOption.VERSION;
 
 /**
@@ -152,6 +156,8 @@ public final class PDFRendererConfig implements RendererConfig {
                 parseAndPut(MERGE_FONTS, cfg);
                 parseAndPut(LINEARIZATION, cfg);
                 parseAndPut(FORM_XOBJECT, cfg);
+                parseAndPut(STREAMING_OUTPUT, cfg);
+                parseAndPut(COMPRESSION_THREADS, cfg);
                 parseAndPut(VERSION, cfg);
             } catch (ConfigurationException e) {
                 LogUtil.handleException(LOG, e, strict);
@@ -213,8 +219,17 @@ public final class PDFRendererConfig implements RendererConfig {
         FOPException {
             Configuration[] filterLists = cfg.getChildren(FILTER_LIST.getName());
             Map<String, List<String>> filterMap = new HashMap<String, List<String>>();
+            Map<String, PDFCompressionParams> compressionMap = new HashMap<String, PDFCompressionParams>();
             for (Configuration filters : filterLists) {
                 String type = filters.getAttribute("type", PDFFilterList.DEFAULT_FILTER);
+                PDFCompressionParams compression = parseCompressionParams(filters, type);
+                if (compression != null) {
+                    if (compressionMap.get(type) != null) {
+                        throw new ConfigurationException("The compression of type '"
+                                + type + "' has already been defined");
+                    }
+                    compressionMap.put(type, compression);
+                }
                 List<String> filterList = new ArrayList<String>();
                 for (Configuration nameCfg : filters.getChildren("value")) {
                     filterList.add(nameCfg.getValue());
@@ -234,6 +249,10 @@ public final class PDFRendererConfig implements RendererConfig {
                     LOG.debug(debug.toString());
                 }
 
+                if (filterList.isEmpty() && compression != null) {
+                    //only sets the compression, the filters are inherited
+                    continue;
+                }
                 if (filterMap.get(type) != null) {
                     throw new ConfigurationException("A filterList of type '"
                             + type + "' has already been defined");
@@ -241,6 +260,27 @@ public final class PDFRendererConfig implements RendererConfig {
                 filterMap.put(type, filterList);
             }
             put(FILTER_LIST, filterMap);
+            if (!compressionMap.isEmpty()) {
+                put(FILTER_COMPRESSION, compressionMap);
+            }
+        }
+
+        private PDFCompressionParams parseCompressionParams(Configuration filters, String type)
+                throws ConfigurationException {
+            String level = filters.getAttribute("compression-level", null);
+            String strategy = filters.getAttribute("compression-strategy", null);
+            if (level == null && strategy == null) {
+                return null;
+            }
+            try {
+                PDFCompressionParams params = PDFCompressionParams.getValueOf(level, strategy);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Setting PDF compression for type " + type + ": " + params);
+                }
+                return params;
+            } catch (IllegalArgumentException iae) {
+                throw new ConfigurationException(iae.getMessage(), iae);
+            }
         }
 
         private String parseConfig(Configuration cfg, RendererConfigOption option) {
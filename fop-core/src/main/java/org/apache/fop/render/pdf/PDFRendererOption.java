@@ -37,6 +37,13 @@ public enum PDFRendererOption implements RendererConfigOption {
             throw new UnsupportedOperationException();
         }
     },
+    /** Deflate parameters per stream type, configured on the filterList elements. */
+    FILTER_COMPRESSION("filterCompression", null) {
+        @Override
+        Object deserialize(String value) {
+            throw new UnsupportedOperationException();
+        }
+    },
     /** Rendering Options key for the PDF/A mode, default: {@link PDFAMode#DISABLED} */
     PDF_A_MODE("pdf-a-mode", PDFAMode.DISABLED) {
         @Override
@@ -99,6 +106,23 @@ public enum PDFRendererOption implements RendererConfigOption {
             return Boolean.valueOf(value);
         }
     },
+    /** Rendering Options key for releasing the page objects once they have been written. */
+    STREAMING_OUTPUT("streaming-output", false) {
+        @Override
+        Boolean deserialize(String value) {
+            return Boolean.valueOf(value);
+        }
+    },
+    /**
+     * Rendering Options key for the number of threads compressing streams ahead of their
+     * serialization, default: 0 (compress while writing)
+     */
+    COMPRESSION_THREADS("compression-threads", 0) {
+        @Override
+        Integer deserialize(String value) {
+            return Integer.valueOf(value.trim());
+        }
+    },
     /** Rendering Options key for the ICC profile for the output intent. */
     OUTPUT_PROFILE("output-profile") {
         @Override
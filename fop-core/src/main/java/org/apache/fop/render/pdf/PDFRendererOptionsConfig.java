@@ -25,13 +25,16 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.fop.pdf.PDFAMode;
+import org.apache.fop.pdf.PDFCompressionParams;
 import org.apache.fop.pdf.PDFEncryptionParams;
 import org.apache.fop.pdf.PDFUAMode;
 import org.apache.fop.pdf.PDFVTMode;
 import org.apache.fop.pdf.PDFXMode;
 import org.apache.fop.pdf.Version;
 
+import static org.apache.fop.render.pdf.PDFRendererOption.COMPRESSION_THREADS;
 import static org.apache.fop.render.pdf.PDFRendererOption.DISABLE_SRGB_COLORSPACE;
+import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_COMPRESSION;
 import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_LIST;
 import static org.apache.fop.render.pdf.PDFRendererOption.FORM_XOBJECT;
 import static org.apache.fop.render.pdf.PDFRendererOption.LINEARIZATION;
@@ -41,6 +44,7 @@ import static org.apache.fop.render.pdf.PDFRendererOption.PDF_A_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_UA_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_VT_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_X_MODE;
+import static org.apache.fop.render.pdf.PDFRendererOption.STREAMING_OUTPUT;
 import static org.apache.fop.render.pdf.PDFRendererOption.VERSION;
 
 /**
@@ -104,6 +108,11 @@ public final class PDFRendererOptionsConfig {
         return (Map<String, List<String>>) properties.get(FILTER_LIST);
     }
 
+    @SuppressWarnings("unchecked")
+    public Map<String, PDFCompressionParams> getCompressionParamsMap() {
+        return (Map<String, PDFCompressionParams>) properties.get(FILTER_COMPRESSION);
+    }
+
     public PDFAMode getPDFAMode() {
         return (PDFAMode) properties.get(PDF_A_MODE);
     }
@@ -147,4 +156,12 @@ public final class PDFRendererOptionsConfig {
     public Boolean getFormXObjectEnabled() {
         return (Boolean)properties.get(FORM_XOBJECT);
     }
+
+    public Boolean getStreamingOutputEnabled() {
+        return (Boolean)properties.get(STREAMING_OUTPUT);
+    }
+
+    public Integer getCompressionThreads() {
+        return (Integer)properties.get(COMPRESSION_THREADS);
+    }
 }
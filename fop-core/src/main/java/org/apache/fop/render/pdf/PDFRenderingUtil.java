@@ -606,6 +606,7 @@ class PDFRenderingUtil {
         updateInfo();
         updatePDFProfiles();
         pdfDoc.setFilterMap(rendererConfig.getFilterMap());
+        pdfDoc.setCompressionParamsMap(rendererConfig.getCompressionParamsMap());
         pdfDoc.outputHeader(out);
 
         //Setup encryption if necessary
@@ -632,6 +633,8 @@ class PDFRenderingUtil {
         pdfDoc.setMergeFontsEnabled(rendererConfig.getMergeFontsEnabled());
         pdfDoc.setLinearizationEnabled(rendererConfig.getLinearizationEnabled());
         pdfDoc.setFormXObjectEnabled(rendererConfig.getFormXObjectEnabled());
+        pdfDoc.setStreamingOutputEnabled(rendererConfig.getStreamingOutputEnabled());
+        pdfDoc.setCompressionThreads(rendererConfig.getCompressionThreads());
 
         return this.pdfDoc;
     }
@@ -152,6 +152,15 @@ public class XMLRenderer extends AbstractXMLRenderer {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>The area tree only refers to fonts by name, so it is written without touching them.
+     */
+    @Override
+    public boolean supportsAsyncRendering() {
+        return true;
+    }
+
     /**
      * Controls whether to create a more compact format which omit certain attributes.
      * @param compact true to activate the compact format
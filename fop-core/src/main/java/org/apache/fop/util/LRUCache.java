@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache which holds at most {@link #getMaxEntries()} values and evicts the least
+ * recently used one. It counts the lookups that found a value and those that didn't, and may
+ * be used from several threads.
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class LRUCache<K, V> {
+
+    private int maxEntries;
+
+    private long hits;
+
+    private long misses;
+
+    private final Map<K, V> entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Creates a new cache.
+     * @param maxEntries the maximum number of cached values
+     */
+    public LRUCache(int maxEntries) {
+        setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Sets the maximum number of cached values, evicting the least recently used values
+     * beyond it.
+     * @param maxEntries the maximum number of values, 0 to disable caching
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        while (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Returns the maximum number of cached values.
+     * @return the maximum number of values
+     */
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the number of cached values.
+     * @return the number of values
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that didn't find a cached value.
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Removes all values from the cache and resets the statistics.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Returns the value cached for the given key and marks it as the most recently used one.
+     * @param key the key
+     * @return the cached value, or null if there is none
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used value if the cache is full. Nothing is
+     * cached if the maximum number of values is 0.
+     * @param key the key
+     * @param value the value, not null
+     */
+    public synchronized void put(K key, V value) {
+        if (maxEntries > 0) {
+            entries.put(key, value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public String toString() {
+        return getClass().getSimpleName() + ": " + size() + " entries, " + getHitCount() + " hits, "
+                + getMissCount() + " misses";
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a single dedicated thread, in submission order. This is used to overlap the
+ * stages of the processing pipeline, like FO tree building, layout and rendering. The number of
+ * submitted but unfinished tasks is bounded so that work doesn't pile up in memory when a
+ * stage is faster than the next one.
+ * <p>
+ * This class is not thread-safe: tasks must always be submitted from the same thread.
+ */
+public class SerialTaskRunner {
+
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Deque<Future<?>> pending = new ArrayDeque<Future<?>>();
+
+    private final int maxPending;
+
+    private final String threadName;
+
+    /**
+     * Creates a new task runner.
+     * @param threadName the name of the worker thread
+     * @param maxPending the maximum number of tasks that may be queued or running
+     */
+    public SerialTaskRunner(String threadName, int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        this.maxPending = maxPending;
+        this.threadName = threadName;
+        this.executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory(threadName));
+        // lets the worker thread die if the document is never finished (parsing errors)
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits a task to the worker thread. Blocks while the maximum number of pending tasks
+     * is reached. Any failure of a previously submitted task is rethrown here.
+     * @param task the task
+     */
+    public void submit(Runnable task) {
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            waitFor(pending.removeFirst());
+        }
+        while (pending.size() >= maxPending) {
+            waitFor(pending.removeFirst());
+        }
+        pending.addLast(executor.submit(task));
+    }
+
+    /**
+     * Waits until all submitted tasks have completed and shuts down the worker thread.
+     * Any failure of a submitted task is rethrown here.
+     */
+    public void finish() {
+        try {
+            while (!pending.isEmpty()) {
+                waitFor(pending.removeFirst());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void waitFor(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new IllegalStateException("Interrupted while waiting for " + threadName, ie);
+        } catch (ExecutionException ee) {
+            abort();
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private void abort() {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        executor.shutdownNow();
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final String name;
+
+        WorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
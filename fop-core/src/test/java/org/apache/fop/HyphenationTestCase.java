@@ -27,13 +27,17 @@ import java.io.ObjectOutputStream;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.apache.commons.io.IOUtils;
 
+import org.apache.fop.apps.FOUserAgent;
 import org.apache.fop.apps.FopFactory;
 import org.apache.fop.apps.io.InternalResourceResolver;
 import org.apache.fop.apps.io.ResourceResolverFactory;
+import org.apache.fop.hyphenation.HyphenatedWordCache;
 import org.apache.fop.hyphenation.Hyphenation;
 import org.apache.fop.hyphenation.HyphenationException;
 import org.apache.fop.hyphenation.HyphenationTree;
@@ -52,6 +56,31 @@ public class HyphenationTestCase {
         assertEquals(hyph.toString(), "-hel-lo");
     }
 
+    @Test
+    public void testHyphenatedWordCache() {
+        File f = new File("test/resources/fop");
+        InternalResourceResolver resourceResolver = ResourceResolverFactory.createDefaultInternalResourceResolver(
+                f.toURI());
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        HyphenatedWordCache cache = userAgent.getHyphenatedWordCache();
+        for (int i = 0; i < 3; i++) {
+            Hyphenation hyph = Hyphenator.hyphenate("fr.xml" + Hyphenator.XMLTYPE, null, resourceResolver, null,
+                    "hello", 0, 0, userAgent);
+            assertEquals("-hel-lo", hyph.toString());
+            assertNull(Hyphenator.hyphenate("fr.xml" + Hyphenator.XMLTYPE, null, resourceResolver, null,
+                    "hello", 3, 3, userAgent));
+        }
+        assertEquals(2, cache.getMissCount());
+        assertEquals(4, cache.getHitCount());
+        assertEquals(2, cache.size());
+        //no patterns for this language, so nothing is cached
+        assertNull(Hyphenator.hyphenate("xx", null, resourceResolver, null, "hello", 0, 0, userAgent));
+        assertEquals(2, cache.size());
+        assertSame(cache, fopFactory.newFOUserAgent().getHyphenatedWordCache());
+        FopFactory otherFactory = FopFactory.newInstance(new File(".").toURI());
+        assertNotSame(cache, otherFactory.newFOUserAgent().getHyphenatedWordCache());
+    }
+
     @Test
     public void testHyphenatorBinary() throws HyphenationException, IOException {
         File f = File.createTempFile("hyp", "fop");
@@ -145,6 +145,14 @@ public final class MutableConfig implements FopFactoryConfig {
         return delegate.isSkipPagePositionOnlyAllowed();
     }
 
+    public boolean isAsyncPageSequenceLayout() {
+        return delegate.isAsyncPageSequenceLayout();
+    }
+
+    public int getAsyncRenderQueueSize() {
+        return delegate.getAsyncRenderQueueSize();
+    }
+
     public Map<String, String> getHyphenationPatternNames() {
         return delegate.getHyphenationPatternNames();
     }
@@ -29,12 +29,14 @@ import static org.apache.fop.render.pdf.PDFEncryptionOption.ENCRYPTION_LENGTH;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.ENCRYPTION_PARAMS;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.OWNER_PASSWORD;
 import static org.apache.fop.render.pdf.PDFEncryptionOption.USER_PASSWORD;
+import static org.apache.fop.render.pdf.PDFRendererOption.COMPRESSION_THREADS;
 import static org.apache.fop.render.pdf.PDFRendererOption.DISABLE_SRGB_COLORSPACE;
 import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_LIST;
 import static org.apache.fop.render.pdf.PDFRendererOption.FORM_XOBJECT;
 import static org.apache.fop.render.pdf.PDFRendererOption.OUTPUT_PROFILE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_A_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_X_MODE;
+import static org.apache.fop.render.pdf.PDFRendererOption.STREAMING_OUTPUT;
 import static org.apache.fop.render.pdf.PDFRendererOption.VERSION;
 
 /**
@@ -69,6 +71,23 @@ public final class PDFRendererConfBuilder extends RendererConfBuilder {
         return this;
     }
 
+    public PDFRendererConfBuilder createFilterCompression(String type, String level, String strategy) {
+        Element filterListEl = createElement(FILTER_LIST.getName());
+        filterListEl.setAttribute("type", type);
+        if (level != null) {
+            filterListEl.setAttribute("compression-level", level);
+        }
+        if (strategy != null) {
+            filterListEl.setAttribute("compression-strategy", strategy);
+        }
+        return this;
+    }
+
+    public PDFRendererConfBuilder setCompressionThreads(int threads) {
+        createTextElement(COMPRESSION_THREADS, String.valueOf(threads));
+        return this;
+    }
+
     public PDFRendererConfBuilder setPDFAMode(String value) {
         createTextElement(PDF_A_MODE, value);
         return this;
@@ -99,6 +118,11 @@ public final class PDFRendererConfBuilder extends RendererConfBuilder {
         return this;
     }
 
+    public PDFRendererConfBuilder setStreamingOutputEnabled(boolean b) {
+        createTextElement(STREAMING_OUTPUT, String.valueOf(b));
+        return this;
+    }
+
     public final class EncryptionParamsBuilder {
         private final Element el;
 
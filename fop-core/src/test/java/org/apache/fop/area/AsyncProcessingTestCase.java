@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.area;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Date;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopConfBuilder;
+import org.apache.fop.apps.FopConfParser;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.FormattingResults;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.apps.PDFRendererConfBuilder;
+import org.apache.fop.fonts.FontInfo;
+
+/**
+ * Checks that laying out page-sequences and rendering pages on dedicated threads produces
+ * the same output as synchronous processing.
+ */
+public class AsyncProcessingTestCase {
+
+    private static final int PAGE_SEQUENCES = 12;
+
+    @Test
+    public void testAsyncPageSequenceLayout() throws Exception {
+        checkSameOutputAsSynchronousProcessing(true, 0);
+    }
+
+    @Test
+    public void testAsyncRendering() throws Exception {
+        checkSameOutputAsSynchronousProcessing(false, 1);
+        checkSameOutputAsSynchronousProcessing(false, 8);
+    }
+
+    @Test
+    public void testAsyncLayoutAndRendering() throws Exception {
+        checkSameOutputAsSynchronousProcessing(true, 4);
+    }
+
+    /**
+     * Renderers that use the fonts shared with layout must render synchronously: layout keeps
+     * mapping characters of the same fonts, e.g. into the subset of an embedded CID font.
+     */
+    @Test
+    public void testFontSharingRendererRendersSynchronously() throws Exception {
+        FOUserAgent userAgent = FopFactory.newInstance(new File(".").toURI()).newFOUserAgent();
+        userAgent.setAsyncRenderQueueSize(8);
+        RenderPagesModel pdfModel = new RenderPagesModel(userAgent, MimeConstants.MIME_PDF,
+                new FontInfo(), new ByteArrayOutputStream());
+        assertFalse(pdfModel.isRenderingAsynchronously());
+        pdfModel.endDocument();
+        RenderPagesModel areaTreeModel = new RenderPagesModel(userAgent, MimeConstants.MIME_FOP_AREA_TREE,
+                new FontInfo(), new ByteArrayOutputStream());
+        assertTrue(areaTreeModel.isRenderingAsynchronously());
+        areaTreeModel.endDocument();
+    }
+
+    /**
+     * A render queue has no effect on PDF output: the pages are rendered synchronously either
+     * way, so the output, including the subset of an embedded CID font, is unchanged.
+     */
+    @Test
+    public void testRenderQueueDoesNotAffectPDFWithCIDFont() throws Exception {
+        FopFactory fopFactory = new FopConfParser(new FopConfBuilder()
+                .startRendererConfig(PDFRendererConfBuilder.class)
+                    .startFontsConfig()
+                        .startFont(null, "test/resources/fonts/ttf/DejaVuLGCSerif.ttf")
+                            .addTriplet("DejaVu", "normal", "normal")
+                        .endFont()
+                    .endFontConfig()
+                .endRendererConfig().build(), new File(".").toURI()).getFopFactoryBuilder().build();
+        StringBuilder fo = new StringBuilder("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">"
+                + "<fo:layout-master-set><fo:simple-page-master master-name=\"simple\" page-height=\"5cm\""
+                + " page-width=\"10cm\"><fo:region-body/></fo:simple-page-master></fo:layout-master-set>"
+                + "<fo:page-sequence master-reference=\"simple\"><fo:flow flow-name=\"xsl-region-body\""
+                + " font-family=\"DejaVu\">");
+        for (int i = 0; i < 100; i++) {
+            // every block introduces characters that are not yet in the font subset
+            fo.append("<fo:block>").append(i).append(' ')
+                    .append((char) ('\u0410' + i % 32)).append((char) ('\u03b1' + i % 24)).append("</fo:block>");
+        }
+        fo.append("</fo:flow></fo:page-sequence></fo:root>");
+        String sync = maskVariableParts(renderPDF(fopFactory, fo.toString(), 0));
+        String async = maskVariableParts(renderPDF(fopFactory, fo.toString(), 8));
+        assertTrue(sync.contains("/CIDFontType2"));
+        assertEquals(sync, async);
+    }
+
+    private static String renderPDF(FopFactory fopFactory, String fo, int renderQueueSize)
+            throws Exception {
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        userAgent.setCreationDate(new Date(0));
+        userAgent.setAsyncRenderQueueSize(renderQueueSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new ByteArrayInputStream(fo.getBytes("UTF-8"))),
+                new SAXResult(fop.getDefaultHandler()));
+        return out.toString("ISO-8859-1");
+    }
+
+    /** Masks the parts of a PDF that differ between runs: the file ID and the metadata date. */
+    private static String maskVariableParts(String pdf) {
+        return pdf.replaceAll("/ID \\[<[0-9A-F]+> <[0-9A-F]+>\\]", "/ID []")
+                .replaceAll("<xmp:MetadataDate>[^<]*</xmp:MetadataDate>", "<xmp:MetadataDate/>");
+    }
+
+    /**
+     * Marker subtrees are cloned during layout while the FO tree of the following page-sequences,
+     * with change bars of their own, is being built.
+     */
+    @Test
+    public void testAsyncPageSequenceLayoutWithChangeBarsInMarkers() throws Exception {
+        checkSameOutputAsSynchronousProcessing(true, 0, true);
+    }
+
+    private void checkSameOutputAsSynchronousProcessing(boolean asyncLayout, int renderQueueSize)
+            throws Exception {
+        checkSameOutputAsSynchronousProcessing(asyncLayout, renderQueueSize, false);
+    }
+
+    private void checkSameOutputAsSynchronousProcessing(boolean asyncLayout, int renderQueueSize,
+            boolean changeBars) throws Exception {
+        String fo = createFO(changeBars);
+        Output sync = render(fo, false, 0);
+        Output async = render(fo, asyncLayout, renderQueueSize);
+        assertEquals(sync.results.getPageCount(), async.results.getPageCount());
+        assertEquals(PAGE_SEQUENCES, async.results.getPageSequences().size());
+        assertEquals(sync.xml, async.xml);
+    }
+
+    private String createFO(boolean changeBars) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">\n"
+                + "  <fo:layout-master-set>\n"
+                + "    <fo:simple-page-master master-name=\"simple\" page-height=\"10cm\" page-width=\"10cm\">\n"
+                + "      <fo:region-body margin-top=\"1cm\" />\n"
+                + "      <fo:region-before extent=\"1cm\" />\n"
+                + "    </fo:simple-page-master>\n"
+                + "  </fo:layout-master-set>\n");
+        for (int i = 0; i < PAGE_SEQUENCES; i++) {
+            sb.append("  <fo:page-sequence master-reference=\"simple\" force-page-count=\"even\">\n"
+                    + "    <fo:static-content flow-name=\"xsl-region-before\">\n"
+                    + "      <fo:block><fo:retrieve-marker retrieve-class-name=\"title\"/></fo:block>\n"
+                    + "    </fo:static-content>\n"
+                    + "    <fo:flow flow-name=\"xsl-region-body\">\n");
+            // forward reference to the next page-sequence
+            sb.append("      <fo:block id=\"seq" + i + "\">Next: <fo:page-number-citation ref-id=\"seq"
+                    + ((i + 1) % PAGE_SEQUENCES) + "\"/></fo:block>\n");
+            for (int j = 0; j < 20 * (i % 3 + 1); j++) {
+                sb.append("      <fo:block>");
+                if (changeBars && j % 5 == 0) {
+                    // the marker content starts a change bar in even page-sequences only
+                    String cls = "seq" + i + "-" + j;
+                    sb.append("<fo:marker marker-class-name=\"title\">Title " + i + " ");
+                    if (i % 2 == 0) {
+                        sb.append("<fo:change-bar-begin change-bar-class=\"" + cls
+                                + "\" change-bar-style=\"solid\"/>changed<fo:change-bar-end change-bar-class=\""
+                                + cls + "\"/>");
+                    }
+                    sb.append(" text</fo:marker>");
+                }
+                sb.append("Sequence " + i + ", line " + j);
+                if (changeBars && i % 2 == 1) {
+                    String cls = "flow" + i + "-" + j;
+                    sb.append(" <fo:change-bar-begin change-bar-class=\"" + cls
+                            + "\" change-bar-style=\"solid\" change-bar-color=\"red\"/>changed"
+                            + "<fo:change-bar-end change-bar-class=\"" + cls + "\"/>");
+                }
+                sb.append("</fo:block>\n");
+            }
+            sb.append("    </fo:flow>\n  </fo:page-sequence>\n");
+        }
+        sb.append("</fo:root>");
+        return sb.toString();
+    }
+
+    private Output render(String fo, boolean asyncLayout, int renderQueueSize) throws Exception {
+        FopFactory fopFactory = FopFactory.newInstance(new File(".").toURI());
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        userAgent.setAsyncPageSequenceLayout(asyncLayout);
+        userAgent.setAsyncRenderQueueSize(renderQueueSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_FOP_AREA_TREE, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        Source src = new StreamSource(new ByteArrayInputStream(fo.getBytes("UTF-8")));
+        Result res = new SAXResult(fop.getDefaultHandler());
+        transformer.transform(src, res);
+        return new Output(out.toString("UTF-8"), fop.getResults());
+    }
+
+    private static final class Output {
+
+        private final String xml;
+
+        private final FormattingResults results;
+
+        private Output(String xml, FormattingResults results) {
+            this.xml = xml;
+            this.results = results;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.complexscripts.fonts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.fop.complexscripts.fonts.GlyphMappingTable.MappingRange;
+
+/**
+ * Tests the lookups of {@link GlyphCoverageTable} and {@link GlyphClassTable}, both in their
+ * dense (array-backed) and sparse forms.
+ */
+public class GlyphMappingTableTestCase {
+
+    @Test
+    public void testMappedCoverage() {
+        checkMappedCoverage(Arrays.asList(3, 4, 5, 7, 10));                      // dense
+        checkMappedCoverage(Arrays.asList(3, 4000, 65535));                     // sparse
+    }
+
+    private void checkMappedCoverage(List<Integer> glyphs) {
+        GlyphCoverageTable coverage = GlyphCoverageTable.createCoverageTable(glyphs);
+        assertEquals(glyphs.size(), coverage.getCoverageSize());
+        for (int gid = 0; gid < 65536; gid++) {
+            assertEquals(glyphs.indexOf(gid), coverage.getCoverageIndex(gid));
+        }
+        assertEquals(-1, coverage.getCoverageIndex(-1));
+        assertEquals(-1, coverage.getCoverageIndex(65536));
+    }
+
+    @Test
+    public void testRangeCoverage() {
+        checkRangeCoverage(new MappingRange(10, 20, 0), new MappingRange(22, 30, 11));      // dense
+        checkRangeCoverage(new MappingRange(10, 12, 0), new MappingRange(60000, 60001, 3)); // sparse
+    }
+
+    private void checkRangeCoverage(MappingRange... ranges) {
+        GlyphCoverageTable coverage = GlyphCoverageTable.createCoverageTable(Arrays.asList(ranges));
+        for (int gid = 0; gid < 65536; gid++) {
+            int expected = -1;
+            for (MappingRange range : ranges) {
+                if ((gid >= range.getStart()) && (gid <= range.getEnd())) {
+                    expected = range.getIndex() + gid - range.getStart();
+                }
+            }
+            assertEquals(expected, coverage.getCoverageIndex(gid));
+        }
+    }
+
+    @Test
+    public void testRangeClasses() {
+        List<MappingRange> ranges = new ArrayList<MappingRange>();
+        ranges.add(new MappingRange(5, 9, 1));
+        ranges.add(new MappingRange(12, 12, 3));
+        ranges.add(new MappingRange(13, 15, 2));
+        GlyphClassTable classes = GlyphClassTable.createClassTable(ranges);
+        assertEquals(-1, classes.getClassIndex(4, 0));
+        assertEquals(1, classes.getClassIndex(5, 0));
+        assertEquals(1, classes.getClassIndex(9, 0));
+        assertEquals(-1, classes.getClassIndex(10, 0));
+        assertEquals(3, classes.getClassIndex(12, 0));
+        assertEquals(2, classes.getClassIndex(15, 0));
+        assertEquals(-1, classes.getClassIndex(16, 0));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.fo.properties.EnumProperty;
+import org.apache.fop.fo.properties.NumberProperty;
+import org.apache.fop.fo.properties.Property;
+
+/**
+ * Tests the compact property storage of {@link StaticPropertyList}.
+ */
+public class StaticPropertyListTestCase {
+
+    @Test
+    public void testAllPropertiesCanBeStored() {
+        StaticPropertyList propertyList = new StaticPropertyList(null, null);
+        for (int propId = 1; propId <= Constants.PROPERTY_COUNT; propId++) {
+            assertNull(propertyList.getExplicit(propId));
+            propertyList.putExplicit(propId, NumberProperty.getInstance(propId));
+        }
+        for (int propId = 1; propId <= Constants.PROPERTY_COUNT; propId++) {
+            assertEquals(propId, propertyList.getExplicit(propId).getNumber().intValue());
+        }
+    }
+
+    @Test
+    public void testCachedValueIsOverwritten() throws Exception {
+        StaticPropertyList propertyList = new StaticPropertyList(null, null);
+        Property wrap = EnumProperty.getInstance(Constants.EN_WRAP, "WRAP");
+        Property noWrap = EnumProperty.getInstance(Constants.EN_NO_WRAP, "NO_WRAP");
+        propertyList.putExplicit(Constants.PR_WRAP_OPTION, wrap);
+        assertSame(wrap, propertyList.get(Constants.PR_WRAP_OPTION));
+        propertyList.putExplicit(Constants.PR_WRAP_OPTION, noWrap);
+        assertSame(noWrap, propertyList.get(Constants.PR_WRAP_OPTION));
+        assertSame(noWrap, propertyList.getExplicit(Constants.PR_WRAP_OPTION));
+    }
+
+    @Test
+    public void testValueIsCachedWhenLookupGrowsTable() throws Exception {
+        StaticPropertyList parent = new StaticPropertyList(null, null);
+        Property color = NumberProperty.getInstance(42);
+        parent.putExplicit(Constants.PR_COLOR, color);
+        StaticPropertyList propertyList = new StaticPropertyList(null, parent);
+        // six entries fill the initial table of eight slots up to its load limit,
+        // so caching the next value has to grow the table
+        int capacity = propertyList.getCapacity();
+        for (int propId = 1; propId <= 6; propId++) {
+            propertyList.putExplicit(propId, NumberProperty.getInstance(propId));
+        }
+        assertEquals(capacity, propertyList.getCapacity());
+        assertSame(color, propertyList.get(Constants.PR_COLOR));
+        assertTrue(propertyList.getCapacity() > capacity);
+        // the inherited value must have been cached in the grown table
+        parent.putExplicit(Constants.PR_COLOR, NumberProperty.getInstance(7));
+        assertSame(color, propertyList.get(Constants.PR_COLOR));
+    }
+
+    /**
+     * Memory regression check: a property list only grows with the number of properties it
+     * actually holds, instead of reserving a slot for every property. Use
+     * {@link org.apache.fop.memory.MemoryEater} to measure the effect on whole documents.
+     */
+    @Test
+    public void testFootprintDependsOnNumberOfProperties() {
+        StaticPropertyList propertyList = new StaticPropertyList(null, null);
+        int[] propIds = {Constants.PR_FONT_SIZE, Constants.PR_FONT_FAMILY, Constants.PR_COLOR,
+                Constants.PR_SPACE_BEFORE, Constants.PR_TEXT_ALIGN, Constants.PR_ID};
+        for (int propId : propIds) {
+            propertyList.putExplicit(propId, NumberProperty.getInstance(propId));
+        }
+        assertTrue(propertyList.getCapacity() <= 16);
+        for (int propId : propIds) {
+            assertEquals(propId, propertyList.getExplicit(propId).getNumber().intValue());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.flow;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.fo.FOEventHandler;
+import org.apache.fop.fo.FONode;
+import org.apache.fop.fo.FODocumentParser;
+import org.apache.fop.fo.FODocumentParser.FOEventHandlerFactory;
+
+/**
+ * Tests the binding of markers to an {@link AbstractRetrieveMarker}.
+ */
+public class RetrieveMarkerTestCase {
+
+    private static final String FO = "<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">"
+            + "<fo:layout-master-set><fo:simple-page-master master-name=\"page\">"
+            + "<fo:region-body/><fo:region-before/></fo:simple-page-master></fo:layout-master-set>"
+            + "<fo:page-sequence master-reference=\"page\">"
+            + "<fo:static-content flow-name=\"xsl-region-before\">"
+            + "<fo:block><fo:retrieve-marker retrieve-class-name=\"title\"/></fo:block>"
+            + "</fo:static-content><fo:flow flow-name=\"xsl-region-body\">"
+            + "<fo:block><fo:marker marker-class-name=\"title\">Chapter <fo:inline>1</fo:inline></fo:marker>"
+            + "Text</fo:block>"
+            + "<fo:block><fo:marker marker-class-name=\"title\">Chapter 2</fo:marker>Text</fo:block>"
+            + "</fo:flow></fo:page-sequence></fo:root>";
+
+    @Test
+    public void testSameMarkerIsClonedOnce() throws Exception {
+        MarkerHandler handler = parse();
+        RetrieveMarker retrieveMarker = handler.retrieveMarkers.get(0);
+        Marker chapter1 = handler.blocks.get(1).getMarkers().get("title");
+        Marker chapter2 = handler.blocks.get(2).getMarkers().get("title");
+
+        retrieveMarker.bindMarker(chapter1);
+        FONode clone = retrieveMarker.getChildNodes().next();
+        assertEquals(2, countChildren(retrieveMarker));
+        retrieveMarker.bindMarker(chapter1);
+        assertSame(clone, retrieveMarker.getChildNodes().next());
+        assertEquals(2, countChildren(retrieveMarker));
+
+        retrieveMarker.bindMarker(chapter2);
+        assertNotSame(clone, retrieveMarker.getChildNodes().next());
+        assertEquals(1, countChildren(retrieveMarker));
+        retrieveMarker.bindMarker(chapter1);
+        assertNotSame(clone, retrieveMarker.getChildNodes().next());
+        assertEquals(2, countChildren(retrieveMarker));
+    }
+
+    @Test
+    public void testClearedCloneIsRebuilt() throws Exception {
+        MarkerHandler handler = parse();
+        RetrieveMarker retrieveMarker = handler.retrieveMarkers.get(0);
+        Marker chapter1 = handler.blocks.get(1).getMarkers().get("title");
+
+        retrieveMarker.bindMarker(chapter1);
+        retrieveMarker.clearChildNodes();
+        retrieveMarker.bindMarker(chapter1);
+        assertEquals(2, countChildren(retrieveMarker));
+    }
+
+    private static int countChildren(FONode node) {
+        int count = 0;
+        for (FONode.FONodeIterator it = node.getChildNodes(); it != null && it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static MarkerHandler parse() throws Exception {
+        final MarkerHandler[] handler = new MarkerHandler[1];
+        FODocumentParser documentParser = FODocumentParser.newInstance(new FOEventHandlerFactory() {
+            public FOEventHandler newFOEventHandler(FOUserAgent foUserAgent) {
+                handler[0] = new MarkerHandler(foUserAgent);
+                return handler[0];
+            }
+        });
+        documentParser.parse(new ByteArrayInputStream(FO.getBytes("UTF-8")));
+        return handler[0];
+    }
+
+    private static final class MarkerHandler extends FOEventHandler {
+
+        private final List<Block> blocks = new ArrayList<Block>();
+
+        private final List<RetrieveMarker> retrieveMarkers = new ArrayList<RetrieveMarker>();
+
+        MarkerHandler(FOUserAgent foUserAgent) {
+            super(foUserAgent);
+        }
+
+        @Override
+        public void startBlock(Block block) {
+            blocks.add(block);
+        }
+
+        @Override
+        public void startRetrieveMarker(RetrieveMarker retrieveMarker) {
+            retrieveMarkers.add(retrieveMarker);
+        }
+    }
+}
@@ -215,4 +215,63 @@ public class CollapsedConditionalBorderTestCase extends AbstractTableTest {
             tableNum++;
         } while (tableIterator.hasNext());
     }
+
+    @Test
+    public void testCachedBorderWidthsMatchResolvedBorders() throws Exception {
+        checkBorderWidths("table/collapsed-conditional-borders_header-footer.fo");
+    }
+
+    @Test
+    public void testCachedBorderWidthsWithSpans() throws Exception {
+        checkBorderWidths("table/collapsed-borders_spans.fo");
+    }
+
+    private void checkBorderWidths(String filename) throws Exception {
+        setUp(filename);
+        Iterator tableIterator = getTableIterator();
+        while (tableIterator.hasNext()) {
+            Table table = (Table) tableIterator.next();
+            for (FONodeIterator iter = table.getChildNodes(); iter.hasNext();) {
+                Object child = iter.next();
+                if (child instanceof TablePart) {
+                    checkBorderWidths((TablePart) child);
+                }
+            }
+        }
+    }
+
+    private static void checkBorderWidths(TablePart part) {
+        for (Object rowGroup : part.getRowGroups()) {
+            for (Object row : (List) rowGroup) {
+                for (Object o : (List) row) {
+                    if (o instanceof PrimaryGridUnit) {
+                        checkBorderWidths((PrimaryGridUnit) o);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkBorderWidths(PrimaryGridUnit pgu) {
+        int start = 0;
+        int end = 0;
+        List<GridUnit[]> rows = pgu.getRows();
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+            GridUnit[] gridUnits = rows.get(rowIndex);
+            for (int which = ConditionalBorder.NORMAL; which <= ConditionalBorder.REST; which++) {
+                int before = 0;
+                int after = 0;
+                for (GridUnit gu : gridUnits) {
+                    before = Math.max(before, gu.getBorderBefore(which).getRetainedWidth());
+                    after = Math.max(after, gu.getBorderAfter(which).getRetainedWidth());
+                }
+                assertEquals(before / 2, pgu.getBeforeBorderWidth(rowIndex, which));
+                assertEquals(after / 2, pgu.getAfterBorderWidth(rowIndex, which));
+            }
+            start = Math.max(start, gridUnits[0].getBorderStart().getRetainedWidth());
+            end = Math.max(end, gridUnits[gridUnits.length - 1].getBorderEnd().getRetainedWidth());
+        }
+        assertEquals(start, pgu.getStartEndBorderWidths()[0]);
+        assertEquals(end, pgu.getStartEndBorderWidths()[1]);
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.properties;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link PropertyCache}.
+ */
+public class PropertyCacheTestCase {
+
+    @Test
+    public void testFetchReturnsCachedInstance() {
+        PropertyCache<Value> cache = new PropertyCache<Value>();
+        Value first = new Value(1, 1);
+        assertSame(first, cache.fetch(first));
+        assertSame(first, cache.fetch(new Value(1, 1)));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testHashCodeCollisionsDontEvictEntries() {
+        PropertyCache<Value> cache = new PropertyCache<Value>();
+        Value a = cache.fetch(new Value(1, 42));
+        Value b = cache.fetch(new Value(2, 42));
+        assertNotSame(a, b);
+        for (int i = 0; i < 10; i++) {
+            assertSame(a, cache.fetch(new Value(1, 42)));
+            assertSame(b, cache.fetch(new Value(2, 42)));
+        }
+        assertEquals(2, cache.getMissCount());
+        assertEquals(20, cache.getHitCount());
+        assertTrue(cache.getCollisionCount() > 0);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testConcurrentFetchesReturnSameInstance() throws Exception {
+        final PropertyCache<Value> cache = new PropertyCache<Value>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<Value[]>[] futures = new Future[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(new Callable<Value[]>() {
+                    public Value[] call() {
+                        Value[] values = new Value[100];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = cache.fetch(new Value(i, i % 7));
+                        }
+                        return values;
+                    }
+                });
+            }
+            Value[] reference = futures[0].get();
+            for (Future<Value[]> future : futures) {
+                Value[] values = future.get();
+                for (int i = 0; i < values.length; i++) {
+                    assertSame(reference[i], values[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static final class Value {
+
+        private final int value;
+
+        private final int hash;
+
+        Value(int value, int hash) {
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Value && ((Value) o).value == value;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+
+/**
+ * Tests the binary cache file of {@link FontCache}.
+ */
+public class FontCacheTestCase {
+
+    private InternalResourceResolver resolver =
+            ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI());
+
+    private File cacheFile;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheFile = File.createTempFile("fop-fonts", ".cache");
+        cacheFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+    }
+
+    private EmbedFontInfo createFontInfo(String name) throws Exception {
+        URI uri = new File("test/resources/fonts/ttf/" + name + ".ttf").toURI();
+        EmbedFontInfo fontInfo = new EmbedFontInfo(new FontUris(uri, null), true, false,
+                Collections.singletonList(new FontTriplet(name, "normal", 400)), null,
+                EncodingMode.CID, EmbeddingMode.SUBSET, false, false, true);
+        fontInfo.setPostScriptName(name);
+        return fontInfo;
+    }
+
+    private static String getEmbedUrl(EmbedFontInfo fontInfo) {
+        return fontInfo.getEmbedURI().toASCIIString();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        EmbedFontInfo fontInfo = createFontInfo("DejaVuLGCSerif");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(fontInfo, resolver);
+        fontCache.registerFailedFont("file:/broken.ttf", 42);
+        assertTrue(fontCache.hasChanged());
+        fontCache.saveTo(cacheFile);
+        assertFalse(fontCache.hasChanged());
+
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        assertNotNull(loaded);
+        assertTrue(loaded.containsFont(fontInfo));
+        assertTrue(loaded.isFailedFont("file:/broken.ttf", 42));
+        long lastModified = loaded.getFontFile(getEmbedUrl(fontInfo)).lastModified();
+        EmbedFontInfo[] fontInfos = loaded.getFontInfos(getEmbedUrl(fontInfo), lastModified);
+        assertEquals(1, fontInfos.length);
+        assertEquals("DejaVuLGCSerif", fontInfos[0].getPostScriptName());
+        assertEquals(fontInfo.getEmbedURI(), fontInfos[0].getEmbedURI());
+        assertEquals(EncodingMode.CID, fontInfos[0].getEncodingMode());
+        assertEquals(EmbeddingMode.SUBSET, fontInfos[0].getEmbeddingMode());
+        assertTrue(fontInfos[0].getKerning());
+        assertTrue(fontInfos[0].getUseSVG());
+        assertEquals(fontInfo.getFontTriplets(), fontInfos[0].getFontTriplets());
+    }
+
+    @Test
+    public void testChangesAreAppended() throws Exception {
+        EmbedFontInfo first = createFontInfo("DejaVuLGCSerif");
+        EmbedFontInfo second = createFontInfo("glb12");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(first, resolver);
+        fontCache.saveTo(cacheFile);
+        long length = cacheFile.length();
+
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        loaded.addFont(second, resolver);
+        loaded.removeFont(getEmbedUrl(first));
+        loaded.saveTo(cacheFile);
+        assertTrue(cacheFile.length() > length);
+
+        loaded = FontCache.loadFrom(cacheFile);
+        assertFalse(loaded.containsFont(first));
+        assertTrue(loaded.containsFont(second));
+    }
+
+    @Test
+    public void testCorruptTailIsIgnored() throws Exception {
+        EmbedFontInfo first = createFontInfo("DejaVuLGCSerif");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(first, resolver);
+        fontCache.saveTo(cacheFile);
+        long length = cacheFile.length();
+        fontCache.addFont(createFontInfo("glb12"), resolver);
+        fontCache.saveTo(cacheFile);
+
+        RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+        try {
+            raf.seek(cacheFile.length() - 1);
+            int checksum = raf.read();
+            raf.seek(cacheFile.length() - 1);
+            raf.write(checksum ^ 0xff);
+        } finally {
+            raf.close();
+        }
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        assertTrue(loaded.containsFont(first));
+        assertFalse(loaded.containsFont(createFontInfo("glb12")));
+
+        raf = new RandomAccessFile(cacheFile, "rw");
+        try {
+            raf.setLength(length + 3);
+        } finally {
+            raf.close();
+        }
+        loaded = FontCache.loadFrom(cacheFile);
+        assertTrue(loaded.containsFont(first));
+    }
+
+    @Test
+    public void testAppendAfterCorruptTail() throws Exception {
+        EmbedFontInfo first = createFontInfo("DejaVuLGCSerif");
+        EmbedFontInfo second = createFontInfo("glb12");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(first, resolver);
+        fontCache.saveTo(cacheFile);
+        long length = cacheFile.length();
+
+        RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+        try {
+            raf.seek(length);
+            raf.writeInt(1000);
+            raf.write(new byte[] {1, 2, 3});
+        } finally {
+            raf.close();
+        }
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        loaded.addFont(second, resolver);
+        loaded.saveTo(cacheFile);
+
+        loaded = FontCache.loadFrom(cacheFile);
+        assertTrue(loaded.containsFont(first));
+        assertTrue(loaded.containsFont(second));
+    }
+
+    @Test
+    public void testRewriteReplacesContents() throws Exception {
+        EmbedFontInfo first = createFontInfo("DejaVuLGCSerif");
+        EmbedFontInfo second = createFontInfo("glb12");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(first, resolver);
+        fontCache.addFont(second, resolver);
+        fontCache.saveTo(cacheFile);
+        long length = cacheFile.length();
+
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        loaded.clear();
+        loaded.addFont(second, resolver);
+        loaded.saveTo(cacheFile);
+        assertTrue(cacheFile.length() < length);
+
+        loaded = FontCache.loadFrom(cacheFile);
+        assertFalse(loaded.containsFont(first));
+        assertTrue(loaded.containsFont(second));
+    }
+
+    @Test
+    public void testLoadedCacheSurvivesRewrite() throws Exception {
+        EmbedFontInfo first = createFontInfo("DejaVuLGCSerif");
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(first, resolver);
+        fontCache.saveTo(cacheFile);
+
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        fontCache.clear();
+        fontCache.addFont(createFontInfo("glb12"), resolver);
+        fontCache.saveTo(cacheFile);
+        assertEquals(1, loaded.getFontFile(getEmbedUrl(first)).getEmbedFontInfos().length);
+
+        loaded.addFont(createFontInfo("Gara"), resolver);
+        loaded.saveTo(cacheFile);
+        loaded = FontCache.loadFrom(cacheFile);
+        assertFalse(loaded.containsFont(first));
+        assertTrue(loaded.containsFont(createFontInfo("glb12")));
+        assertTrue(loaded.containsFont(createFontInfo("Gara")));
+    }
+
+    @Test
+    public void testLookupByTriplet() throws Exception {
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(createFontInfo("DejaVuLGCSerif"), resolver);
+        fontCache.addFont(createFontInfo("glb12"), resolver);
+        fontCache.saveTo(cacheFile);
+
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        EmbedFontInfo[] fontInfos = loaded.getFontInfos(new FontTriplet("glb12", "normal", 400));
+        assertEquals(1, fontInfos.length);
+        assertEquals("glb12", fontInfos[0].getPostScriptName());
+        assertEquals(0, loaded.getFontInfos(new FontTriplet("glb12", "italic", 400)).length);
+
+        loaded.removeFont(getEmbedUrl(fontInfos[0]));
+        loaded.addFont(createFontInfo("Gara"), resolver);
+        assertEquals(0, loaded.getFontInfos(new FontTriplet("glb12", "normal", 400)).length);
+        assertEquals(1, loaded.getFontInfos(new FontTriplet("Gara", "normal", 400)).length);
+    }
+
+    @Test
+    public void testCachesSharingAFile() throws Exception {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final String name = "font" + i;
+            Thread thread = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 20; j++) {
+                            FontCache fontCache = FontCache.loadFrom(cacheFile);
+                            if (fontCache == null) {
+                                fontCache = new FontCache();
+                            }
+                            fontCache.addFont(createFontInfo(name + "-" + j), resolver);
+                            fontCache.saveTo(cacheFile);
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(Collections.emptyList(), errors);
+        FontCache loaded = FontCache.loadFrom(cacheFile);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 20; j++) {
+                assertTrue(loaded.containsFont(createFontInfo("font" + i + "-" + j)));
+            }
+        }
+    }
+
+    @Test
+    public void testOldCacheFileIsDiscarded() throws Exception {
+        FileOutputStream out = new FileOutputStream(cacheFile);
+        try {
+            out.write(new byte[] {(byte) 0xac, (byte) 0xed, 0, 5});
+        } finally {
+            out.close();
+        }
+        assertNull(FontCache.loadFrom(cacheFile));
+        FontCache fontCache = new FontCache();
+        fontCache.addFont(createFontInfo("DejaVuLGCSerif"), resolver);
+        fontCache.saveTo(cacheFile);
+        assertNotNull(FontCache.loadFrom(cacheFile));
+    }
+}
@@ -23,6 +23,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -64,4 +66,34 @@ public class FontInfoFinderTestCase {
         EmbedFontInfo[] embedFontInfos = new FontInfoFinder().find(new File(".").toURI(), rr, null);
         Assert.assertNull(embedFontInfos);
     }
+
+    @Test
+    public void testFindSeveralFonts() throws Exception {
+        InternalResourceResolver rr = ResourceResolverFactory.createDefaultInternalResourceResolver(
+                new File(".").toURI());
+        File broken = File.createTempFile("fop", ".ttf");
+        List<URI> fontURIs = Arrays.asList(new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf").toURI(),
+                broken.toURI(),
+                new File("test/resources/fonts/ttf/glb12.ttf").toURI(),
+                new File("test/resources/fonts/ttf/DroidSansMono.ttf").toURI());
+        FontCache fontCache = new FontCache();
+        try {
+            List<EmbedFontInfo[]> results = new FontInfoFinder().find(fontURIs, rr, fontCache);
+            Assert.assertEquals(fontURIs.size(), results.size());
+            Assert.assertNull(results.get(1));
+            Assert.assertTrue(fontCache.isFailedFont(broken.toURI().toASCIIString(),
+                    FontCache.getLastModified(broken.toURI())));
+            for (int i : new int[] {0, 2, 3}) {
+                EmbedFontInfo[] expected = new FontInfoFinder().find(fontURIs.get(i), rr, null);
+                Assert.assertEquals(1, results.get(i).length);
+                Assert.assertEquals(expected[0].getPostScriptName(), results.get(i)[0].getPostScriptName());
+                Assert.assertEquals(expected[0].getFontTriplets(), results.get(i)[0].getFontTriplets());
+                Assert.assertTrue(results.get(i)[0].getKerning());
+                Assert.assertTrue(results.get(i)[0].getAdvanced());
+                Assert.assertTrue(fontCache.containsFont(results.get(i)[0]));
+            }
+        } finally {
+            broken.delete();
+        }
+    }
 }
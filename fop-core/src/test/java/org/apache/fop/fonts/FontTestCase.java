@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+import org.apache.fop.fonts.base14.Helvetica;
+
+/**
+ * Tests the character width table of {@link Font}.
+ */
+public class FontTestCase {
+
+    @Test
+    public void testCachedWidthsMatchMetrics() {
+        Helvetica metrics = new Helvetica(true);
+        Font font = new Font("F1", null, metrics, 12000);
+        for (int pass = 0; pass < 2; pass++) {
+            for (char c = 'A'; c <= 'z'; c++) {
+                assertEquals(metrics.getWidth(metrics.mapChar(c), 12000) / 1000, font.getCharWidth(c));
+            }
+        }
+        assertEquals(font.getCharWidth(' '), font.getCharWidth('\u00A0'));
+        assertEquals(font.getCharWidth(' '), font.getCharWidth((int) '\t'));
+    }
+
+    @Test
+    public void testZeroWidthsAndSpaceFallbacksAreCached() {
+        Font font = new Font("F1", null, new Helvetica(true), 10000);
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals(0, font.getCharWidth('\u200B'));
+            assertEquals(5000, font.getCharWidth('\u2002'));
+            assertEquals(2000, font.getCharWidth('\u2009'));
+            assertEquals(font.getCharWidth('0'), font.getCharWidth('\u2007'));
+        }
+    }
+
+    @Test
+    public void testCachedWidthsMatchUncachedWidths() throws Exception {
+        assertSameWidths(new Font("F1", null, new Helvetica(true), 12000));
+        assertSameWidths(new Font("F2", null, loadFont(EncodingMode.SINGLE_BYTE), 11000));
+        assertSameWidths(new Font("F3", null, loadFont(EncodingMode.CID), 9000));
+    }
+
+    private static CustomFont loadFont(EncodingMode encodingMode) throws Exception {
+        InternalResourceResolver resolver
+                = ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI());
+        File file = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        CustomFont font = FontLoader.loadFont(new FontUris(file.toURI(), null), null, true,
+                EmbeddingMode.AUTO, encodingMode, true, true, resolver, false, false, true);
+        assertTrue(encodingMode == EncodingMode.CID
+                ? font instanceof MultiByteFont : font instanceof SingleByteFont);
+        return font;
+    }
+
+    private static void assertSameWidths(Font font) {
+        // the second pass reads the widths from the table
+        for (int pass = 0; pass < 2; pass++) {
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                assertEquals(font.computeCharWidth((char) c), font.getCharWidth((char) c));
+            }
+        }
+    }
+}
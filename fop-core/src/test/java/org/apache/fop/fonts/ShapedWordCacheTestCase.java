@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+import org.apache.fop.complexscripts.util.CharAssociation;
+
+/**
+ * Tests the caching of shaped words by {@link MultiByteFont}.
+ */
+public class ShapedWordCacheTestCase {
+
+    private InternalResourceResolver resolver =
+            ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI());
+
+    private MultiByteFont font;
+
+    @Before
+    public void setUp() throws Exception {
+        File file = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        font = (MultiByteFont) FontLoader.loadFont(new FontUris(file.toURI(), null), null, true,
+                EmbeddingMode.AUTO, EncodingMode.CID, true, true, resolver, false, false, true);
+    }
+
+    @Test
+    public void testSubstitutionIsCached() {
+        assertTrue(font.performsSubstitution());
+        ShapedWordCache cache = font.getShapedWordCache();
+        List<CharAssociation> first = new ArrayList<CharAssociation>();
+        String expected = font.performSubstitution("office", "latn", "dflt", first, false).toString();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        List<CharAssociation> second = new ArrayList<CharAssociation>();
+        assertEquals(expected, font.performSubstitution("office", "latn", "dflt", second, false).toString());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getOffset(), second.get(i).getOffset());
+            assertEquals(first.get(i).getCount(), second.get(i).getCount());
+            assertNotSame(first.get(i), second.get(i));
+        }
+
+        font.performSubstitution("office", "latn", "dflt", null, false);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testPositioningIsCached() {
+        assertTrue(font.performsPositioning());
+        ShapedWordCache cache = font.getShapedWordCache();
+        int[][] first = font.performPositioning("AVAV", "latn", "dflt", 12000);
+        int[][] second = font.performPositioning("AVAV", "latn", "dflt", 12000);
+        assertEquals(1, cache.getHitCount());
+        assertNotSame(first, second);
+        for (int i = 0; i < first.length; i++) {
+            assertArrayEquals(first[i], second[i]);
+        }
+        // callers adjust the returned arrays in place
+        first[0][0] += 1000;
+        assertArrayEquals(second[0], font.performPositioning("AVAV", "latn", "dflt", 12000)[0]);
+
+        font.performPositioning("AVAV", "latn", "dflt", 10000);
+        assertEquals(2, cache.getMissCount());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.text.CharacterIterator;
+import java.text.StringCharacterIterator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.apache.fop.fonts.base14.Helvetica;
+import org.apache.fop.traits.MinOptMax;
+
+/**
+ * Tests the caching of measured word widths in {@link GlyphMapping}.
+ */
+public class WordWidthCacheTestCase {
+
+    @Test
+    public void testKernedWordIsMeasuredOnce() {
+        Font font = new Font("F1", null, new Helvetica(true), 12000);
+        WordWidthCache cache = font.getWordWidthCache();
+        String text = "AVA AVA";
+        MinOptMax letterSpace = MinOptMax.getInstance(100);
+
+        MinOptMax[] firstAdjust = new MinOptMax[text.length() + 1];
+        GlyphMapping first = GlyphMapping.doGlyphMapping(new StringFragment(text), 0, 3, font,
+                letterSpace, firstAdjust, (char) 0, ' ', false, 0, false, false, false);
+        assertEquals(1, cache.getMissCount());
+
+        MinOptMax[] secondAdjust = new MinOptMax[text.length() + 1];
+        GlyphMapping second = GlyphMapping.doGlyphMapping(new StringFragment(text), 4, 7, font,
+                letterSpace, secondAdjust, (char) 0, ' ', false, 0, false, false, false);
+        assertEquals(1, cache.getHitCount());
+
+        assertEquals(first.areaIPD, second.areaIPD);
+        assertEquals(first.letterSpaceCount, second.letterSpaceCount);
+        assertNotNull(firstAdjust[1]);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(firstAdjust[i], secondAdjust[i + 4]);
+        }
+        int expected = 0;
+        for (int i = 0; i < 3; i++) {
+            expected += font.getCharWidth(text.charAt(i));
+        }
+        expected += font.getKernValue('A', 'V') + font.getKernValue('V', 'A') + 2 * 100;
+        assertEquals(MinOptMax.getInstance(expected), first.areaIPD);
+    }
+
+    @Test
+    public void testPrecedingCharIsPartOfKey() {
+        Font font = new Font("F1", null, new Helvetica(true), 12000);
+        MinOptMax[] adjust = new MinOptMax[4];
+        GlyphMapping.doGlyphMapping(new StringFragment("AVA"), 1, 3, font,
+                MinOptMax.ZERO, adjust, (char) 0, (char) 0, false, 0, false, false, false);
+        GlyphMapping.doGlyphMapping(new StringFragment("AVA"), 1, 3, font,
+                MinOptMax.ZERO, adjust, 'A', (char) 0, false, 0, false, false, false);
+        assertEquals(2, font.getWordWidthCache().getMissCount());
+        assertEquals(2, font.getWordWidthCache().size());
+    }
+
+    private static final class StringFragment implements TextFragment {
+
+        private final String text;
+
+        StringFragment(String text) {
+            this.text = text;
+        }
+
+        public CharacterIterator getIterator() {
+            return new StringCharacterIterator(text);
+        }
+
+        public int getBeginIndex() {
+            return 0;
+        }
+
+        public int getEndIndex() {
+            return text.length();
+        }
+
+        public String getScript() {
+            return null;
+        }
+
+        public String getLanguage() {
+            return null;
+        }
+
+        public int getBidiLevel() {
+            return -1;
+        }
+
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        public CharSequence subSequence(int startIndex, int endIndex) {
+            return text.subSequence(startIndex, endIndex);
+        }
+    }
+}
@@ -21,17 +21,33 @@ package org.apache.fop.fonts.truetype;
 
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import org.apache.xmlgraphics.io.Resource;
+import org.apache.xmlgraphics.io.ResourceResolver;
+
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+
 /**
  * A test class for org.apache.fop.truetype.FontFileReader
  */
@@ -301,4 +317,84 @@ public class FontFileReaderTestCase {
         byte[] retrievedBytes = fontReader.getBytes(0, 256);
         assertTrue(Arrays.equals(byteArray, retrievedBytes));
     }
+
+    /**
+     * Test that a reader over a shared buffer reads the same data and makes a private copy
+     * before modifying it.
+     * @throws IOException exception
+     */
+    @Test
+    public void testSharedBuffer() throws IOException {
+        ByteBuffer shared = ByteBuffer.wrap(byteArray.clone()).asReadOnlyBuffer();
+        FontFileReader sharedReader = new FontFileReader(shared);
+        assertTrue(sharedReader.isShared());
+        assertEquals(256, sharedReader.getFileSize());
+        assertEquals(0x0001, sharedReader.readTTFUShort());
+        assertEquals(0x02030405, sharedReader.readTTFLong());
+        assertArrayEquals(fontReader.getBytes(10, 20), sharedReader.getBytes(10, 20));
+        sharedReader.writeTTFUShort(0, 0xffff);
+        assertFalse(sharedReader.isShared());
+        assertEquals(0xffff, sharedReader.readTTFUShort(0));
+        assertEquals(0, shared.get(0));
+    }
+
+    /**
+     * Test that font files are read through the resource resolver unless memory-mapping
+     * has been enabled.
+     * @throws IOException exception
+     */
+    @Test
+    public void testFontFileIsReadThroughResolverByDefault() throws IOException {
+        final ResourceResolver defaultResolver = ResourceResolverFactory.createDefaultResourceResolver();
+        final List<URI> requested = new ArrayList<URI>();
+        ResourceResolver countingResolver = new ResourceResolver() {
+            public Resource getResource(URI uri) throws IOException {
+                requested.add(uri);
+                return defaultResolver.getResource(uri);
+            }
+
+            public OutputStream getOutputStream(URI uri) throws IOException {
+                return defaultResolver.getOutputStream(uri);
+            }
+        };
+        InternalResourceResolver resolver = ResourceResolverFactory.createInternalResourceResolver(
+                new File(".").toURI(), countingResolver);
+        URI uri = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf").toURI();
+        FontFileReader reader = FontFileReader.getInstance(resolver, uri);
+        assertFalse(reader.isShared());
+        assertEquals(Collections.singletonList(uri), requested);
+        assertEquals(0x00010000, reader.readTTFULong());
+    }
+
+    /**
+     * Test that local font files are mapped once and shared between readers when
+     * memory-mapping is enabled.
+     * @throws IOException exception
+     */
+    @Test
+    public void testLocalFontFileIsShared() throws IOException {
+        File fontFile = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        InternalResourceResolver resolver
+                = ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI());
+        URI uri = fontFile.toURI();
+        SharedFontFiles.getInstance().setEnabled(true);
+        try {
+            FontFileReader first = FontFileReader.getInstance(resolver, uri);
+            FontFileReader second = FontFileReader.getInstance(resolver, uri);
+            assertTrue(first.isShared());
+            assertTrue(second.isShared());
+            InputStream fontStream = new FileInputStream(fontFile);
+            try {
+                FontFileReader copy = new FontFileReader(fontStream);
+                assertArrayEquals(copy.getAllBytes(), first.getAllBytes());
+            } finally {
+                fontStream.close();
+            }
+            assertFalse(first.isShared());
+            assertTrue(second.isShared());
+            assertEquals(0x00010000, second.readTTFULong());
+        } finally {
+            SharedFontFiles.getInstance().setEnabled(false);
+        }
+    }
 }
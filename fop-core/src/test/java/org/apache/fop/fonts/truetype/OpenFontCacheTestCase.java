@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.truetype;
+
+import java.io.File;
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.fop.apps.io.InternalResourceResolver;
+import org.apache.fop.apps.io.ResourceResolverFactory;
+import org.apache.fop.fonts.MultiByteFont;
+
+/**
+ * Tests {@link OpenFontCache}.
+ */
+public class OpenFontCacheTestCase {
+
+    private final InternalResourceResolver resolver
+            = ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI());
+
+    @Before
+    public void setUp() {
+        OpenFontCache.getInstance().setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        OpenFontCache.getInstance().setMaxSize(OpenFontCache.DEFAULT_MAX_SIZE);
+        OpenFontCache.getInstance().setEnabled(false);
+    }
+
+    private OpenFont getCachedFont(URI uri) {
+        OpenFontCache cache = OpenFontCache.getInstance();
+        return cache.get(cache.createKey(uri, null, true, true));
+    }
+
+    @Test
+    public void testParsedFontIsShared() throws Exception {
+        URI uri = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf").toURI();
+        MultiByteFont first = (MultiByteFont) new OFFontLoader(uri, resolver).getFont();
+        MultiByteFont second = (MultiByteFont) new OFFontLoader(uri, resolver).getFont();
+        assertEquals(1, OpenFontCache.getInstance().size());
+        assertNotSame(first, second);
+        assertSame(first.getGSUB(), second.getGSUB());
+        assertArrayEquals(first.getWidths(), second.getWidths());
+    }
+
+    @Test
+    public void testCacheIsDisabledByDefault() throws Exception {
+        OpenFontCache.getInstance().setEnabled(false);
+        URI uri = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf").toURI();
+        new OFFontLoader(uri, resolver).getFont();
+        assertEquals(0, OpenFontCache.getInstance().size());
+        assertNull(OpenFontCache.getInstance().createKey(uri, null, true, true));
+    }
+
+    @Test
+    public void testCachedFontDoesNotRetainFontFile() throws Exception {
+        URI uri = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf").toURI();
+        new OFFontLoader(uri, resolver).getFont();
+        OpenFont otf = getCachedFont(uri);
+        assertNotNull(otf);
+        assertNull(otf.fontFile);
+    }
+
+    @Test
+    public void testCacheIsBoundedBySize() throws Exception {
+        File first = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        File second = new File("test/resources/fonts/ttf/DroidSansMono.ttf");
+        OpenFontCache.getInstance().setMaxSize(first.length() + second.length() - 1);
+        new OFFontLoader(first.toURI(), resolver).getFont();
+        assertEquals(first.length(), OpenFontCache.getInstance().getTotalSize());
+        new OFFontLoader(second.toURI(), resolver).getFont();
+        assertEquals(1, OpenFontCache.getInstance().size());
+        assertEquals(second.length(), OpenFontCache.getInstance().getTotalSize());
+        assertNotNull(getCachedFont(second.toURI()));
+
+        OpenFontCache.getInstance().setMaxSize(second.length() - 1);
+        assertEquals(0, OpenFontCache.getInstance().size());
+        assertEquals(0, OpenFontCache.getInstance().getTotalSize());
+    }
+
+    @Test
+    public void testRemoteFontsAreNotCached() throws Exception {
+        assertNull(OpenFontCache.getInstance().createKey(new URI("http://localhost/font.ttf"), null,
+                true, true));
+    }
+}
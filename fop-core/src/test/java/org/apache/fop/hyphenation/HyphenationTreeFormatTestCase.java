@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.hyphenation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link HyphenationTreeFormat}.
+ */
+public class HyphenationTreeFormatTestCase {
+
+    private static final String[] WORDS = {"hello", "oello", "hollo", "lohelo", "x"};
+
+    private HyphenationTree createTree() throws HyphenationException {
+        HyphenationTree hTree = new HyphenationTree();
+        hTree.loadPatterns(new File("test/resources/fop/fr.xml").getAbsolutePath());
+        ArrayList exception = new ArrayList();
+        exception.add("hel");
+        exception.add(new Hyphen("-"));
+        exception.add("lo");
+        hTree.addException("hollo", exception);
+        return hTree;
+    }
+
+    private byte[] write(HyphenationTree hTree) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HyphenationTreeFormat.write(hTree, out);
+        return out.toByteArray();
+    }
+
+    private void assertSameHyphenation(HyphenationTree expected, HyphenationTree actual) {
+        for (String word : WORDS) {
+            assertEquals(String.valueOf(expected.hyphenate(word, 1, 1)),
+                    String.valueOf(actual.hyphenate(word, 1, 1)));
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.classmap.size(), actual.classmap.size());
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws Exception {
+        HyphenationTree hTree = createTree();
+        HyphenationTree copy = HyphenationTreeFormat.read(new ByteArrayInputStream(write(hTree)));
+        assertSameHyphenation(hTree, copy);
+        assertEquals("hol-lo", copy.hyphenate("hollo", 1, 1).toString());
+    }
+
+    @Test
+    public void testFormatDetection() throws Exception {
+        InputStream in = HyphenationTreeFormat.markable(new ByteArrayInputStream(write(createTree())));
+        assertTrue(HyphenationTreeFormat.isCompiledFormat(in));
+        assertTrue(HyphenationTreeFormat.isCompiledFormat(in));
+        assertFalse(HyphenationTreeFormat.isCompiledFormat(
+                HyphenationTreeFormat.markable(new ByteArrayInputStream(new byte[] {(byte) 0xAC, (byte) 0xED}))));
+    }
+
+    @Test
+    public void testInvalidDataIsRejected() throws Exception {
+        byte[] data = write(createTree());
+        ByteBuffer unsupported = ByteBuffer.wrap(data.clone());
+        unsupported.putInt(8, HyphenationTreeFormat.VERSION + 1);
+        try {
+            HyphenationTreeFormat.read(unsupported);
+            fail("Unsupported version must be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+        byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        try {
+            HyphenationTreeFormat.read(new ByteArrayInputStream(truncated));
+            fail("Truncated data must be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fop.layoutmgr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.fo.Constants;
+import org.apache.fop.layoutmgr.BreakingAlgorithm.KnuthNode;
+
+/**
+ * Tests {@link KnuthNodePool} and the statistics reported by {@link BreakingAlgorithm}.
+ */
+public class KnuthNodePoolTestCase {
+
+    @Test
+    public void testReleasedNodesAreReused() {
+        KnuthNodePool pool = new KnuthNodePool();
+        KnuthNode first = pool.obtain(1, 1, 1, 10, 0, 0, 0, 0, 0, 0, 0, null);
+        KnuthNode second = pool.obtain(2, 2, 1, 20, 0, 0, 0, 0, 0, 0, 5, first);
+        second.next = first;
+        assertEquals(2, pool.getUsedCount());
+        pool.releaseAll();
+        assertEquals(0, pool.getUsedCount());
+        assertNull(second.previous);
+        assertNull(second.next);
+
+        KnuthNode reused = pool.obtain(3, 4, 2, 30, 1, 2, 0.5, 3, 4, 5, 6, null);
+        assertSame(first, reused);
+        assertEquals(3, reused.position);
+        assertEquals(4, reused.line);
+        assertEquals(2, reused.fitness);
+        assertEquals(30, reused.totalWidth);
+        assertEquals(0.5, reused.adjustRatio, 0);
+        assertEquals(5, reused.difference);
+        assertEquals(6, reused.totalDemerits, 0);
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    public void testPooledBreakingGivesSameBreaks() {
+        KnuthSequence sequence = createSequence(20);
+        TestBreakingAlgorithm unpooled = new TestBreakingAlgorithm(330);
+        int lines = unpooled.findBreakingPoints(sequence, 1, false, BreakingAlgorithm.ALL_BREAKS);
+
+        KnuthNodePool pool = new KnuthNodePool();
+        for (int run = 0; run < 3; run++) {
+            TestBreakingAlgorithm pooled = new TestBreakingAlgorithm(330);
+            pooled.setNodePool(pool);
+            assertEquals(lines, pooled.findBreakingPoints(sequence, 1, false, BreakingAlgorithm.ALL_BREAKS));
+            assertEquals(unpooled.breaks, pooled.breaks);
+            pool.releaseAll();
+        }
+        assertTrue(pool.getReusedCount() >= 2 * pool.getCreatedCount());
+    }
+
+    @Test
+    public void testListenerReceivesStatistics() {
+        final List<BreakingAlgorithm> notified = new ArrayList<BreakingAlgorithm>();
+        final List<KnuthSequence> sequences = new ArrayList<KnuthSequence>();
+        KnuthSequence sequence = createSequence(20);
+        TestBreakingAlgorithm algorithm = new TestBreakingAlgorithm(330);
+        BreakingAlgorithmListener listener = new BreakingAlgorithmListener() {
+            public void breakingFinished(BreakingAlgorithm alg, KnuthSequence seq, int breakCount) {
+                sequences.add(seq);
+                assertEquals(alg.getMaxActiveNodeCount() > 0, breakCount > 0);
+                notified.add(alg);
+            }
+        };
+        algorithm.setListener(listener);
+        int lines = algorithm.findBreakingPoints(sequence, 1, false, BreakingAlgorithm.ALL_BREAKS);
+        assertEquals(1, notified.size());
+        assertSame(algorithm, notified.get(0));
+        assertSame(sequence, sequences.get(0));
+        assertTrue(lines > 1);
+        assertTrue(algorithm.getFeasibleBreakCount() >= lines);
+        assertTrue(algorithm.getMaxActiveNodeCount() > 0);
+        assertEquals(0, algorithm.getRestartCount());
+
+        // a box wider than the line forces a restart
+        KnuthSequence overflowing = createSequence(3);
+        overflowing.set(2, new KnuthBox(1000, null, false));
+        algorithm = new TestBreakingAlgorithm(330);
+        algorithm.setListener(listener);
+        algorithm.findBreakingPoints(overflowing, 1, true, BreakingAlgorithm.ALL_BREAKS);
+        assertEquals(2, notified.size());
+        assertSame(overflowing, sequences.get(1));
+        assertTrue(algorithm.getRestartCount() > 0);
+    }
+
+    private static KnuthSequence createSequence(int boxCount) {
+        KnuthSequence sequence = new BlockKnuthSequence();
+        for (int i = 0; i < boxCount; i++) {
+            if (i > 0) {
+                sequence.add(new KnuthGlue(10, 50, 5, null, false));
+            }
+            sequence.add(new KnuthBox(100, null, false));
+        }
+        sequence.add(new KnuthPenalty(0, KnuthElement.INFINITE, false, null, false));
+        sequence.add(new KnuthGlue(0, 10000, 0, null, false));
+        sequence.add(new KnuthPenalty(0, -KnuthElement.INFINITE, false, null, false));
+        return sequence;
+    }
+
+    private static final class TestBreakingAlgorithm extends BreakingAlgorithm {
+
+        private final List<Integer> breaks = new ArrayList<Integer>();
+
+        TestBreakingAlgorithm(int lineWidth) {
+            super(Constants.EN_START, Constants.EN_START, true, false, 0);
+            this.lineWidth = lineWidth;
+        }
+
+        @Override
+        public void updateData1(int total, double demerits) {
+        }
+
+        @Override
+        public void updateData2(KnuthNode bestActiveNode, KnuthSequence sequence, int total) {
+            breaks.add(bestActiveNode.position);
+        }
+
+        @Override
+        protected int filterActiveNodes() {
+            KnuthNode bestActiveNode = null;
+            for (int i = startLine; i < endLine; i++) {
+                for (KnuthNode node = getNode(i); node != null; node = node.next) {
+                    bestActiveNode = compareNodes(bestActiveNode, node);
+                    if (node != bestActiveNode) {
+                        removeNode(i, node);
+                    }
+                }
+            }
+            return bestActiveNode.line;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fop.layoutmgr;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.fo.Constants;
+import org.apache.fop.layoutmgr.BreakingAlgorithm.KnuthNode;
+import org.apache.fop.traits.MinOptMax;
+
+/**
+ * Tests the windowed mode of {@link PageBreakingAlgorithm}.
+ */
+public class PageBreakingWindowTestCase {
+
+    @Test
+    public void testWindowBoundsActiveNodes() {
+        PageBreakingAlgorithm optimal = createAlgorithm(0);
+        int optimalPageCount = optimal.findBreakingPoints(createSequence(), 1, true,
+                BreakingAlgorithm.ALL_BREAKS);
+
+        PageBreakingAlgorithm windowed = createAlgorithm(2);
+        int windowedPageCount = windowed.findBreakingPoints(createSequence(), 1, true,
+                BreakingAlgorithm.ALL_BREAKS);
+
+        assertTrue(optimalPageCount > 10);
+        assertEquals(windowedPageCount, windowed.getPageBreaks().size());
+        assertTrue(windowedPageCount >= optimalPageCount);
+        assertTrue(windowed.getMaxActiveNodeCount() < optimal.getMaxActiveNodeCount());
+    }
+
+    @Test
+    public void testLargeWindowIsOptimal() {
+        PageBreakingAlgorithm optimal = createAlgorithm(0);
+        optimal.findBreakingPoints(createSequence(), 1, true, BreakingAlgorithm.ALL_BREAKS);
+        PageBreakingAlgorithm windowed = createAlgorithm(1000);
+        windowed.findBreakingPoints(createSequence(), 1, true, BreakingAlgorithm.ALL_BREAKS);
+        assertEquals(optimal.getPageBreaks().size(), windowed.getPageBreaks().size());
+        for (int i = 0; i < optimal.getPageBreaks().size(); i++) {
+            assertEquals(optimal.getPageBreaks().get(i).getLeafPos(),
+                    windowed.getPageBreaks().get(i).getLeafPos());
+        }
+    }
+
+    @Test
+    public void testCommitComparesNodesOnTheSamePage() {
+        PageBreakingAlgorithm algorithm = createAlgorithm(1);
+        algorithm.initialize();
+        algorithm.par = createSequence();
+        KnuthNode root = addNode(algorithm, 0, 0, 0, null);
+        algorithm.removeNode(0, root);
+        KnuthNode a1 = addNode(algorithm, 3, 1, 10, root);
+        KnuthNode b1 = addNode(algorithm, 6, 1, 50, root);
+        algorithm.removeNode(1, a1);
+        algorithm.removeNode(1, b1);
+        KnuthNode a2 = addNode(algorithm, 9, 2, 20, a1);
+        KnuthNode b2 = addNode(algorithm, 12, 2, 60, b1);
+        algorithm.removeNode(2, b2);
+        addNode(algorithm, 15, 3, 100, a2);
+        KnuthNode b3 = addNode(algorithm, 18, 3, 70, b2);
+
+        // a2 has the fewest demerits, but only because it ends on an earlier page; on the
+        // last page reached, b3 is better than a3, so the breaks of b3 are kept
+        algorithm.commitBreaks(1);
+        assertEquals(1, algorithm.activeNodeCount);
+        assertSame(b3, algorithm.getNode(3));
+        assertNull(b3.next);
+        assertNull(algorithm.getNode(2));
+    }
+
+    private static KnuthNode addNode(PageBreakingAlgorithm algorithm, int position, int line,
+            double totalDemerits, KnuthNode previous) {
+        KnuthNode node = algorithm.createNode(position, line, 1, 0, 0, 0, 0, 0, 0, 0,
+                totalDemerits, previous);
+        algorithm.addNode(line, node);
+        return node;
+    }
+
+    private static PageBreakingAlgorithm createAlgorithm(int pageWindow) {
+        PageBreakingAlgorithm algorithm = new PageBreakingAlgorithm(null, null, null,
+                Constants.EN_START, Constants.EN_START, MinOptMax.ZERO, true, false, false);
+        algorithm.setConstantLineWidth(100);
+        algorithm.setPageWindow(pageWindow);
+        return algorithm;
+    }
+
+    private static KnuthSequence createSequence() {
+        KnuthSequence sequence = new BlockKnuthSequence();
+        for (int i = 0; i < 200; i++) {
+            sequence.add(new KnuthBox(7 + (i % 5) * 3, null, false));
+            sequence.add(new KnuthPenalty(0, 0, false, null, false));
+            sequence.add(new KnuthGlue(2, 3, 1, null, false));
+        }
+        sequence.add(new KnuthPenalty(0, KnuthElement.INFINITE, false, null, false));
+        sequence.add(new KnuthGlue(0, 10000, 0, null, false));
+        sequence.add(new KnuthPenalty(0, -KnuthElement.INFINITE, false, null, false));
+        return sequence;
+    }
+}
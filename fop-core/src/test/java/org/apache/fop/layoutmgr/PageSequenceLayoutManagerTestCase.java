@@ -22,6 +22,8 @@ package org.apache.fop.layoutmgr;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -103,6 +105,21 @@ public class PageSequenceLayoutManagerTestCase {
     }
 
 
+    @Test
+    public void testNodePoolIsHandedOutOnce() {
+        final PageSequence pseq = mock(PageSequence.class);
+        final Root root = mock(Root.class);
+        when(pseq.getRoot()).thenReturn(root);
+        PageSequenceLayoutManager sut = new PageSequenceLayoutManager(mock(AreaTreeHandler.class), pseq);
+
+        KnuthNodePool pool = sut.takeNodePool();
+        KnuthNodePool nestedPool = sut.takeNodePool();
+        assertNotSame(pool, nestedPool);
+        sut.returnNodePool(nestedPool);
+        sut.returnNodePool(pool);
+        assertSame(pool, sut.takeNodePool());
+    }
+
     private static Page createPageForRegionName(final String regionName) {
         final Page page = mock(Page.class);
         final SimplePageMaster spm = mock(SimplePageMaster.class);
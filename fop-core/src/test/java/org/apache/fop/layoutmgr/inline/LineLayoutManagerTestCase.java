@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr.inline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.layoutmgr.BreakingAlgorithm;
+import org.apache.fop.layoutmgr.BreakingAlgorithmListener;
+import org.apache.fop.layoutmgr.KnuthSequence;
+
+/**
+ * Checks that the line breaks reused when layout restarts on a change of IPD give the same
+ * output as breaking the paragraphs again.
+ */
+public class LineLayoutManagerTestCase {
+
+    private int lineBreakingCount;
+
+    @After
+    public void tearDown() {
+        System.clearProperty(LineLayoutManager.CACHE_LINE_LAYOUTS);
+    }
+
+    @Test
+    public void testLineBreaksAreReusedOnRestart() throws Exception {
+        String fo = createFO(40, 3);
+        String uncached = render(fo, false);
+        int uncachedCount = lineBreakingCount;
+        String cached = render(fo, true);
+        assertEquals(uncached, cached);
+        assertTrue(count(cached, "<pageViewport ") > 4);
+        assertTrue(lineBreakingCount < uncachedCount);
+    }
+
+    @Test
+    public void testRestartInsideParagraph() throws Exception {
+        // every restart happens inside one of the few long paragraphs, so their cached
+        // line breaks must be dropped
+        String fo = createFO(3, 60);
+        String uncached = render(fo, false);
+        String cached = render(fo, true);
+        assertEquals(uncached, cached);
+        assertTrue(count(cached, "<pageViewport ") > 4);
+    }
+
+    @Test
+    public void testResetChosenIndex() {
+        // reused line breaks must start from the optimum line count again
+        LineLayoutPossibilities possibilities = new LineLayoutPossibilities();
+        possibilities.addPossibility(3, 20);
+        possibilities.addPossibility(4, 10);
+        possibilities.addPossibility(5, 30);
+        assertEquals(4, possibilities.getChosenLineCount());
+        assertEquals(1, possibilities.applyLineCountAdjustment(1));
+        assertEquals(5, possibilities.getChosenLineCount());
+        possibilities.resetChosenIndex();
+        assertEquals(4, possibilities.getChosenLineCount());
+        assertEquals(4, possibilities.getOptLineCount());
+    }
+
+    private String createFO(int blocks, int sentences) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">\n"
+                + "  <fo:layout-master-set>\n"
+                + "    <fo:simple-page-master master-name=\"odd\" page-height=\"10cm\" page-width=\"12cm\">\n"
+                + "      <fo:region-body margin=\"1cm\"/>\n"
+                + "    </fo:simple-page-master>\n"
+                + "    <fo:simple-page-master master-name=\"even\" page-height=\"10cm\" page-width=\"9cm\">\n"
+                + "      <fo:region-body margin=\"1cm\"/>\n"
+                + "    </fo:simple-page-master>\n"
+                + "    <fo:page-sequence-master master-name=\"alternating\">\n"
+                + "      <fo:repeatable-page-master-alternatives>\n"
+                + "        <fo:conditional-page-master-reference master-reference=\"odd\""
+                + " odd-or-even=\"odd\"/>\n"
+                + "        <fo:conditional-page-master-reference master-reference=\"even\""
+                + " odd-or-even=\"even\"/>\n"
+                + "      </fo:repeatable-page-master-alternatives>\n"
+                + "    </fo:page-sequence-master>\n"
+                + "  </fo:layout-master-set>\n"
+                + "  <fo:page-sequence master-reference=\"alternating\">\n"
+                + "    <fo:flow flow-name=\"xsl-region-body\">\n");
+        for (int i = 0; i < blocks; i++) {
+            sb.append("      <fo:block text-align=\"justify\" space-after=\"3pt\">");
+            for (int j = 0; j < sentences + i % 3; j++) {
+                sb.append("Sentence ").append(j).append(" of paragraph ").append(i)
+                        .append(" is long enough to fill a few lines. ");
+            }
+            sb.append("</fo:block>\n");
+        }
+        sb.append("    </fo:flow>\n  </fo:page-sequence>\n</fo:root>");
+        return sb.toString();
+    }
+
+    private String render(String fo, boolean cacheLineLayouts) throws Exception {
+        System.setProperty(LineLayoutManager.CACHE_LINE_LAYOUTS, String.valueOf(cacheLineLayouts));
+        FopFactory fopFactory = FopFactory.newInstance(new File(".").toURI());
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        lineBreakingCount = 0;
+        userAgent.setBreakingAlgorithmListener(new BreakingAlgorithmListener() {
+            public void breakingFinished(BreakingAlgorithm algorithm, KnuthSequence sequence,
+                    int breakCount) {
+                if (sequence.isInlineSequence()) {
+                    lineBreakingCount++;
+                }
+            }
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_FOP_AREA_TREE, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        Source src = new StreamSource(new ByteArrayInputStream(fo.getBytes("UTF-8")));
+        Result res = new SAXResult(fop.getDefaultHandler());
+        transformer.transform(src, res);
+        return out.toString("UTF-8");
+    }
+
+    private static int count(String s, String sub) {
+        int count = 0;
+        for (int i = s.indexOf(sub); i >= 0; i = s.indexOf(sub, i + sub.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -19,12 +19,16 @@
 
 package org.apache.fop.pdf;
 
+import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test case for {@link PDFDocument}
@@ -59,4 +63,64 @@ public class PDFDocumentTestCase {
         PDFDocument.flushTextBuffer(textBuffer, out);
         assertEquals(fullString, out.toString());
     }
+
+    @Test
+    public void testStreamingOutputReleasesPages() throws IOException {
+        PDFDocument doc = new PDFDocument("");
+        doc.setStreamingOutputEnabled(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PDFResources resources = new PDFResources(doc);
+        Rectangle2D.Float box = new Rectangle2D.Float(0, 0, 100, 100);
+        for (int i = 0; i < 3; i++) {
+            PDFPage page = new PDFPage(resources, i, box, box, box, box);
+            doc.registerObject(page);
+            doc.getPages().addPage(page);
+            PDFLink link = new PDFLink(box);
+            link.setAction(new PDFUri("http://xmlgraphics.apache.org/fop/"));
+            doc.registerObject(link);
+            assertNull(doc.findLink(link));
+            doc.output(out);
+        }
+        assertTrue(doc.pageObjs.isEmpty());
+        String pageTree = doc.getPages().toPDFString();
+        assertTrue(pageTree.contains("/Count 3"));
+        for (Object kid : doc.getPages().kids) {
+            assertNull(((PDFReference) kid).getObject());
+        }
+    }
+
+    @Test
+    public void testParallelCompressionProducesSameOutput() throws IOException {
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        writeStreams(0, serial);
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        writeStreams(4, parallel);
+        assertEquals(serial.toString("ISO-8859-1"), parallel.toString("ISO-8859-1"));
+    }
+
+    private void writeStreams(int compressionThreads, ByteArrayOutputStream out) throws IOException {
+        PDFDocument doc = new PDFDocument("");
+        doc.setCompressionThreads(compressionThreads);
+        doc.outputHeader(out);
+        for (int i = 0; i < 20; i++) {
+            PDFStream stream = new PDFStream(i % 2 == 0);
+            for (int j = 0; j < 100 * i; j++) {
+                stream.add("BT /F1 12 Tf " + j + " " + i + " Td (text) Tj ET\n");
+            }
+            doc.registerObject(stream);
+            if (i % 5 == 0) {
+                doc.output(out);
+            }
+        }
+        doc.output(out);
+        doc.setCompressionThreads(0);
+    }
+
+    @Test
+    public void testLinearizationDisablesStreamingOutput() {
+        PDFDocument doc = new PDFDocument("");
+        doc.setStreamingOutputEnabled(true);
+        doc.setLinearizationEnabled(true);
+        assertFalse(doc.isStreamingOutputEnabled());
+    }
 }
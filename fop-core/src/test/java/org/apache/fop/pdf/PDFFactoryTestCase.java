@@ -30,6 +30,7 @@ import java.net.URI;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -171,6 +172,24 @@ public class PDFFactoryTestCase {
         }
     }
 
+    @Test
+    public void testMakeFontFileReadsOverriddenInputStream() throws IOException {
+        final File ttf = new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        MultiByteFont font = new MultiByteFont(
+                ResourceResolverFactory.createDefaultInternalResourceResolver(new File(".").toURI()),
+                EmbeddingMode.FULL) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return new FileInputStream(ttf);
+            }
+        };
+        font.setEmbedURI(new File("does-not-exist.ttf").toURI());
+        font.setFontName("DejaVu");
+        assertEquals(ttf.length(), font.getFontFileReader().getFileSize());
+        PDFFactory pdfFactory = new PDFFactory(new PDFDocument(""));
+        assertNotNull(pdfFactory.makeFontFile(font, "EAAAAA+"));
+    }
+
     @Test
     public void testMakeOTFFont() throws IOException {
         InternalResourceResolver rr =
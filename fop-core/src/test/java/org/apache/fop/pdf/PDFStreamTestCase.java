@@ -21,6 +21,8 @@ package org.apache.fop.pdf;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.zip.Deflater;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -63,6 +65,16 @@ public class PDFStreamTestCase {
         assertEquals("/FlateDecode", filter.getName());
     }
 
+    @Test
+    public void testCompressionParams() throws IOException {
+        PDFCompressionParams params = new PDFCompressionParams(Deflater.BEST_SPEED, Deflater.FILTERED);
+        stream.getDocument().setCompressionParamsMap(
+                Collections.singletonMap(PDFFilterList.DEFAULT_FILTER, params));
+        stream.setupFilterList();
+        FlateFilter filter = (FlateFilter) stream.getFilterList().getFilters().get(0);
+        assertEquals(params, filter.getCompressionParams());
+    }
+
     @Test
     public void customFilter() {
         PDFFilterList filters = stream.getFilterList();
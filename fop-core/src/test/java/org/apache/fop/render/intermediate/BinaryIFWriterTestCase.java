@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the binary encoding of the intermediate format written by {@link BinaryIFWriter}
+ * and read by {@link BinaryIFParser}.
+ */
+public class BinaryIFWriterTestCase {
+
+    private static final String[] VALUES = {"0", "-0", "007", "42", "-42", "2147483647",
+            "-2147483648", "2147483648", "1 2 -3", "1  2", " 1", "1 ", "", "1.5", "#ff0000",
+            "translate(10,20)", "\u00e9t\u00e9 \u4e2d\u6587\ud83d\ude00", "Z12"};
+
+    @Test
+    public void testAttributeValuesAreRestored() throws Exception {
+        AttributesImpl atts = new AttributesImpl();
+        for (int i = 0; i < VALUES.length; i++) {
+            atts.addAttribute("", "a" + i, "a" + i, "CDATA", VALUES[i]);
+        }
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longValue.append(i).append(' ');
+        }
+        atts.addAttribute("", "long", "long", "CDATA", longValue.toString());
+
+        List<String> values = roundTrip(atts, 3);
+        assertEquals(3 * atts.getLength(), values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(atts.getValue(i % atts.getLength()), values.get(i));
+        }
+    }
+
+    private static List<String> roundTrip(Attributes atts, int count) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryIFWriter writer = new BinaryIFWriter(out);
+        writer.startDocument();
+        writer.startElement(IFConstants.NAMESPACE, "document", "document", new AttributesImpl());
+        for (int i = 0; i < count; i++) {
+            writer.startElement(IFConstants.NAMESPACE, "test", "test", atts);
+            writer.endElement(IFConstants.NAMESPACE, "test", "test");
+        }
+        writer.endElement(IFConstants.NAMESPACE, "document", "document");
+        writer.endDocument();
+
+        final List<String> values = new ArrayList<String>();
+        new BinaryIFParser().parse(new ByteArrayInputStream(out.toByteArray()), new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName,
+                    Attributes attributes) throws SAXException {
+                if ("test".equals(localName)) {
+                    for (int i = 0; i < attributes.getLength(); i++) {
+                        values.add(attributes.getValue(i));
+                    }
+                }
+            }
+        });
+        return values;
+    }
+}
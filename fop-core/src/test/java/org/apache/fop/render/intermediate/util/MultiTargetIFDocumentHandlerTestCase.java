@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate.util;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.render.intermediate.IFContext;
+import org.apache.fop.render.intermediate.IFDocumentHandler;
+import org.apache.fop.render.intermediate.IFException;
+import org.apache.fop.render.intermediate.IFPainter;
+import org.apache.fop.render.intermediate.IFSerializer;
+
+/**
+ * Tests {@link MultiTargetIFDocumentHandler}.
+ */
+public class MultiTargetIFDocumentHandlerTestCase {
+
+    private static final int PAGE_COUNT = 5;
+
+    private FopFactory fopFactory;
+
+    private FOUserAgent userAgent;
+
+    @Before
+    public void setUp() {
+        fopFactory = FopFactory.newInstance(new File(".").toURI());
+        userAgent = fopFactory.newFOUserAgent();
+    }
+
+    @Test
+    public void testAllTargetsReceiveTheSameDocument() throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        IFSerializer single = createSerializer(expected);
+        renderDocument(single);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        List<IFDocumentHandler> targets = new ArrayList<IFDocumentHandler>();
+        targets.add(createSerializer(first));
+        targets.add(createSerializer(second));
+        //a small queue makes the producer wait for the targets
+        renderDocument(new MultiTargetIFDocumentHandler(targets, 1));
+
+        String reference = expected.toString("UTF-8");
+        assertTrue(reference.contains("page-sequence"));
+        assertEquals(reference, first.toString("UTF-8"));
+        assertEquals(reference, second.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFailureOfATargetIsReported() throws Exception {
+        final IFException failure = new IFException("Page failed");
+        IFSerializer failing = new IFSerializer(new IFContext(userAgent)) {
+            @Override
+            public void endPage() throws IFException {
+                throw failure;
+            }
+        };
+        failing.setResult(new StreamResult(new ByteArrayOutputStream()));
+        List<IFDocumentHandler> targets = Arrays.<IFDocumentHandler>asList(
+                createSerializer(new ByteArrayOutputStream()), failing);
+        try {
+            renderDocument(new MultiTargetIFDocumentHandler(targets));
+            fail("The failure of the target must be reported");
+        } catch (IFException ife) {
+            assertSame(failure, ife);
+        }
+    }
+
+    @Test
+    public void testLinksAndBookmarks() throws Exception {
+        //the links point forward, so their actions are completed after they are handed over
+        String fo = createFOWithLinks();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        renderFO(fo, createSerializer(expected));
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        List<IFDocumentHandler> targets = new ArrayList<IFDocumentHandler>();
+        targets.add(createSerializer(first));
+        targets.add(createSerializer(second));
+        renderFO(fo, new MultiTargetIFDocumentHandler(targets, 1));
+
+        String reference = withoutDates(expected.toString("UTF-8"));
+        assertTrue(reference.contains("<nav:link "));
+        assertTrue(reference.contains("<nav:bookmark "));
+        assertTrue(reference.contains("<nav:goto-uri "));
+        assertTrue(reference.contains("page-index-relative"));
+        assertEquals(reference, withoutDates(first.toString("UTF-8")));
+        assertEquals(reference, withoutDates(second.toString("UTF-8")));
+    }
+
+    /** Removes the metadata dates, which are set to the time each document is rendered. */
+    private static String withoutDates(String document) {
+        return document.replaceAll("<xmp:(MetadataDate|CreateDate)>[^<]*<", "<xmp:$1><");
+    }
+
+    private IFSerializer createSerializer(ByteArrayOutputStream out) throws IFException {
+        IFSerializer serializer = new IFSerializer(new IFContext(userAgent));
+        serializer.setResult(new StreamResult(out));
+        return serializer;
+    }
+
+    private void renderFO(String fo, IFDocumentHandler handler) throws Exception {
+        FOUserAgent foUserAgent = fopFactory.newFOUserAgent();
+        foUserAgent.setDocumentHandlerOverride(handler);
+        Fop fop = fopFactory.newFop(foUserAgent);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new ByteArrayInputStream(fo.getBytes("UTF-8"))),
+                new SAXResult(fop.getDefaultHandler()));
+    }
+
+    private static String createFOWithLinks() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">\n"
+                + "  <fo:layout-master-set>\n"
+                + "    <fo:simple-page-master master-name=\"page\" page-height=\"10cm\" page-width=\"10cm\">\n"
+                + "      <fo:region-body margin=\"1cm\"/>\n"
+                + "    </fo:simple-page-master>\n"
+                + "  </fo:layout-master-set>\n"
+                + "  <fo:bookmark-tree>\n");
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            sb.append("    <fo:bookmark internal-destination=\"chapter").append(i).append("\">\n"
+                    + "      <fo:bookmark-title>Chapter ").append(i).append("</fo:bookmark-title>\n"
+                    + "      <fo:bookmark internal-destination=\"section").append(i).append("\">\n"
+                    + "        <fo:bookmark-title>Section ").append(i).append("</fo:bookmark-title>\n"
+                    + "      </fo:bookmark>\n"
+                    + "    </fo:bookmark>\n");
+        }
+        sb.append("  </fo:bookmark-tree>\n"
+                + "  <fo:page-sequence master-reference=\"page\">\n"
+                + "    <fo:flow flow-name=\"xsl-region-body\">\n");
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            sb.append("      <fo:block id=\"chapter").append(i).append("\" break-before=\"page\">"
+                    + "<fo:basic-link internal-destination=\"chapter").append((i + 1) % PAGE_COUNT)
+                    .append("\">Next chapter</fo:basic-link>"
+                    + "<fo:basic-link internal-destination=\"chapter0\">First chapter</fo:basic-link>"
+                    + "<fo:basic-link external-destination=\"url(http://xmlgraphics.apache.org/fop/)\">"
+                    + "FOP</fo:basic-link></fo:block>\n"
+                    + "      <fo:block id=\"section").append(i).append("\" space-before=\"2cm\">Section</fo:block>\n");
+        }
+        sb.append("    </fo:flow>\n  </fo:page-sequence>\n</fo:root>");
+        return sb.toString();
+    }
+
+    private static void renderDocument(IFDocumentHandler handler) throws IFException {
+        handler.startDocument();
+        handler.startDocumentHeader();
+        handler.endDocumentHeader();
+        handler.startPageSequence("seq");
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            handler.getContext().setPageNumber(page + 1);
+            handler.startPage(page, Integer.toString(page + 1), "master", new Dimension(595000, 842000));
+            IFPainter painter = handler.startPageContent();
+            painter.setFont("sans-serif", "normal", 400, null, 12000, Color.black);
+            Rectangle rect = new Rectangle(0, 0, 1000, 1000);
+            for (int line = 0; line < 300; line++) {
+                handler.getContext().setHyphenated(line % 10 == 0);
+                rect.y = line * 1000;
+                painter.fillRect(rect, Color.yellow);
+                painter.drawText(0, line * 1000, 0, 0, null, "Line " + line);
+            }
+            handler.endPageContent();
+            handler.endPage();
+        }
+        handler.endPageSequence();
+        handler.startDocumentTrailer();
+        handler.endDocumentTrailer();
+        handler.endDocument();
+    }
+}
@@ -120,11 +120,35 @@ public class PDFEncodingTestCase extends BasePDFTest {
         runTest("test-custom-non-bmp-font.fo", testPatterns);
     }
 
+    /**
+     * Test that an encrypted document still reads back correctly when parallel stream
+     * compression is configured
+     * @throws Exception checkstyle wants a comment here, even a silly one
+     */
+    @Test
+    public void testPDFEncodingWithEncryptionAndCompressionThreads() throws Exception {
+        final String[] testPatterns = {
+                TEST_MARKER + "1", "Standard",
+                TEST_MARKER + "2", "XX_\u00E9_XX",
+                TEST_MARKER + "3", "XX_\u00E2\u00EA\u00EE\u00F4\u00FB_XX"
+        };
+
+        FOUserAgent userAgent = getUserAgent();
+        userAgent.getRendererOptions().put(PDFEncryptionOption.OWNER_PASSWORD.getName(), "owner");
+        userAgent.getRendererOptions().put(PDFRendererOption.COMPRESSION_THREADS.getName(), "4");
+        runTest("test-standard-font.fo", testPatterns, userAgent);
+    }
+
     /** Test encoding using specified input file and test patterns array */
     private void runTest(String inputFile, String[] testPatterns)
             throws Exception {
+        runTest(inputFile, testPatterns, getUserAgent());
+    }
+
+    private void runTest(String inputFile, String[] testPatterns, FOUserAgent userAgent)
+            throws Exception {
         File foFile = new File(foBaseDir, inputFile);
-        byte[] pdfData = convertFO(foFile, getUserAgent(), dumpPDF);
+        byte[] pdfData = convertFO(foFile, userAgent, dumpPDF);
         checkEncoding(pdfData, testPatterns);
     }
 
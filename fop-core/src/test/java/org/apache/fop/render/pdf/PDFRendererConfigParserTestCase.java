@@ -20,11 +20,14 @@
 package org.apache.fop.render.pdf;
 
 import java.io.File;
+import java.util.Map;
+import java.util.zip.Deflater;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.apache.fop.apps.AbstractRendererConfigParserTester;
@@ -32,6 +35,7 @@ import org.apache.fop.apps.FOUserAgent;
 import org.apache.fop.apps.FopFactory;
 import org.apache.fop.apps.PDFRendererConfBuilder;
 import org.apache.fop.pdf.PDFAMode;
+import org.apache.fop.pdf.PDFCompressionParams;
 import org.apache.fop.pdf.PDFEncryptionParams;
 import org.apache.fop.pdf.PDFXMode;
 import org.apache.fop.pdf.Version;
@@ -142,6 +146,27 @@ public class PDFRendererConfigParserTestCase
         assertEquals("ascii-85", conf.getConfigOptions().getFilterMap().get("image").get(1));
     }
 
+    @Test
+    public void testFilterCompression() throws Exception {
+        parseConfig(createRenderer()
+                .createFilterList("image", "flate", "ascii-85")
+                .createFilterCompression("image", "1", "filtered")
+                .createFilterCompression("content", "9", null));
+        Map<String, PDFCompressionParams> compression = conf.getConfigOptions().getCompressionParamsMap();
+        assertEquals(new PDFCompressionParams(1, Deflater.FILTERED), compression.get("image"));
+        assertEquals(new PDFCompressionParams(9, Deflater.DEFAULT_STRATEGY), compression.get("content"));
+        assertEquals(2, conf.getConfigOptions().getFilterMap().get("image").size());
+        assertFalse(conf.getConfigOptions().getFilterMap().containsKey("content"));
+    }
+
+    @Test
+    public void testCompressionThreads() throws Exception {
+        parseConfig(createRenderer());
+        assertNull(conf.getConfigOptions().getCompressionThreads());
+        parseConfig(createRenderer().setCompressionThreads(4));
+        assertEquals(Integer.valueOf(4), conf.getConfigOptions().getCompressionThreads());
+    }
+
     @Test
     public void testPDFAMode() throws Exception {
         parseConfig(createRenderer().setPDFAMode(PDFAMode.PDFA_1A.getName()));
@@ -200,6 +225,14 @@ public class PDFRendererConfigParserTestCase
         }
     }
 
+    @Test
+    public void testStreamingOutput() throws Exception {
+        parseConfig(createRenderer());
+        assertNull(conf.getConfigOptions().getStreamingOutputEnabled());
+        parseConfig(createRenderer().setStreamingOutputEnabled(true));
+        assertTrue(conf.getConfigOptions().getStreamingOutputEnabled());
+    }
+
     @Test
     public void testPDFVersions() throws Exception {
         for (int i = 0; i <= 7; i++) {
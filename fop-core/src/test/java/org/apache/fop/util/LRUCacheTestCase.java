@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+package org.apache.fop.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link LRUCache}.
+ */
+public class LRUCacheTestCase {
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        LRUCache<String, Integer> cache = new LRUCache<String, Integer>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals("LRUCache: 2 entries, 3 hits, 1 misses", cache.toString());
+    }
+
+    @Test
+    public void testSetMaxEntries() {
+        LRUCache<String, Integer> cache = new LRUCache<String, Integer>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.setMaxEntries(1);
+        assertEquals(1, cache.getMaxEntries());
+        assertEquals(1, cache.size());
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+
+        cache.setMaxEntries(0);
+        assertEquals(0, cache.size());
+        cache.put("a", 1);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testClearResetsStatistics() {
+        LRUCache<String, Integer> cache = new LRUCache<String, Integer>(2);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("b");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxEntries() {
+        new LRUCache<String, Integer>(-1);
+    }
+}